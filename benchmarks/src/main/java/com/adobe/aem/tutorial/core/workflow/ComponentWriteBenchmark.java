@@ -0,0 +1,122 @@
+package com.adobe.aem.tutorial.core.workflow;
+
+import com.day.cq.wcm.api.Page;
+import io.wcm.testing.mock.aem.context.AemContextImpl;
+import org.apache.sling.api.resource.PersistenceException;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.testing.mock.sling.ResourceResolverType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.jcr.Node;
+import javax.jcr.RepositoryException;
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Repository side of the import: copying row values onto nodes and building the full component
+ * structure of a page, including the final commit. Writes go to an in-memory repository, either the
+ * JCR mock or a real Oak repository, and every invocation starts from an empty page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ComponentWriteBenchmark {
+
+    private static final String PAGE_PATH = "/content/bench/import";
+    private static final String SOURCE = "/content/dam/bench/import.xlsx";
+
+    @Param({ "1000", "10000", "100000" })
+    public int rows;
+
+    @Param({ "JCR_MOCK", "JCR_OAK" })
+    public ResourceResolverType resolverType;
+
+    private BenchmarkContext context;
+    private SheetTable table;
+    private CreatePageFromExcelWorkflowProcess process;
+    private Page page;
+    private Node scratchNode;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context = new BenchmarkContext(resolverType);
+        table = CreatePageFromExcelWorkflowProcess.parseExcel(
+                new ByteArrayInputStream(SyntheticWorkbook.create(rows)));
+        process = new CreatePageFromExcelWorkflowProcess();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.stop();
+    }
+
+    @Setup(Level.Invocation)
+    public void createPage() throws RepositoryException, PersistenceException {
+        page = context.create().page(PAGE_PATH);
+        scratchNode = page.getContentResource().adaptTo(Node.class).addNode("scratch", "nt:unstructured");
+        context.resourceResolver().commit();
+    }
+
+    @TearDown(Level.Invocation)
+    public void deletePage() throws PersistenceException {
+        ResourceResolver resolver = context.resourceResolver();
+        resolver.revert();
+        Resource pageResource = resolver.getResource(PAGE_PATH);
+        if (pageResource != null) {
+            resolver.delete(pageResource);
+        }
+        resolver.commit();
+    }
+
+    @Benchmark
+    public void addProperties(SheetParsingBenchmark.RowCounter counter) throws RepositoryException {
+        for (int row = 0; row < table.getRowCount(); row++) {
+            CreatePageFromExcelWorkflowProcess.addProperties(scratchNode, table.row(row));
+        }
+        counter.rows += table.getRowCount();
+    }
+
+    @Benchmark
+    public int createComponentStructure(SheetParsingBenchmark.RowCounter counter)
+            throws RepositoryException, PersistenceException {
+        ResourceResolver resolver = context.resourceResolver();
+        ImportProgress progress = new ImportProgress(SOURCE);
+        ImportCheckpoint checkpoint = ImportCheckpoint.start(resolver, page, SOURCE, 0L, 0, progress,
+                ImportMetrics.NOOP);
+        int groups = process.createComponentStructure(resolver, page, table, checkpoint, progress);
+        checkpoint.complete();
+        counter.rows += table.getRowCount();
+        return groups;
+    }
+
+    /**
+     * Drives the AEM mock context life cycle outside of a JUnit extension.
+     */
+    private static final class BenchmarkContext extends AemContextImpl {
+
+        private BenchmarkContext(ResourceResolverType resolverType) {
+            setResourceResolverType(resolverType);
+            setUp();
+        }
+
+        private void stop() {
+            tearDown();
+        }
+    }
+}
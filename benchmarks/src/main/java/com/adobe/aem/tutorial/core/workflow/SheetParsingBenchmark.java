@@ -0,0 +1,120 @@
+package com.adobe.aem.tutorial.core.workflow;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing side of the import: reading the workbook into a {@link SheetTable}, converting single cells
+ * and grouping rows into components, either from a parsed table or streamed straight from the workbook.
+ * The {@code rows} counter reports rows per second; run with {@code -prof gc} for the allocation rate
+ * per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class SheetParsingBenchmark {
+
+    @Param({ "1000", "10000", "100000" })
+    public int rows;
+
+    private byte[] workbookBytes;
+    private Workbook workbook;
+    private List<Cell> cells;
+    private SheetTable table;
+
+    /**
+     * Auxiliary counter so JMH reports processed spreadsheet rows alongside operations.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class RowCounter {
+        public long rows;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            rows = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        workbookBytes = SyntheticWorkbook.create(rows);
+        table = CreatePageFromExcelWorkflowProcess.parseExcel(new ByteArrayInputStream(workbookBytes));
+
+        workbook = WorkbookFactory.create(new ByteArrayInputStream(workbookBytes));
+        Sheet sheet = workbook.getSheetAt(0);
+        cells = new ArrayList<>(rows * SyntheticWorkbook.HEADERS.length);
+        for (Row row : sheet) {
+            if (row.getRowNum() == 0) {
+                continue;
+            }
+            for (int i = 0; i < SyntheticWorkbook.HEADERS.length; i++) {
+                cells.add(row.getCell(i));
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        workbook.close();
+    }
+
+    @Benchmark
+    public SheetTable parseExcel(RowCounter counter) throws Exception {
+        SheetTable parsed = CreatePageFromExcelWorkflowProcess.parseExcel(new ByteArrayInputStream(workbookBytes));
+        counter.rows += parsed.getRowCount();
+        return parsed;
+    }
+
+    @Benchmark
+    public void getCellValue(RowCounter counter, Blackhole blackhole) {
+        for (Cell cell : cells) {
+            blackhole.consume(CreatePageFromExcelWorkflowProcess.getCellValue(cell));
+        }
+        counter.rows += rows;
+    }
+
+    @Benchmark
+    public Map<String, ComponentGroup> groupExcelRows(RowCounter counter) {
+        Map<String, ComponentGroup> grouped = CreatePageFromExcelWorkflowProcess.groupExcelRows(table);
+        counter.rows += table.getRowCount();
+        return grouped;
+    }
+
+    @Benchmark
+    public void streamingGroupRows(RowCounter counter, Blackhole blackhole) throws Exception {
+        StreamingRowGrouper grouper = new StreamingRowGrouper(
+                (group, lastRow, continuation) -> blackhole.consume(group.getNodeName()));
+        new StreamingExcelReader().read(new ByteArrayInputStream(workbookBytes), grouper);
+        grouper.finish();
+        counter.rows += grouper.getRowCount();
+    }
+}
@@ -0,0 +1,61 @@
+package com.adobe.aem.tutorial.core.workflow;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * Builds import spreadsheets of a given size with the column layout authors use: key columns, text,
+ * a numeric and a boolean column. Hero and tile groups have one row, carousel groups have four rows,
+ * so both single-node components and multifields are exercised.
+ */
+final class SyntheticWorkbook {
+
+    static final String[] HEADERS = {
+            CreatePageFromExcelWorkflowProcess.COMPONENT_NAME, CreatePageFromExcelWorkflowProcess.GROUP_ID,
+            "title", "description", "link", "image", "order", "featured"
+    };
+
+    private static final String[] COMPONENTS = { "hero", "tile", "carousel" };
+    private static final int CAROUSEL_ITEMS = 4;
+
+    private SyntheticWorkbook() {
+    }
+
+    static byte[] create(int rows) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (SXSSFWorkbook workbook = new SXSSFWorkbook(1000)) {
+            Sheet sheet = workbook.createSheet("components");
+            Row header = sheet.createRow(0);
+            for (int i = 0; i < HEADERS.length; i++) {
+                header.createCell(i).setCellValue(HEADERS[i]);
+            }
+
+            int group = 0;
+            int rowIndex = 0;
+            while (rowIndex < rows) {
+                String component = COMPONENTS[group % COMPONENTS.length];
+                int groupRows = "carousel".equals(component) ? CAROUSEL_ITEMS : 1;
+                for (int item = 0; item < groupRows && rowIndex < rows; item++) {
+                    Row row = sheet.createRow(++rowIndex);
+                    row.createCell(0).setCellValue(component);
+                    row.createCell(1).setCellValue("g" + group);
+                    row.createCell(2).setCellValue("Title " + rowIndex);
+                    row.createCell(3).setCellValue("Generated description for row " + rowIndex
+                            + " of the import benchmark workbook");
+                    row.createCell(4).setCellValue("/content/FutureConcepts/us/en/page-" + (rowIndex % 50));
+                    row.createCell(5).setCellValue("/content/dam/FutureConcepts/images/image-" + (rowIndex % 20) + ".jpg");
+                    row.createCell(6).setCellValue(item);
+                    row.createCell(7).setCellValue(rowIndex % 2 == 0);
+                }
+                group++;
+            }
+            workbook.write(out);
+            workbook.dispose();
+        }
+        return out.toByteArray();
+    }
+}
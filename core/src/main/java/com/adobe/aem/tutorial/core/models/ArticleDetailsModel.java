@@ -1,18 +1,59 @@
 package com.adobe.aem.tutorial.core.models;
 
+import com.adobe.cq.export.json.ComponentExporter;
+import com.adobe.cq.export.json.ExporterConstants;
 import com.fasterxml.jackson.annotation.JsonInclude;
+import org.apache.sling.api.SlingHttpServletRequest;
 import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ValueMap;
 import org.apache.sling.models.annotations.DefaultInjectionStrategy;
+import org.apache.sling.models.annotations.Exporter;
 import org.apache.sling.models.annotations.Model;
-import org.apache.sling.models.annotations.injectorspecific.ChildResource;
+import org.apache.sling.models.annotations.injectorspecific.OSGiService;
+import org.apache.sling.models.annotations.injectorspecific.Self;
+import org.apache.sling.models.annotations.injectorspecific.SlingObject;
 import org.apache.sling.models.annotations.injectorspecific.ValueMapValue;
 
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 
-@Model(adaptables = Resource.class,
+/**
+ * Articles component, rendered one page of articles at a time. The page and its size come from
+ * {@code page-<n>} and {@code size-<n>} selectors, falling back to the first page and the authored page
+ * size, so {@code articles.model.page-2.size-10.json} returns the second page of ten as a fragment for the
+ * front end to append. Only the articles of the requested page are adapted to {@link ArticleItem}.
+ * <p>
+ * The article names, in authored and in date order, are read once per component version and kept in the
+ * {@link ModelCache}, so neither counting nor sorting walks the multifield on every request.
+ */
+@Model(adaptables = { SlingHttpServletRequest.class, Resource.class },
+        adapters = { ArticleDetailsModel.class, ComponentExporter.class },
+        resourceType = ArticleDetailsModel.RESOURCE_TYPE,
         defaultInjectionStrategy = DefaultInjectionStrategy.OPTIONAL)
+@Exporter(name = ExporterConstants.SLING_MODEL_EXPORTER_NAME, extensions = ExporterConstants.SLING_MODEL_EXTENSION)
 @JsonInclude(JsonInclude.Include.NON_NULL)
-public class ArticleDetailsModel {
+public class ArticleDetailsModel implements ComponentExporter {
+
+    public static final String RESOURCE_TYPE = "FutureConcepts/components/articles";
+
+    static final String PAGE_SELECTOR = "page-";
+    static final String SIZE_SELECTOR = "size-";
+    static final String ORDER_BY_DATE = "date";
+    static final int DEFAULT_PAGE_SIZE = 10;
+    static final int MAX_PAGE_SIZE = 100;
+
+    @SlingObject
+    private Resource resource;
+
+    @Self
+    private SlingHttpServletRequest request;
+
+    @OSGiService
+    private ModelCache modelCache;
 
     @ValueMapValue(name = "fileReference")
     private String image;
@@ -23,8 +64,29 @@ public class ArticleDetailsModel {
     @ValueMapValue
     private String description;
 
-    @ChildResource
-    private List<ArticleItem> article;
+    @ValueMapValue(name = "pageSize")
+    private Integer authoredPageSize;
+
+    @ValueMapValue
+    private String orderBy;
+
+    private ArticleIndex index;
+    private List<String> names;
+    private int page;
+    private int pageSize;
+    private List<ArticleItem> articles;
+
+    @PostConstruct
+    protected void init() {
+        index = modelCache != null
+                ? modelCache.get(resource, ArticleIndex.class, ArticleIndex::new) : new ArticleIndex(resource);
+        names = ORDER_BY_DATE.equals(orderBy) ? index.byDate : index.authored;
+
+        String[] selectors = request != null ? request.getRequestPathInfo().getSelectors() : new String[0];
+        page = Math.max(1, selector(selectors, PAGE_SELECTOR, 1));
+        int defaultSize = authoredPageSize != null && authoredPageSize > 0 ? authoredPageSize : DEFAULT_PAGE_SIZE;
+        pageSize = Math.min(MAX_PAGE_SIZE, Math.max(1, selector(selectors, SIZE_SELECTOR, defaultSize)));
+    }
 
     public String getImage() {
         return image;
@@ -39,19 +101,126 @@ public class ArticleDetailsModel {
     }
 
     /**
-     * This logic was to reverse list of multifield items
-     * @return reversed list
+     * @return the articles of the current page, adapted on first use
      */
-//    public List<ArticleItem> getArticle() {
-//        if (article != null) {
-//            List<ArticleItem> reversed = new ArrayList<>(article);
-//            Collections.reverse(reversed);
-//            return reversed;
-//        }
-//        return Collections.emptyList();
-//    }
-
     public List<ArticleItem> getArticle() {
-        return article;
+        if (articles == null) {
+            articles = index.page(resource, names, page, pageSize);
+        }
+        return articles;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public int getPageCount() {
+        return Math.max(1, (names.size() + pageSize - 1) / pageSize);
+    }
+
+    public int getTotal() {
+        return names.size();
+    }
+
+    /**
+     * @return the number of the next page, or {@code null} on the last page
+     */
+    public Integer getNextPage() {
+        return page < getPageCount() ? page + 1 : null;
+    }
+
+    @Override
+    public String getExportedType() {
+        return RESOURCE_TYPE;
+    }
+
+    /**
+     * @return the number following the first selector with the given prefix, or the fallback if there is
+     * none or it is not a number
+     */
+    static int selector(String[] selectors, String prefix, int fallback) {
+        for (String selector : selectors) {
+            if (selector.startsWith(prefix)) {
+                try {
+                    return Integer.parseInt(selector.substring(prefix.length()));
+                } catch (NumberFormatException e) {
+                    return fallback;
+                }
+            }
+        }
+        return fallback;
+    }
+
+    /**
+     * Names of the article multifield items in authored order and newest first. Only items that adapt to
+     * {@link ArticleItem} are indexed, so the total and the page count match what is rendered.
+     */
+    static final class ArticleIndex {
+
+        private final String multifield;
+        final List<String> authored;
+        final List<String> byDate;
+
+        ArticleIndex(Resource resource) {
+            // The model has always read "article"; the dialog stores the multifield as "articles".
+            Resource items = resource.getChild("article");
+            if (items == null) {
+                items = resource.getChild("articles");
+            }
+            multifield = items != null ? items.getName() : null;
+
+            List<String> names = new ArrayList<>();
+            List<Dated> dated = new ArrayList<>();
+            if (items != null) {
+                for (Resource item : items.getChildren()) {
+                    ValueMap properties = item.getValueMap();
+                    if (ArticleItem.isComplete(properties)) {
+                        names.add(item.getName());
+                        dated.add(new Dated(item.getName(), properties.get("date", Calendar.class)));
+                    }
+                }
+            }
+            dated.sort(Comparator.comparing((Dated item) -> item.date,
+                    Comparator.nullsLast(Comparator.reverseOrder())));
+            List<String> newestFirst = new ArrayList<>(dated.size());
+            dated.forEach(item -> newestFirst.add(item.name));
+            authored = Collections.unmodifiableList(names);
+            byDate = Collections.unmodifiableList(newestFirst);
+        }
+
+        /**
+         * @return the items of one page of {@code names}, resolved and adapted one by one
+         */
+        List<ArticleItem> page(Resource resource, List<String> names, int page, int pageSize) {
+            long from = (long) (page - 1) * pageSize;
+            if (multifield == null || from >= names.size()) {
+                return Collections.emptyList();
+            }
+            Resource items = resource.getChild(multifield);
+            List<ArticleItem> visible = new ArrayList<>(pageSize);
+            for (String name : names.subList((int) from, (int) Math.min(names.size(), from + pageSize))) {
+                Resource item = items != null ? items.getChild(name) : null;
+                ArticleItem article = item != null ? item.adaptTo(ArticleItem.class) : null;
+                if (article != null) {
+                    visible.add(article);
+                }
+            }
+            return visible;
+        }
+
+        private static final class Dated {
+
+            private final String name;
+            private final Calendar date;
+
+            private Dated(String name, Calendar date) {
+                this.name = name;
+                this.date = date;
+            }
+        }
     }
 }
@@ -0,0 +1,209 @@
+package com.adobe.aem.tutorial.core.models;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import org.apache.sling.api.resource.LoginException;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.ResourceResolverFactory;
+import org.apache.sling.api.resource.observation.ExternalResourceChangeListener;
+import org.apache.sling.api.resource.observation.ResourceChange;
+import org.apache.sling.api.resource.observation.ResourceChangeListener;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.jcr.query.Query;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Newest articles across the site, read from the article multifield items of all articles components
+ * below {@value #ROOT}. The items are found with a query that only the {@code futureconceptsArticles-custom-1}
+ * Lucene index answers, sorted by its ordered {@code date} property and filtered by its {@code author}
+ * property; the query fails instead of traversing the repository if that index is missing.
+ * <p>
+ * Results are read with a service user, so they are the same for every reader, and kept per author until
+ * anything below {@value #ROOT} changes. As the index is updated asynchronously, an entry also expires
+ * after a short time, so articles indexed after the change that invalidated the cache show up too.
+ */
+@Designate(ocd = ArticleFeed.Config.class)
+@Component(service = { ArticleFeed.class, ResourceChangeListener.class }, property = {
+        ResourceChangeListener.PATHS + "=" + ArticleFeed.ROOT,
+        ResourceChangeListener.CHANGES + "=ADDED",
+        ResourceChangeListener.CHANGES + "=CHANGED",
+        ResourceChangeListener.CHANGES + "=REMOVED"
+})
+public class ArticleFeed implements ResourceChangeListener, ExternalResourceChangeListener {
+
+    @ObjectClassDefinition(name = "Article Feed",
+                           description = "Newest articles of all articles components of the site")
+    public static @interface Config {
+
+        @AttributeDefinition(name = "Maximum items",
+                             description = "Largest number of articles a feed returns")
+        int maxItems() default 50;
+
+        @AttributeDefinition(name = "Cache time (seconds)",
+                             description = "How long a feed is reused when nothing changes; bounds how late "
+                                     + "asynchronously indexed articles show up")
+        long cacheSeconds() default 60;
+
+        @AttributeDefinition(name = "Cached feeds",
+                             description = "Number of feeds, one per author filter, kept in the cache")
+        int maxCachedFeeds() default 100;
+    }
+
+    static final String ROOT = "/content/FutureConcepts";
+    static final String SUBSERVICE = "article-feed";
+    static final String INDEX_TAG = "futureconceptsArticles";
+
+    private static final Logger log = LoggerFactory.getLogger(ArticleFeed.class);
+
+    @Reference
+    private ResourceResolverFactory resolverFactory;
+
+    private int maxItems;
+    private long cacheMillis;
+    private Map<String, CachedFeed> feeds = Collections.emptyMap();
+    private final AtomicLong generation = new AtomicLong();
+
+    @Activate
+    protected void activate(final Config config) {
+        maxItems = Math.max(1, config.maxItems());
+        cacheMillis = TimeUnit.SECONDS.toMillis(Math.max(0, config.cacheSeconds()));
+        int maxCachedFeeds = config.maxCachedFeeds();
+        feeds = Collections.synchronizedMap(new LinkedHashMap<String, CachedFeed>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedFeed> eldest) {
+                return size() > maxCachedFeeds;
+            }
+        });
+    }
+
+    /**
+     * @param limit  number of articles, capped at the configured maximum
+     * @param author only articles by this author, or all articles if {@code null} or empty
+     * @return the newest articles, newest first
+     */
+    public List<Entry> latest(int limit, String author) {
+        String key = author != null ? author.trim() : "";
+        long now = System.currentTimeMillis();
+        CachedFeed feed = feeds.get(key);
+        if (feed == null || feed.expires <= now) {
+            long loadedGeneration = generation.get();
+            List<Entry> entries = query(key);
+            if (entries == null) {
+                return Collections.emptyList();
+            }
+            feed = new CachedFeed(entries, now + cacheMillis);
+            synchronized (feeds) {
+                // A change seen while querying may not be part of the result, so it is not cached.
+                if (generation.get() == loadedGeneration) {
+                    feeds.put(key, feed);
+                }
+            }
+        }
+        List<Entry> entries = feed.entries;
+        return entries.subList(0, Math.min(entries.size(), Math.max(0, Math.min(limit, maxItems))));
+    }
+
+    @Override
+    public void onChange(List<ResourceChange> changes) {
+        synchronized (feeds) {
+            generation.incrementAndGet();
+            feeds.clear();
+        }
+    }
+
+    /**
+     * @return the newest articles, or {@code null} if the index cannot answer the query
+     */
+    private List<Entry> query(String author) {
+        try (ResourceResolver resolver = resolverFactory.getServiceResourceResolver(
+                Collections.singletonMap(ResourceResolverFactory.SUBSERVICE, SUBSERVICE))) {
+            List<Entry> entries = new ArrayList<>();
+            Iterator<Resource> items = resolver.findResources(statement(author), Query.JCR_SQL2);
+            while (items.hasNext() && entries.size() < maxItems) {
+                Resource item = items.next();
+                ArticleItem article = item.adaptTo(ArticleItem.class);
+                if (article != null) {
+                    entries.add(new Entry(pagePath(item.getPath()), article));
+                }
+            }
+            return Collections.unmodifiableList(entries);
+        } catch (RuntimeException e) {
+            // Thrown instead of traversing when the index is missing or not yet built.
+            log.error("Article feed query failed, is the {} index deployed?", INDEX_TAG, e);
+            return null;
+        } catch (LoginException e) {
+            throw new IllegalStateException("Could not log in as the " + SUBSERVICE + " service user", e);
+        }
+    }
+
+    /**
+     * @return the JCR-SQL2 statement for the newest articles of an author, or of all authors if empty
+     */
+    static String statement(String author) {
+        StringBuilder statement = new StringBuilder("SELECT * FROM [nt:unstructured] AS article")
+                .append(" WHERE ISDESCENDANTNODE(article, '").append(ROOT).append("')")
+                .append(" AND article.[artTitle] IS NOT NULL");
+        if (!author.isEmpty()) {
+            statement.append(" AND article.[author] = '").append(author.replace("'", "''")).append('\'');
+        }
+        return statement.append(" ORDER BY article.[date] DESC")
+                .append(" OPTION(TRAVERSAL FAIL, INDEX TAG ").append(INDEX_TAG).append(')')
+                .toString();
+    }
+
+    private static String pagePath(String itemPath) {
+        int content = itemPath.indexOf("/jcr:content");
+        return content > 0 ? itemPath.substring(0, content) : itemPath;
+    }
+
+    /**
+     * One article of the feed and the page it is on.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static final class Entry {
+
+        private final String pagePath;
+        private final ArticleItem article;
+
+        Entry(String pagePath, ArticleItem article) {
+            this.pagePath = pagePath;
+            this.article = article;
+        }
+
+        public String getPagePath() {
+            return pagePath;
+        }
+
+        @JsonUnwrapped
+        public ArticleItem getArticle() {
+            return article;
+        }
+    }
+
+    private static final class CachedFeed {
+
+        private final List<Entry> entries;
+        private final long expires;
+
+        private CachedFeed(List<Entry> entries, long expires) {
+            this.entries = entries;
+            this.expires = expires;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.adobe.aem.tutorial.core.models;
 
 import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ValueMap;
 import org.apache.sling.models.annotations.Model;
 import org.apache.sling.models.annotations.injectorspecific.ValueMapValue;
 
@@ -22,6 +23,16 @@ public class ArticleItem {
     @ValueMapValue
     private Calendar date;
 
+    /**
+     * @return whether an item with these properties adapts, which takes every injected property
+     */
+    static boolean isComplete(ValueMap properties) {
+        return properties.get("artTitle", String.class) != null
+                && properties.get("artDescription", String.class) != null
+                && properties.get("author", String.class) != null
+                && properties.get("date", Calendar.class) != null;
+    }
+
     public String getArtTitle() {
         return artTitle;
     }
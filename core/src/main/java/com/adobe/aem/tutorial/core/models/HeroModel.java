@@ -1,10 +1,15 @@
 package com.adobe.aem.tutorial.core.models;
 
 import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
 import org.apache.sling.models.annotations.DefaultInjectionStrategy;
 import org.apache.sling.models.annotations.Model;
+import org.apache.sling.models.annotations.injectorspecific.OSGiService;
+import org.apache.sling.models.annotations.injectorspecific.SlingObject;
 import org.apache.sling.models.annotations.injectorspecific.ValueMapValue;
 
+import javax.annotation.PostConstruct;
+
 @Model(adaptables = Resource.class, defaultInjectionStrategy = DefaultInjectionStrategy.OPTIONAL)
 public class HeroModel {
 
@@ -17,6 +22,19 @@ public class HeroModel {
     @ValueMapValue
     private String image;
 
+    @SlingObject
+    private ResourceResolver resourceResolver;
+
+    @OSGiService
+    private ImageRenditions imageRenditions;
+
+    private ResponsiveImage imageRenditionUrls;
+
+    @PostConstruct
+    protected void init() {
+        imageRenditionUrls = imageRenditions != null ? imageRenditions.responsive(resourceResolver, image) : null;
+    }
+
     public String getTitle() {
         return title;
     }
@@ -28,4 +46,8 @@ public class HeroModel {
     public String getImage() {
         return image;
     }
+
+    public ResponsiveImage getImageRenditions() {
+        return imageRenditionUrls;
+    }
 }
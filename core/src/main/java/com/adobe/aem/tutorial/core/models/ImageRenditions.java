@@ -0,0 +1,275 @@
+package com.adobe.aem.tutorial.core.models;
+
+import com.day.cq.dam.api.Asset;
+import com.day.cq.dam.api.Rendition;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.osgi.framework.BundleContext;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Width-bucketed renditions of DAM images for the hero, tile and carousel components. Rendition URLs
+ * look like {@code /content/dam/site/hero.jpg.fcimg.640.webp/1700000000000.webp}: the selector names the
+ * width, the extension the format and the suffix the version of the asset, so a URL never changes
+ * content and the dispatcher and browsers can keep it for a year. Only the configured widths are served.
+ * <p>
+ * Renditions are generated on first request from the smallest {@code cq5dam.web} rendition that is wide
+ * enough, or from the original, and kept in an on-disk cache that evicts the least recently used files.
+ * JPEG and PNG can always be encoded; WebP and AVIF are offered as soon as an ImageIO encoder for them
+ * is installed.
+ */
+@Designate(ocd = ImageRenditions.Config.class)
+@Component(service = ImageRenditions.class)
+public class ImageRenditions {
+
+    @ObjectClassDefinition(name = "Image Renditions",
+                           description = "Width-bucketed renditions of hero, tile and carousel images")
+    public static @interface Config {
+
+        @AttributeDefinition(name = "Widths",
+                             description = "Rendition widths in pixels offered in srcset")
+        int[] widths() default { 320, 640, 960, 1280, 1920 };
+
+        @AttributeDefinition(name = "Quality",
+                             description = "Compression quality of lossy formats, 1 to 100")
+        int quality() default 82;
+
+        @AttributeDefinition(name = "Cache directory",
+                             description = "Directory of generated renditions. Empty uses the bundle's data area")
+        String cacheDirectory() default "";
+
+        @AttributeDefinition(name = "Cache size (MB)",
+                             description = "Size of the rendition cache before the least recently used "
+                                     + "renditions are deleted")
+        long maxCacheMegabytes() default 512;
+    }
+
+    /**
+     * Encodings renditions are offered in, most compact first.
+     */
+    public enum Format {
+        AVIF("avif", "image/avif"),
+        WEBP("webp", "image/webp"),
+        JPEG("jpg", "image/jpeg"),
+        PNG("png", "image/png");
+
+        private final String extension;
+        private final String mimeType;
+
+        Format(String extension, String mimeType) {
+            this.extension = extension;
+            this.mimeType = mimeType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public String getMimeType() {
+            return mimeType;
+        }
+
+        public boolean isEncodable() {
+            return ImageScaler.canWrite(mimeType);
+        }
+
+        /**
+         * @return the format of a rendition URL extension, or {@code null}
+         */
+        public static Format forExtension(String extension) {
+            if ("jpeg".equals(extension)) {
+                return JPEG;
+            }
+            for (Format format : values()) {
+                if (format.extension.equals(extension)) {
+                    return format;
+                }
+            }
+            return null;
+        }
+    }
+
+    public static final String SELECTOR = "fcimg";
+
+    private static final Pattern WEB_RENDITION = Pattern.compile("cq5dam\\.(?:web|thumbnail)\\.(\\d+)\\.(\\d+)\\..+");
+
+    private int[] widths = new int[0];
+    private float quality;
+    private RenditionDiskCache cache;
+
+    @Activate
+    protected void activate(final Config config, final BundleContext bundleContext) throws IOException {
+        widths = Arrays.stream(config.widths()).filter(width -> width > 0).distinct().sorted().toArray();
+        quality = Math.min(100, Math.max(1, config.quality())) / 100f;
+        cache = new RenditionDiskCache(cacheDirectory(config, bundleContext),
+                Math.max(1, config.maxCacheMegabytes()) * 1024 * 1024);
+        cache.open();
+    }
+
+    /**
+     * @param imagePath DAM path of the image, as stored by the component dialogs
+     * @return the rendition URLs of the image, just the path if it cannot be scaled, or {@code null} if
+     * there is no image
+     */
+    public ResponsiveImage responsive(ResourceResolver resolver, String imagePath) {
+        if (imagePath == null || imagePath.isEmpty()) {
+            return null;
+        }
+        Resource resource = resolver.getResource(imagePath);
+        Asset asset = resource != null ? resource.adaptTo(Asset.class) : null;
+        if (asset == null || !isScalable(asset)) {
+            return ResponsiveImage.original(imagePath);
+        }
+
+        int[] offered = widthsOf(asset);
+        Format fallback = Format.PNG.getMimeType().equals(asset.getMimeType()) ? Format.PNG : Format.JPEG;
+        List<ResponsiveImage.Source> sources = new ArrayList<>();
+        for (Format format : Arrays.asList(Format.AVIF, Format.WEBP)) {
+            if (format.isEncodable()) {
+                sources.add(new ResponsiveImage.Source(format.getMimeType(), srcset(asset, offered, format)));
+            }
+        }
+        return new ResponsiveImage(url(asset, offered[offered.length - 1], fallback),
+                srcset(asset, offered, fallback), sources);
+    }
+
+    public boolean isWidth(int width) {
+        return Arrays.binarySearch(widths, width) >= 0;
+    }
+
+    /**
+     * @return whether renditions of the asset can be generated; animated GIFs and vector images cannot
+     */
+    public boolean isScalable(Asset asset) {
+        String mimeType = asset.getMimeType();
+        return widths.length > 0 && !"image/gif".equals(mimeType) && ImageScaler.canRead(mimeType);
+    }
+
+    /**
+     * @return the cached rendition file, generated first if it is not cached yet
+     */
+    public Path render(Asset asset, int width, Format format) throws IOException {
+        String key = key(asset.getPath() + '\n' + asset.getLastModified() + '\n' + width) + '.' + format.extension;
+        return cache.get(key, out -> {
+            Rendition source = source(asset, width);
+            try (InputStream in = source.getStream()) {
+                if (in == null) {
+                    throw new IOException("No binary for " + source.getPath());
+                }
+                ImageScaler.scale(in, width, format.mimeType, quality, out);
+            }
+        });
+    }
+
+    /**
+     * @return the configured widths up to the width of the original, or the smallest one if the original
+     * is even narrower
+     */
+    private int[] widthsOf(Asset asset) {
+        int originalWidth = parse(asset.getMetadataValue("tiff:ImageWidth"));
+        if (originalWidth <= 0) {
+            return widths;
+        }
+        int[] offered = Arrays.stream(widths).filter(width -> width <= originalWidth).toArray();
+        return offered.length > 0 ? offered : new int[] { widths[0] };
+    }
+
+    static String srcset(Asset asset, int[] widths, Format format) {
+        StringBuilder srcset = new StringBuilder();
+        for (int width : widths) {
+            if (srcset.length() > 0) {
+                srcset.append(", ");
+            }
+            srcset.append(url(asset, width, format)).append(' ').append(width).append('w');
+        }
+        return srcset.toString();
+    }
+
+    static String url(Asset asset, int width, Format format) {
+        // Spaces and commas would split srcset candidates.
+        String path = asset.getPath().replace(" ", "%20").replace(",", "%2C");
+        return path + '.' + SELECTOR + '.' + width + '.' + format.extension
+                + '/' + asset.getLastModified() + '.' + format.extension;
+    }
+
+    /**
+     * @return the smallest web rendition that is at least {@code width} wide, or the original
+     */
+    private static Rendition source(Asset asset, int width) throws IOException {
+        List<Rendition> candidates = new ArrayList<>();
+        for (Rendition rendition : asset.getRenditions()) {
+            if (boundingWidth(rendition.getName()) >= width && ImageScaler.canRead(rendition.getMimeType())) {
+                candidates.add(rendition);
+            }
+        }
+        candidates.sort(Comparator.comparingInt(rendition -> boundingWidth(rendition.getName())));
+        for (Rendition candidate : candidates) {
+            // The name only bounds the size; portrait images are narrower.
+            try (InputStream in = candidate.getStream()) {
+                if (in != null && ImageScaler.width(in) >= width) {
+                    return candidate;
+                }
+            }
+        }
+        Rendition original = asset.getOriginal();
+        if (original == null) {
+            throw new IOException("No original rendition for " + asset.getPath());
+        }
+        return original;
+    }
+
+    static int boundingWidth(String renditionName) {
+        Matcher matcher = WEB_RENDITION.matcher(renditionName);
+        return matcher.matches() ? parse(matcher.group(1)) : -1;
+    }
+
+    private static int parse(String number) {
+        try {
+            return number != null ? Integer.parseInt(number.trim()) : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static String key(String value) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static Path cacheDirectory(Config config, BundleContext bundleContext) {
+        String configured = config.cacheDirectory();
+        if (configured != null && !configured.trim().isEmpty()) {
+            return Paths.get(configured.trim());
+        }
+        File dataFile = bundleContext.getDataFile("renditions");
+        return dataFile != null
+                ? dataFile.toPath() : Paths.get(System.getProperty("java.io.tmpdir"), "futureconcepts-renditions");
+    }
+}
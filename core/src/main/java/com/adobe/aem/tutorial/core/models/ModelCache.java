@@ -0,0 +1,198 @@
+package com.adobe.aem.tutorial.core.models;
+
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ValueMap;
+import org.apache.sling.api.resource.observation.ExternalResourceChangeListener;
+import org.apache.sling.api.resource.observation.ResourceChange;
+import org.apache.sling.api.resource.observation.ResourceChangeListener;
+import org.apache.sling.commons.metrics.Counter;
+import org.apache.sling.commons.metrics.MetricsService;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Shared cache for the content of models that sit on every page, such as the header and footer. Values
+ * are built once per component resource and version instead of once per request: an entry is keyed by
+ * resource path and {@code cq:lastModified}, and is dropped as soon as the resource or anything below it
+ * is changed, or it or one of its ancestors is removed, on this instance or another cluster node. A value
+ * is only left out of the cache when such a change to its own resource arrives while it is being built,
+ * so changes elsewhere, such as a bulk import into other pages, do not keep the cache from filling. The
+ * number of cached resources is bounded and the least recently used ones are evicted first.
+ * <p>
+ * The cached models read nothing but their own resource and its children, so only the site's pages,
+ * experience fragments and templates are observed.
+ * <p>
+ * Cached values must not hold on to resources or resolvers, and are shared by all users, so only content
+ * that every reader of the page may see belongs here. Hits, misses and invalidations are counted under
+ * {@code futureconcepts.modelcache.*}.
+ */
+@Designate(ocd = ModelCache.Config.class)
+@Component(service = { ModelCache.class, ResourceChangeListener.class }, property = {
+        ResourceChangeListener.PATHS + "=/content/FutureConcepts",
+        ResourceChangeListener.PATHS + "=/content/experience-fragments/FutureConcepts",
+        ResourceChangeListener.PATHS + "=/conf/FutureConcepts",
+        ResourceChangeListener.CHANGES + "=ADDED",
+        ResourceChangeListener.CHANGES + "=CHANGED",
+        ResourceChangeListener.CHANGES + "=REMOVED"
+})
+public class ModelCache implements ResourceChangeListener, ExternalResourceChangeListener {
+
+    @ObjectClassDefinition(name = "Model Cache",
+                           description = "Shared cache of the header and footer model content")
+    public static @interface Config {
+
+        @AttributeDefinition(name = "Maximum entries",
+                             description = "Number of component resources kept in the cache")
+        int maxEntries() default 1000;
+    }
+
+    private static final String PREFIX = "futureconcepts.modelcache.";
+
+    @Reference
+    private MetricsService metricsService;
+
+    private Map<String, CachedValues> entries = Collections.emptyMap();
+    private final Set<Load> loads = ConcurrentHashMap.newKeySet();
+    private Counter hits;
+    private Counter misses;
+    private Counter invalidations;
+
+    @Activate
+    protected void activate(final Config config) {
+        int maxEntries = config.maxEntries();
+        entries = Collections.synchronizedMap(new LinkedHashMap<String, CachedValues>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedValues> eldest) {
+                return size() > maxEntries;
+            }
+        });
+        hits = metricsService.counter(PREFIX + "hits");
+        misses = metricsService.counter(PREFIX + "misses");
+        invalidations = metricsService.counter(PREFIX + "invalidations");
+    }
+
+    /**
+     * @return the cached value of the given type for the resource, built by {@code loader} on a miss
+     */
+    public <T> T get(Resource resource, Class<T> type, Function<Resource, T> loader) {
+        String path = resource.getPath();
+        long lastModified = lastModified(resource);
+        CachedValues entry = entries.get(path);
+        Object cached = entry != null && entry.lastModified == lastModified ? entry.values.get(type) : null;
+        if (cached != null) {
+            hits.increment();
+            return type.cast(cached);
+        }
+
+        misses.increment();
+        Load load = new Load(path);
+        loads.add(load);
+        T value = null;
+        try {
+            value = loader.apply(resource);
+        } finally {
+            synchronized (entries) {
+                loads.remove(load);
+                // A change to the resource seen while loading may not be part of the value, so it is not cached.
+                if (value != null && !load.stale) {
+                    entry = entries.get(path);
+                    if (entry == null || entry.lastModified != lastModified) {
+                        entry = new CachedValues(lastModified);
+                        entries.put(path, entry);
+                    }
+                    entry.values.put(type, value);
+                }
+            }
+        }
+        return value;
+    }
+
+    @Override
+    public void onChange(List<ResourceChange> changes) {
+        synchronized (entries) {
+            for (ResourceChange change : changes) {
+                for (Load load : loads) {
+                    if (affects(change, load.path)) {
+                        load.stale = true;
+                    }
+                }
+                String path = change.getPath();
+                for (String ancestor = path; !ancestor.isEmpty();
+                     ancestor = ancestor.substring(0, ancestor.lastIndexOf('/'))) {
+                    remove(ancestor);
+                }
+                if (change.getType() == ResourceChange.ChangeType.REMOVED) {
+                    String prefix = path + "/";
+                    for (Iterator<String> cachedPaths = entries.keySet().iterator(); cachedPaths.hasNext(); ) {
+                        if (cachedPaths.next().startsWith(prefix)) {
+                            cachedPaths.remove();
+                            invalidations.increment();
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private void remove(String path) {
+        if (entries.remove(path) != null) {
+            invalidations.increment();
+        }
+    }
+
+    /**
+     * @return whether the change is to the resource at {@code path} or below it, or removes one of its
+     *         ancestors
+     */
+    private static boolean affects(ResourceChange change, String path) {
+        String changed = change.getPath();
+        return changed.equals(path) || changed.startsWith(path + "/")
+                || change.getType() == ResourceChange.ChangeType.REMOVED && path.startsWith(changed + "/");
+    }
+
+    private static long lastModified(Resource resource) {
+        ValueMap properties = resource.getValueMap();
+        Calendar lastModified = properties.get("cq:lastModified", Calendar.class);
+        if (lastModified == null) {
+            lastModified = properties.get("jcr:lastModified", Calendar.class);
+        }
+        return lastModified != null ? lastModified.getTimeInMillis() : -1;
+    }
+
+    /**
+     * A value being built for the resource at {@code path}, marked stale by a change that affects it.
+     */
+    private static final class Load {
+
+        private final String path;
+        private volatile boolean stale;
+
+        private Load(String path) {
+            this.path = path;
+        }
+    }
+
+    private static final class CachedValues {
+
+        private final long lastModified;
+        private final Map<Class<?>, Object> values = new ConcurrentHashMap<>();
+
+        private CachedValues(long lastModified) {
+            this.lastModified = lastModified;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.adobe.aem.tutorial.core.models;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Files generated on first use and kept in a directory up to a total size, evicting the least recently
+ * used files first. Concurrent requests for the same missing file wait for a single generation instead
+ * of generating it in parallel. Files are written to a temporary name and moved into place, so readers
+ * never see a partial file. Files left from a previous run are picked up in order of their modification
+ * time.
+ */
+final class RenditionDiskCache {
+
+    private static final Logger log = LoggerFactory.getLogger(RenditionDiskCache.class);
+
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    /**
+     * Writes the content of a missing file.
+     */
+    @FunctionalInterface
+    interface Generator {
+        void write(OutputStream out) throws IOException;
+    }
+
+    private final Path directory;
+    private final long maxBytes;
+    private final Map<String, Long> sizes = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Object> generating = new ConcurrentHashMap<>();
+    private long totalBytes;
+
+    RenditionDiskCache(Path directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+    }
+
+    void open() throws IOException {
+        Files.createDirectories(directory);
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+            for (Path file : entries) {
+                if (file.getFileName().toString().endsWith(TEMP_SUFFIX)) {
+                    Files.deleteIfExists(file);
+                } else if (Files.isRegularFile(file)) {
+                    files.add(file);
+                }
+            }
+        }
+        files.sort(Comparator.comparing(RenditionDiskCache::lastModified));
+        synchronized (sizes) {
+            for (Path file : files) {
+                long size = Files.size(file);
+                sizes.put(file.getFileName().toString(), size);
+                totalBytes += size;
+            }
+            evict();
+        }
+        log.info("Rendition cache {} holds {} file(s), {} bytes", directory, files.size(), totalBytes);
+    }
+
+    /**
+     * @param key file name of the entry, unique for its content
+     * @return the cached file, generated first if it is missing
+     */
+    Path get(String key, Generator generator) throws IOException {
+        Path file = directory.resolve(key);
+        if (contains(key, file)) {
+            return file;
+        }
+        Object lock = generating.computeIfAbsent(key, k -> new Object());
+        synchronized (lock) {
+            try {
+                if (contains(key, file)) {
+                    return file;
+                }
+                Path temp = Files.createTempFile(directory, key, TEMP_SUFFIX);
+                try {
+                    try (OutputStream out = Files.newOutputStream(temp)) {
+                        generator.write(out);
+                    }
+                    Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } finally {
+                    Files.deleteIfExists(temp);
+                }
+                long size = Files.size(file);
+                synchronized (sizes) {
+                    Long previous = sizes.put(key, size);
+                    totalBytes += size - (previous != null ? previous : 0);
+                    evict();
+                }
+                return file;
+            } finally {
+                generating.remove(key);
+            }
+        }
+    }
+
+    long getTotalBytes() {
+        synchronized (sizes) {
+            return totalBytes;
+        }
+    }
+
+    private boolean contains(String key, Path file) {
+        synchronized (sizes) {
+            if (sizes.get(key) == null) {
+                return false;
+            }
+        }
+        if (Files.isRegularFile(file)) {
+            return true;
+        }
+        synchronized (sizes) {
+            Long size = sizes.remove(key);
+            totalBytes -= size != null ? size : 0;
+        }
+        return false;
+    }
+
+    /**
+     * Deletes the least recently used files until the cache fits, keeping at least the newest one.
+     */
+    private void evict() {
+        for (Iterator<Map.Entry<String, Long>> entries = sizes.entrySet().iterator();
+             totalBytes > maxBytes && sizes.size() > 1 && entries.hasNext(); ) {
+            Map.Entry<String, Long> eldest = entries.next();
+            try {
+                Files.deleteIfExists(directory.resolve(eldest.getKey()));
+            } catch (IOException e) {
+                log.warn("Could not evict {} from {}", eldest.getKey(), directory, e);
+                continue;
+            }
+            totalBytes -= eldest.getValue();
+            entries.remove();
+        }
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.adobe.aem.tutorial.core.models;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * URLs of one DAM image in several widths and formats, ready for a {@code <picture>} element or an
+ * {@code <img srcset>}. Images that cannot be scaled, such as SVGs or external URLs, only have a
+ * {@link #getSrc() src}.
+ */
+public final class ResponsiveImage {
+
+    private final String src;
+    private final String srcset;
+    private final List<Source> sources;
+
+    ResponsiveImage(String src, String srcset, List<Source> sources) {
+        this.src = src;
+        this.srcset = srcset;
+        this.sources = Collections.unmodifiableList(sources);
+    }
+
+    static ResponsiveImage original(String path) {
+        return new ResponsiveImage(path, null, Collections.emptyList());
+    }
+
+    /**
+     * @return the URL of the widest rendition in the fallback format, or the image path itself
+     */
+    public String getSrc() {
+        return src;
+    }
+
+    /**
+     * @return the {@code srcset} of all widths in the fallback format, JPEG or PNG, or {@code null}
+     */
+    public String getSrcset() {
+        return srcset;
+    }
+
+    /**
+     * @return one source per additional format, most compact first
+     */
+    public List<Source> getSources() {
+        return sources;
+    }
+
+    /**
+     * All widths of the image in one format, for a {@code <source type srcset>} element.
+     */
+    public static final class Source {
+
+        private final String type;
+        private final String srcset;
+
+        Source(String type, String srcset) {
+            this.type = type;
+            this.srcset = srcset;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public String getSrcset() {
+            return srcset;
+        }
+    }
+}
@@ -3,12 +3,17 @@ package com.adobe.aem.tutorial.core.models;
 import com.adobe.cq.export.json.ComponentExporter;
 import com.adobe.cq.export.json.ExporterConstants;
 import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ValueMap;
 import org.apache.sling.models.annotations.DefaultInjectionStrategy;
 import org.apache.sling.models.annotations.Exporter;
 import org.apache.sling.models.annotations.Model;
-import org.apache.sling.models.annotations.injectorspecific.ChildResource;
+import org.apache.sling.models.annotations.injectorspecific.OSGiService;
+import org.apache.sling.models.annotations.injectorspecific.Self;
 import org.apache.sling.models.annotations.injectorspecific.ValueMapValue;
 
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 @Model(adaptables = Resource.class,
@@ -18,41 +23,40 @@ import java.util.List;
 @Exporter(name = ExporterConstants.SLING_MODEL_EXPORTER_NAME, extensions = ExporterConstants.SLING_MODEL_EXTENSION)
 public class TXUFooterModel implements ComponentExporter {
 
-    static final String RESOURCE_TYPE = "FutureConcepts/components/footer";
+    public static final String RESOURCE_TYPE = "FutureConcepts/components/footer";
 
-    @ValueMapValue
-    private String logoImage;
+    @Self
+    private Resource resource;
 
-    @ValueMapValue
-    private String shopPlans;
+    @OSGiService
+    private ModelCache modelCache;
 
-    @ValueMapValue
-    private String signIn;
+    private Content content;
 
-    @ChildResource
-    private List<LinkItem> columnOne;
-
-    @ChildResource
-    private List<LinkItem> columnTwo;
+    @PostConstruct
+    protected void init() {
+        content = modelCache != null
+                ? modelCache.get(resource, Content.class, Content::new) : new Content(resource);
+    }
 
     public String getLogoImage() {
-        return logoImage;
+        return content.logoImage;
     }
 
     public String getShopPlans() {
-        return shopPlans;
+        return content.shopPlans;
     }
 
     public String getSignIn() {
-        return signIn;
+        return content.signIn;
     }
 
     public List<LinkItem> getColumnOne() {
-        return columnOne;
+        return content.columnOne;
     }
 
     public List<LinkItem> getColumnTwo() {
-        return columnTwo;
+        return content.columnTwo;
     }
 
     @Override
@@ -60,6 +64,28 @@ public class TXUFooterModel implements ComponentExporter {
         return RESOURCE_TYPE;
     }
 
+    /**
+     * The footer content, read once per version of the footer resource and shared through the
+     * {@link ModelCache}.
+     */
+    private static final class Content {
+
+        private final String logoImage;
+        private final String shopPlans;
+        private final String signIn;
+        private final List<LinkItem> columnOne;
+        private final List<LinkItem> columnTwo;
+
+        private Content(Resource resource) {
+            ValueMap properties = resource.getValueMap();
+            logoImage = properties.get("logoImage", String.class);
+            shopPlans = properties.get("shopPlans", String.class);
+            signIn = properties.get("signIn", String.class);
+            columnOne = LinkItem.list(resource.getChild("columnOne"));
+            columnTwo = LinkItem.list(resource.getChild("columnTwo"));
+        }
+    }
+
     @Model(adaptables = Resource.class)
     public static class LinkItem {
         @ValueMapValue
@@ -75,5 +101,22 @@ public class TXUFooterModel implements ComponentExporter {
         public String getLink() {
             return link;
         }
+
+        /**
+         * @return the items of a multifield, or {@code null} if it has none
+         */
+        static List<LinkItem> list(Resource multifield) {
+            if (multifield == null) {
+                return null;
+            }
+            List<LinkItem> items = new ArrayList<>();
+            for (Resource child : multifield.getChildren()) {
+                LinkItem item = new LinkItem();
+                item.text = child.getValueMap().get("text", String.class);
+                item.link = child.getValueMap().get("link", String.class);
+                items.add(item);
+            }
+            return Collections.unmodifiableList(items);
+        }
     }
 }
\ No newline at end of file
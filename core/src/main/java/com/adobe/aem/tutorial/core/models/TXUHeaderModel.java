@@ -3,12 +3,17 @@ package com.adobe.aem.tutorial.core.models;
 import com.adobe.cq.export.json.ComponentExporter;
 import com.adobe.cq.export.json.ExporterConstants;
 import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ValueMap;
 import org.apache.sling.models.annotations.DefaultInjectionStrategy;
 import org.apache.sling.models.annotations.Exporter;
 import org.apache.sling.models.annotations.Model;
-import org.apache.sling.models.annotations.injectorspecific.ChildResource;
+import org.apache.sling.models.annotations.injectorspecific.OSGiService;
+import org.apache.sling.models.annotations.injectorspecific.Self;
 import org.apache.sling.models.annotations.injectorspecific.ValueMapValue;
 
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 @Model(adaptables = Resource.class,
@@ -18,62 +23,52 @@ import java.util.List;
 @Exporter(name = ExporterConstants.SLING_MODEL_EXPORTER_NAME, extensions = ExporterConstants.SLING_MODEL_EXTENSION)
 public class TXUHeaderModel implements ComponentExporter {
 
-    static final String RESOURCE_TYPE = "FutureConcepts/components/header";
+    public static final String RESOURCE_TYPE = "FutureConcepts/components/header";
 
-    @ValueMapValue
-    private String logoImage;
+    @Self
+    private Resource resource;
 
-    @ValueMapValue
-    private String forHomeLink;
+    @OSGiService
+    private ModelCache modelCache;
 
-    @ValueMapValue
-    private String forBusinessLink;
+    private Content content;
 
-    @ValueMapValue
-    private String shopPlansLink;
-
-    @ValueMapValue
-    private String signInLink;
-
-    @ChildResource
-    private List<LinkItem> plansDropdown;
-
-    @ChildResource
-    private List<LinkItem> renewableDropdown;
-
-    @ChildResource
-    private List<LinkItem> supportDropdown;
+    @PostConstruct
+    protected void init() {
+        content = modelCache != null
+                ? modelCache.get(resource, Content.class, Content::new) : new Content(resource);
+    }
 
     public String getLogoImage() {
-        return logoImage;
+        return content.logoImage;
     }
 
     public String getForHomeLink() {
-        return forHomeLink;
+        return content.forHomeLink;
     }
 
     public String getShopPlansLink() {
-        return shopPlansLink;
+        return content.shopPlansLink;
     }
 
     public String getForBusinessLink() {
-        return forBusinessLink;
+        return content.forBusinessLink;
     }
 
     public String getSignInLink() {
-        return signInLink;
+        return content.signInLink;
     }
 
     public List<LinkItem> getPlansDropdown() {
-        return plansDropdown;
+        return content.plansDropdown;
     }
 
     public List<LinkItem> getRenewableDropdown() {
-        return renewableDropdown;
+        return content.renewableDropdown;
     }
 
     public List<LinkItem> getSupportDropdown() {
-        return supportDropdown;
+        return content.supportDropdown;
     }
 
     @Override
@@ -81,6 +76,34 @@ public class TXUHeaderModel implements ComponentExporter {
         return RESOURCE_TYPE;
     }
 
+    /**
+     * The header content, read once per version of the header resource and shared through the
+     * {@link ModelCache}.
+     */
+    private static final class Content {
+
+        private final String logoImage;
+        private final String forHomeLink;
+        private final String forBusinessLink;
+        private final String shopPlansLink;
+        private final String signInLink;
+        private final List<LinkItem> plansDropdown;
+        private final List<LinkItem> renewableDropdown;
+        private final List<LinkItem> supportDropdown;
+
+        private Content(Resource resource) {
+            ValueMap properties = resource.getValueMap();
+            logoImage = properties.get("logoImage", String.class);
+            forHomeLink = properties.get("forHomeLink", String.class);
+            forBusinessLink = properties.get("forBusinessLink", String.class);
+            shopPlansLink = properties.get("shopPlansLink", String.class);
+            signInLink = properties.get("signInLink", String.class);
+            plansDropdown = LinkItem.list(resource.getChild("plansDropdown"));
+            renewableDropdown = LinkItem.list(resource.getChild("renewableDropdown"));
+            supportDropdown = LinkItem.list(resource.getChild("supportDropdown"));
+        }
+    }
+
     @Model(adaptables = Resource.class)
     public static class LinkItem {
         @ValueMapValue
@@ -96,5 +119,22 @@ public class TXUHeaderModel implements ComponentExporter {
         public String getLink() {
             return link;
         }
+
+        /**
+         * @return the items of a multifield, or {@code null} if it has none
+         */
+        static List<LinkItem> list(Resource multifield) {
+            if (multifield == null) {
+                return null;
+            }
+            List<LinkItem> items = new ArrayList<>();
+            for (Resource child : multifield.getChildren()) {
+                LinkItem item = new LinkItem();
+                item.text = child.getValueMap().get("text", String.class);
+                item.link = child.getValueMap().get("link", String.class);
+                items.add(item);
+            }
+            return Collections.unmodifiableList(items);
+        }
     }
 }
\ No newline at end of file
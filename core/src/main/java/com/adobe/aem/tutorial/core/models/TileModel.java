@@ -1,10 +1,15 @@
 package com.adobe.aem.tutorial.core.models;
 
 import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
 import org.apache.sling.models.annotations.DefaultInjectionStrategy;
 import org.apache.sling.models.annotations.Model;
+import org.apache.sling.models.annotations.injectorspecific.OSGiService;
+import org.apache.sling.models.annotations.injectorspecific.SlingObject;
 import org.apache.sling.models.annotations.injectorspecific.ValueMapValue;
 
+import javax.annotation.PostConstruct;
+
 @Model(
         adaptables = Resource.class,
         defaultInjectionStrategy = DefaultInjectionStrategy.OPTIONAL
@@ -31,6 +36,23 @@ public class TileModel {
     @ValueMapValue
     private String image2;
 
+    @SlingObject
+    private ResourceResolver resourceResolver;
+
+    @OSGiService
+    private ImageRenditions imageRenditions;
+
+    private ResponsiveImage imageRenditionUrls;
+    private ResponsiveImage image2RenditionUrls;
+
+    @PostConstruct
+    protected void init() {
+        if (imageRenditions != null) {
+            imageRenditionUrls = imageRenditions.responsive(resourceResolver, image);
+            image2RenditionUrls = imageRenditions.responsive(resourceResolver, image2);
+        }
+    }
+
     // Getter methods for HTL
 
     public String getTitle() {
@@ -45,6 +67,10 @@ public class TileModel {
         return image;
     }
 
+    public ResponsiveImage getImageRenditions() {
+        return imageRenditionUrls;
+    }
+
     public String getTitle2() {
         return title2;
     }
@@ -56,4 +82,8 @@ public class TileModel {
     public String getImage2() {
         return image2;
     }
+
+    public ResponsiveImage getImage2Renditions() {
+        return image2RenditionUrls;
+    }
 }
@@ -0,0 +1,55 @@
+package com.adobe.aem.tutorial.core.servlets;
+
+import com.adobe.aem.tutorial.core.models.ArticleFeed;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.api.SlingHttpServletResponse;
+import org.apache.sling.api.servlets.SlingSafeMethodsServlet;
+import org.apache.sling.servlets.annotations.SlingServletPaths;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.propertytypes.ServiceDescription;
+
+import javax.servlet.Servlet;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Collections;
+
+/**
+ * Returns the newest articles of the site as JSON, newest first. Pass {@code limit} for the number of
+ * articles, 10 by default, and {@code author} to only get the articles of one author.
+ */
+@Component(service = { Servlet.class })
+@SlingServletPaths("/bin/futureconcepts/articlefeed")
+@ServiceDescription("Article Feed Servlet")
+public class ArticleFeedServlet extends SlingSafeMethodsServlet {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    static final int DEFAULT_LIMIT = 10;
+
+    @Reference
+    private transient ArticleFeed articleFeed;
+
+    @Override
+    protected void doGet(final SlingHttpServletRequest req,
+            final SlingHttpServletResponse resp) throws IOException {
+        int limit = DEFAULT_LIMIT;
+        String limitParameter = req.getParameter("limit");
+        if (limitParameter != null) {
+            try {
+                limit = Integer.parseInt(limitParameter);
+            } catch (NumberFormatException e) {
+                resp.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid limit " + limitParameter);
+                return;
+            }
+        }
+
+        resp.setContentType("application/json");
+        resp.setCharacterEncoding("UTF-8");
+        MAPPER.writeValue(resp.getWriter(),
+                Collections.singletonMap("articles", articleFeed.latest(limit, req.getParameter("author"))));
+    }
+}
@@ -0,0 +1,137 @@
+package com.adobe.aem.tutorial.core.servlets;
+
+import com.adobe.aem.tutorial.core.models.ModelCache;
+import com.adobe.aem.tutorial.core.models.TXUFooterModel;
+import com.adobe.aem.tutorial.core.models.TXUHeaderModel;
+import com.adobe.cq.export.json.ExporterConstants;
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.api.SlingHttpServletResponse;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.servlets.HttpConstants;
+import org.apache.sling.api.servlets.OptingServlet;
+import org.apache.sling.api.servlets.SlingSafeMethodsServlet;
+import org.apache.sling.models.factory.ExportException;
+import org.apache.sling.models.factory.MissingExporterException;
+import org.apache.sling.models.factory.ModelFactory;
+import org.apache.sling.servlets.annotations.SlingServletResourceTypes;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.propertytypes.ServiceDescription;
+import org.osgi.service.component.propertytypes.ServiceRanking;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.servlet.Servlet;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collections;
+
+/**
+ * Serves {@code .model.json} of the header and footer from serialized bytes instead of running the Sling
+ * Model exporter on every request. The exporter output is built once per component resource and version
+ * in the {@link ModelCache}, together with a strong ETag over the bytes, and written to the response as
+ * is. Requests whose {@code If-None-Match} matches get a {@code 304} without a body. Ranked above the
+ * default export servlet for the same resource types, but only accepts the plain {@code .model.json}: for
+ * further selectors such as {@code .model.tidy.json} it opts out, and Sling resolves the request to the
+ * exporter.
+ */
+@Component(service = { Servlet.class })
+@SlingServletResourceTypes(
+        resourceTypes = { TXUHeaderModel.RESOURCE_TYPE, TXUFooterModel.RESOURCE_TYPE },
+        methods = HttpConstants.METHOD_GET,
+        selectors = ExporterConstants.SLING_MODEL_SELECTOR,
+        extensions = ExporterConstants.SLING_MODEL_EXTENSION)
+@ServiceRanking(1000)
+@ServiceDescription("Cached Model JSON Servlet")
+public class CachedModelJsonServlet extends SlingSafeMethodsServlet implements OptingServlet {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Logger log = LoggerFactory.getLogger(CachedModelJsonServlet.class);
+
+    @Reference
+    private transient ModelFactory modelFactory;
+
+    @Reference
+    private transient ModelCache modelCache;
+
+    @Override
+    public boolean accepts(final SlingHttpServletRequest req) {
+        return req.getRequestPathInfo().getSelectors().length == 1;
+    }
+
+    @Override
+    protected void doGet(final SlingHttpServletRequest req,
+            final SlingHttpServletResponse resp) throws IOException {
+        Resource resource = req.getResource();
+        SerializedModel model = modelCache.get(resource, SerializedModel.class, this::export);
+        if (model == null) {
+            resp.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "Could not export " + resource.getPath());
+            return;
+        }
+
+        resp.setHeader("ETag", model.etag);
+        if (matches(req.getHeader("If-None-Match"), model.etag)) {
+            resp.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        resp.setContentType("application/json");
+        resp.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        resp.setContentLength(model.body.length);
+        resp.getOutputStream().write(model.body);
+    }
+
+    private SerializedModel export(Resource resource) {
+        try {
+            String json = modelFactory.exportModelForResource(resource, ExporterConstants.SLING_MODEL_EXPORTER_NAME,
+                    String.class, Collections.emptyMap());
+            return new SerializedModel(json.getBytes(StandardCharsets.UTF_8));
+        } catch (ExportException | MissingExporterException | RuntimeException e) {
+            log.error("Could not export the model of {}", resource.getPath(), e);
+            return null;
+        }
+    }
+
+    /**
+     * @return whether an {@code If-None-Match} header lists the ETag or is {@code *}
+     */
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.equals("*") || candidate.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Exporter output of one component version and the strong ETag of exactly these bytes.
+     */
+    static final class SerializedModel {
+
+        private final byte[] body;
+        private final String etag;
+
+        SerializedModel(byte[] body) {
+            this.body = body;
+            this.etag = '"' + digest(body) + '"';
+        }
+
+        private static String digest(byte[] body) {
+            try {
+                byte[] hash = MessageDigest.getInstance("SHA-256").digest(body);
+                return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 is not available", e);
+            }
+        }
+    }
+}
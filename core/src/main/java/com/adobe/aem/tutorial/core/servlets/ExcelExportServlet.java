@@ -0,0 +1,51 @@
+package com.adobe.aem.tutorial.core.servlets;
+
+import com.adobe.aem.tutorial.core.workflow.PageExcelExporter;
+import com.day.cq.wcm.api.Page;
+import com.day.cq.wcm.api.PageManager;
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.api.SlingHttpServletResponse;
+import org.apache.sling.api.servlets.SlingSafeMethodsServlet;
+import org.apache.sling.servlets.annotations.SlingServletPaths;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.propertytypes.ServiceDescription;
+
+import javax.servlet.Servlet;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Streams a page as an Excel workbook in the import layout, for bulk editing and re-import. Pass the
+ * page as {@code path}, and {@code deep=true} to get a ZIP archive with one workbook per page instead,
+ * the root page and all of its descendants. Pages are read with the requesting user's permissions.
+ */
+@Component(service = { Servlet.class })
+@SlingServletPaths("/bin/futureconcepts/excelexport")
+@ServiceDescription("Excel Export Servlet")
+public class ExcelExportServlet extends SlingSafeMethodsServlet {
+
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    protected void doGet(final SlingHttpServletRequest req,
+            final SlingHttpServletResponse resp) throws IOException {
+        String path = req.getParameter("path");
+        PageManager pageManager = req.getResourceResolver().adaptTo(PageManager.class);
+        Page page = path != null && pageManager != null ? pageManager.getPage(path) : null;
+        if (page == null) {
+            resp.sendError(HttpServletResponse.SC_NOT_FOUND, "No page at " + path);
+            return;
+        }
+
+        boolean deep = Boolean.parseBoolean(req.getParameter("deep"));
+        resp.setContentType(deep ? PageExcelExporter.ARCHIVE_CONTENT_TYPE : PageExcelExporter.CONTENT_TYPE);
+        resp.setHeader("Content-Disposition",
+                "attachment; filename=\"" + page.getName() + (deep ? ".zip" : ".xlsx") + "\"");
+        resp.setHeader("Cache-Control", "no-store");
+        if (deep) {
+            new PageExcelExporter().exportArchive(page, true, resp.getOutputStream());
+        } else {
+            new PageExcelExporter().export(page, resp.getOutputStream());
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.adobe.aem.tutorial.core.servlets;
+
+import com.adobe.aem.tutorial.core.workflow.ImportProgress;
+import com.adobe.aem.tutorial.core.workflow.ImportProgressTracker;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.jackrabbit.api.security.user.Group;
+import org.apache.jackrabbit.api.security.user.User;
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.api.SlingHttpServletResponse;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.servlets.SlingSafeMethodsServlet;
+import org.apache.sling.servlets.annotations.SlingServletPaths;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.propertytypes.ServiceDescription;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.jcr.RepositoryException;
+import javax.servlet.Servlet;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Reports the progress of running and recently finished Excel page imports as JSON: rows parsed,
+ * component groups written, commits done and elapsed time per source asset. Pass {@code source}
+ * to get a single import.
+ * <p>
+ * Only administrators and members of the configured groups may call it, and they only see imports
+ * whose source asset they can read. Imports without a source in the repository, such as drop folder
+ * files and language copies, are checked against the parent of the page they create.
+ */
+@Designate(ocd = ExcelImportStatusServlet.Config.class)
+@Component(service = { Servlet.class })
+@SlingServletPaths("/bin/futureconcepts/excelimport/status")
+@ServiceDescription("Excel Import Status Servlet")
+public class ExcelImportStatusServlet extends SlingSafeMethodsServlet {
+
+    @ObjectClassDefinition(name = "Excel Import Status Servlet",
+                           description = "Progress of Excel page imports as JSON")
+    public static @interface Config {
+
+        @AttributeDefinition(name = "Allowed groups",
+                             description = "Groups whose members may see import progress, besides the admin user")
+        String[] allowedGroups() default { "administrators", "workflow-administrators" };
+    }
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Logger log = LoggerFactory.getLogger(ExcelImportStatusServlet.class);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Reference
+    private transient ImportProgressTracker progressTracker;
+
+    private transient Set<String> allowedGroups = Collections.emptySet();
+
+    @Activate
+    protected void activate(final Config config) {
+        allowedGroups = new HashSet<>(Arrays.asList(config.allowedGroups()));
+    }
+
+    @Override
+    protected void doGet(final SlingHttpServletRequest req,
+            final SlingHttpServletResponse resp) throws IOException {
+        ResourceResolver resolver = req.getResourceResolver();
+        if (!isAllowed(resolver.adaptTo(User.class))) {
+            resp.sendError(HttpServletResponse.SC_FORBIDDEN);
+            return;
+        }
+
+        resp.setContentType("application/json");
+        resp.setCharacterEncoding("UTF-8");
+        resp.setHeader("Cache-Control", "no-store");
+
+        String source = req.getParameter("source");
+        if (source != null) {
+            ImportProgress progress = progressTracker.get(source);
+            if (progress == null || !canRead(resolver, progress)) {
+                resp.sendError(HttpServletResponse.SC_NOT_FOUND, "No import tracked for " + source);
+                return;
+            }
+            MAPPER.writeValue(resp.getWriter(), progress);
+            return;
+        }
+
+        List<ImportProgress> imports = progressTracker.getAll().stream()
+                .filter(progress -> canRead(resolver, progress))
+                .collect(Collectors.toList());
+        MAPPER.writeValue(resp.getWriter(), Collections.singletonMap("imports", imports));
+    }
+
+    private boolean isAllowed(User user) {
+        if (user == null) {
+            return false;
+        }
+        try {
+            if (user.isAdmin()) {
+                return true;
+            }
+            Iterator<Group> groups = user.memberOf();
+            while (groups.hasNext()) {
+                if (allowedGroups.contains(groups.next().getID())) {
+                    return true;
+                }
+            }
+        } catch (RepositoryException e) {
+            log.warn("Could not read the groups of the requesting user", e);
+        }
+        return false;
+    }
+
+    private static boolean canRead(ResourceResolver resolver, ImportProgress progress) {
+        return resolver.getResource(progress.getRepositoryPath()) != null;
+    }
+}
@@ -0,0 +1,101 @@
+package com.adobe.aem.tutorial.core.servlets;
+
+import com.adobe.aem.tutorial.core.models.ImageRenditions;
+import com.day.cq.dam.api.Asset;
+import com.day.cq.dam.api.DamConstants;
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.api.SlingHttpServletResponse;
+import org.apache.sling.api.request.RequestPathInfo;
+import org.apache.sling.api.servlets.HttpConstants;
+import org.apache.sling.api.servlets.SlingSafeMethodsServlet;
+import org.apache.sling.servlets.annotations.SlingServletResourceTypes;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.propertytypes.ServiceDescription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.servlet.Servlet;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+
+/**
+ * Serves the width-bucketed renditions of {@link ImageRenditions}, e.g.
+ * {@code hero.jpg.fcimg.640.webp/1700000000000.webp}. Requests for the current version of the asset are
+ * cacheable for a year; requests for an older version get the current rendition with a short lifetime.
+ * Images that cannot be scaled are redirected to the original.
+ */
+@Component(service = { Servlet.class })
+@SlingServletResourceTypes(
+        resourceTypes = DamConstants.NT_DAM_ASSET,
+        methods = HttpConstants.METHOD_GET,
+        selectors = ImageRenditions.SELECTOR,
+        extensions = { "jpg", "jpeg", "png", "webp", "avif" })
+@ServiceDescription("Image Rendition Servlet")
+public class ImageRenditionServlet extends SlingSafeMethodsServlet {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Logger log = LoggerFactory.getLogger(ImageRenditionServlet.class);
+
+    static final String IMMUTABLE = "public, max-age=31536000, immutable";
+    static final String SHORT_LIVED = "public, max-age=600";
+
+    @Reference
+    private transient ImageRenditions imageRenditions;
+
+    @Override
+    protected void doGet(final SlingHttpServletRequest req,
+            final SlingHttpServletResponse resp) throws IOException {
+        RequestPathInfo pathInfo = req.getRequestPathInfo();
+        String[] selectors = pathInfo.getSelectors();
+        int width = selectors.length == 2 ? parse(selectors[1]) : -1;
+        ImageRenditions.Format format = ImageRenditions.Format.forExtension(pathInfo.getExtension());
+        Asset asset = req.getResource().adaptTo(Asset.class);
+        if (asset == null || format == null || !format.isEncodable() || !imageRenditions.isWidth(width)) {
+            resp.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        if (!imageRenditions.isScalable(asset)) {
+            resp.sendRedirect(asset.getPath());
+            return;
+        }
+
+        Path file;
+        try {
+            file = imageRenditions.render(asset, width, format);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not render {} at {}px as {}, redirecting to the original",
+                    asset.getPath(), width, format, e);
+            resp.sendRedirect(asset.getPath());
+            return;
+        }
+
+        String version = "/" + asset.getLastModified() + ".";
+        String suffix = pathInfo.getSuffix();
+        resp.setContentType(format.getMimeType());
+        resp.setHeader("Cache-Control", suffix != null && suffix.startsWith(version) ? IMMUTABLE : SHORT_LIVED);
+        try {
+            write(file, resp);
+        } catch (NoSuchFileException e) {
+            // Evicted between rendering and reading; render it once more.
+            write(imageRenditions.render(asset, width, format), resp);
+        }
+    }
+
+    private static void write(Path file, SlingHttpServletResponse resp) throws IOException {
+        resp.setContentLengthLong(Files.size(file));
+        Files.copy(file, resp.getOutputStream());
+    }
+
+    private static int parse(String number) {
+        try {
+            return Integer.parseInt(number);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.adobe.aem.tutorial.core.workflow;
+
+import java.util.Arrays;
+
+/**
+ * Reusable {@link SheetRow} backed by a value array that parsers overwrite for every row they read,
+ * so handing rows to an {@link ExcelRowHandler} does not allocate.
+ */
+final class ArraySheetRow implements SheetRow {
+
+    private final SheetHeader header;
+    private final String[] values;
+
+    ArraySheetRow(SheetHeader header) {
+        this.header = header;
+        this.values = new String[header.size()];
+        clear();
+    }
+
+    void set(int column, String value) {
+        values[column] = value;
+    }
+
+    void clear() {
+        Arrays.fill(values, "");
+    }
+
+    @Override
+    public SheetHeader getHeader() {
+        return header;
+    }
+
+    @Override
+    public String get(int column) {
+        return values[column];
+    }
+}
@@ -0,0 +1,119 @@
+package com.adobe.aem.tutorial.core.workflow;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Post-import stage that activates the pages of an import run in grouped replication requests instead
+ * of one request per page. Pages are split into batches of a fixed size and up to {@code concurrency}
+ * batches are replicated at the same time. A failed batch is recorded and does not stop the others.
+ */
+final class BatchedPageActivation {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchedPageActivation.class);
+
+    /**
+     * Sends one batch of page paths to publish in a single replication request.
+     */
+    @FunctionalInterface
+    interface ReplicationAgent {
+        void activate(String[] pagePaths) throws Exception;
+    }
+
+    private final ReplicationAgent agent;
+    private final int batchSize;
+    private final int concurrency;
+
+    BatchedPageActivation(ReplicationAgent agent, int batchSize, int concurrency) {
+        this.agent = agent;
+        this.batchSize = Math.max(1, batchSize);
+        this.concurrency = Math.max(1, concurrency);
+    }
+
+    Report activate(Collection<String> pagePaths) throws InterruptedException {
+        long start = System.nanoTime();
+        List<String> paths = new ArrayList<>(new LinkedHashSet<>(pagePaths));
+        List<String[]> batches = new ArrayList<>();
+        for (int from = 0; from < paths.size(); from += batchSize) {
+            batches.add(paths.subList(from, Math.min(from + batchSize, paths.size())).toArray(new String[0]));
+        }
+
+        List<String> failed = Collections.synchronizedList(new ArrayList<>());
+        if (batches.size() == 1) {
+            activateBatch(batches.get(0), failed);
+        } else if (!batches.isEmpty()) {
+            AtomicInteger threadCount = new AtomicInteger();
+            ExecutorService executor = Executors.newFixedThreadPool(Math.min(concurrency, batches.size()),
+                    runnable -> new Thread(runnable, "excel-import-activation-" + threadCount.incrementAndGet()));
+            try {
+                List<Future<?>> futures = new ArrayList<>(batches.size());
+                for (String[] batch : batches) {
+                    futures.add(executor.submit(() -> activateBatch(batch, failed)));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Activation batch failed unexpectedly", e.getCause());
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+        return new Report(paths.size(), batches.size(), failed,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private void activateBatch(String[] batch, List<String> failed) {
+        try {
+            agent.activate(batch);
+            log.debug("Activated {} page(s) starting with {}", batch.length, batch[0]);
+        } catch (Exception e) {
+            log.error("Activation of {} page(s) starting with {} failed", batch.length, batch[0], e);
+            failed.addAll(Arrays.asList(batch));
+        }
+    }
+
+    /**
+     * Outcome of one activation stage.
+     */
+    static final class Report {
+
+        private final int pages;
+        private final int batches;
+        private final List<String> failed;
+        private final long elapsedMillis;
+
+        Report(int pages, int batches, List<String> failed, long elapsedMillis) {
+            this.pages = pages;
+            this.batches = batches;
+            this.failed = failed;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        int getActivated() {
+            return pages - failed.size();
+        }
+
+        List<String> getFailed() {
+            return failed;
+        }
+
+        String getSummary() {
+            return String.format("%d of %d page(s) activated in %d request(s) in %d ms, %d failed",
+                    getActivated(), pages, batches, elapsedMillis, failed.size());
+        }
+    }
+}
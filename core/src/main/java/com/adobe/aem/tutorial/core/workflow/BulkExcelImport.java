@@ -0,0 +1,125 @@
+package com.adobe.aem.tutorial.core.workflow;
+
+import com.day.cq.dam.api.Asset;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.ResourceResolverFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Imports every spreadsheet of a DAM folder across a fixed-size pool of workers. Each worker opens its
+ * own service-user {@link ResourceResolver}, so the imports do not share a session. Failures are recorded
+ * per file and do not stop the other files.
+ */
+final class BulkExcelImport {
+
+    static final String SUBSERVICE = "excel-page-import";
+
+    private static final Logger log = LoggerFactory.getLogger(BulkExcelImport.class);
+
+    @FunctionalInterface
+    interface AssetImporter {
+        ImportResult importAsset(ResourceResolver resolver, Asset asset) throws Exception;
+    }
+
+    private final ResourceResolverFactory resolverFactory;
+    private final AssetImporter importer;
+    private final int workers;
+
+    BulkExcelImport(ResourceResolverFactory resolverFactory, AssetImporter importer, int workers) {
+        this.resolverFactory = resolverFactory;
+        this.importer = importer;
+        this.workers = Math.max(1, workers);
+    }
+
+    Report run(List<String> assetPaths) throws InterruptedException {
+        long start = System.nanoTime();
+        List<ImportResult> results = new ArrayList<>(assetPaths.size());
+        if (assetPaths.isEmpty()) {
+            return new Report(results, 0);
+        }
+
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(workers, assetPaths.size()),
+                runnable -> new Thread(runnable, "excel-import-worker-" + threadCount.incrementAndGet()));
+        try {
+            List<Future<ImportResult>> futures = new ArrayList<>(assetPaths.size());
+            for (String assetPath : assetPaths) {
+                futures.add(executor.submit(() -> importOne(assetPath)));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    results.add(futures.get(i).get());
+                } catch (ExecutionException e) {
+                    results.add(ImportResult.failure(assetPaths.get(i), 0, e));
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return new Report(results, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private ImportResult importOne(String assetPath) {
+        long start = System.nanoTime();
+        try (ResourceResolver resolver = resolverFactory.getServiceResourceResolver(
+                Collections.singletonMap(ResourceResolverFactory.SUBSERVICE, SUBSERVICE))) {
+            Resource resource = resolver.getResource(assetPath);
+            Asset asset = resource != null ? resource.adaptTo(Asset.class) : null;
+            if (asset == null) {
+                throw new IllegalStateException("Could not adapt to Asset at path: " + assetPath);
+            }
+            ImportResult result = importer.importAsset(resolver, asset);
+            log.info("Bulk import: {}", result);
+            return result;
+        } catch (Exception e) {
+            log.error("Bulk import failed for asset: {}", assetPath, e);
+            return ImportResult.failure(assetPath, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), e);
+        }
+    }
+
+    /**
+     * Per-file results plus aggregate throughput of one bulk run.
+     */
+    static final class Report {
+
+        private final List<ImportResult> results;
+        private final long elapsedMillis;
+
+        Report(List<ImportResult> results, long elapsedMillis) {
+            this.results = results;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        List<ImportResult> getResults() {
+            return results;
+        }
+
+        long getFailed() {
+            return results.stream().filter(result -> !result.isSuccess()).count();
+        }
+
+        String[] getDetails() {
+            return results.stream().map(ImportResult::toString).toArray(String[]::new);
+        }
+
+        String getSummary() {
+            long rows = results.stream().mapToLong(ImportResult::getRows).sum();
+            double seconds = Math.max(elapsedMillis, 1) / 1000.0;
+            return String.format("%d of %d file(s) imported, %d row(s) in %.1f s (%.2f files/s, %.0f rows/s), %d failed",
+                    results.size() - getFailed(), results.size(), rows, seconds,
+                    results.size() / seconds, rows / seconds, getFailed());
+        }
+    }
+}
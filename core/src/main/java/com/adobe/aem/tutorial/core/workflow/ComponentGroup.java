@@ -0,0 +1,73 @@
+package com.adobe.aem.tutorial.core.workflow;
+
+import java.util.Arrays;
+
+/**
+ * The rows of one component, keyed by {@code ComponentName} + {@code groupId}. A group holds row indices
+ * into its {@link SheetTable} rather than copies of the rows.
+ */
+final class ComponentGroup {
+
+    private final SheetTable table;
+    private final String groupId;
+    private int[] rows = new int[1];
+    private int size;
+
+    ComponentGroup(SheetTable table, String groupId) {
+        this.table = table;
+        this.groupId = groupId;
+    }
+
+    /**
+     * Group id for a row of a sheet without a {@code groupId} column, where every row is its own component.
+     * Derived from the row position, so re-importing the same sheet yields the same node names.
+     */
+    static String defaultGroupId(int rowIndex) {
+        return "row" + (rowIndex + 1);
+    }
+
+    static String key(String componentType, String groupId) {
+        return componentType + "::" + groupId;
+    }
+
+    void add(int rowIndex) {
+        if (size == rows.length) {
+            rows = Arrays.copyOf(rows, size * 2);
+        }
+        rows[size++] = rowIndex;
+    }
+
+    /**
+     * @return the table the group's rows live in
+     */
+    SheetTable getTable() {
+        return table;
+    }
+
+    int size() {
+        return size;
+    }
+
+    SheetRow row(int i) {
+        return table.row(rows[i]);
+    }
+
+    SheetRow first() {
+        return row(0);
+    }
+
+    String getComponentType() {
+        return first().get(CreatePageFromExcelWorkflowProcess.COMPONENT_NAME);
+    }
+
+    String getGroupId() {
+        return groupId;
+    }
+
+    /**
+     * @return the name of the component node, {@code ComponentName-groupId}
+     */
+    String getNodeName() {
+        return getComponentType() + "-" + groupId;
+    }
+}
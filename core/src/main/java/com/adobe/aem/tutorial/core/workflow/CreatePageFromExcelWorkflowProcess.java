@@ -6,28 +6,261 @@ import com.adobe.granite.workflow.exec.WorkItem;
 import com.adobe.granite.workflow.exec.WorkflowProcess;
 import com.adobe.granite.workflow.metadata.MetaDataMap;
 import com.day.cq.dam.api.Asset;
+import com.day.cq.dam.api.AssetManager;
+import com.day.cq.replication.ReplicationActionType;
+import com.day.cq.replication.ReplicationOptions;
+import com.day.cq.replication.Replicator;
 import com.day.cq.wcm.api.Page;
 import com.day.cq.wcm.api.PageManager;
 import com.day.cq.wcm.api.WCMException;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.sling.api.resource.*;
+import org.apache.sling.commons.metrics.MetricsService;
+import org.apache.sling.event.jobs.Job;
+import org.apache.sling.event.jobs.JobManager;
+import org.apache.sling.event.jobs.consumer.JobConsumer;
+import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.jcr.Node;
 import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
 import java.util.*;
-
-@Component(service = WorkflowProcess.class, property = {
-        "process.label = Create AEM Page from Excel"
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+@Designate(ocd = CreatePageFromExcelWorkflowProcess.Config.class)
+@Component(service = {
+        WorkflowProcess.class, JobConsumer.class, CreatePageFromExcelWorkflowProcess.class
+}, property = {
+        "process.label = Create AEM Page from Excel",
+        JobConsumer.PROPERTY_TOPICS + "=" + CreatePageFromExcelWorkflowProcess.JOB_TOPIC
 })
-public class CreatePageFromExcelWorkflowProcess implements WorkflowProcess {
+public class CreatePageFromExcelWorkflowProcess implements WorkflowProcess, JobConsumer {
+
+    @ObjectClassDefinition(name = "Create AEM Page from Excel",
+                           description = "Options for the Excel page import workflow process")
+    public static @interface Config {
+
+        @AttributeDefinition(name = "Streaming reader",
+                             description = "Read the input row by row (XLSX through the XSSF event model) and write "
+                                     + "each component as soon as its run of rows ends instead of loading the whole sheet "
+                                     + "into memory")
+        boolean streamingReader() default false;
+
+        @AttributeDefinition(name = "Commit batch size",
+                             description = "Number of component groups written per repository commit. A checkpoint "
+                                     + "node lets a failed or restarted import resume after the last committed group. "
+                                     + "0 commits the whole page at once")
+        int commitBatchSize() default 0;
+
+        @AttributeDefinition(name = "Bulk import workers",
+                             description = "Number of spreadsheets imported in parallel when the payload is a DAM folder")
+        int bulkWorkers() default 4;
+
+        @AttributeDefinition(name = "Incremental import",
+                             description = "Re-import into an existing page by content-hashing each component group and "
+                                     + "only adding, replacing or removing the groups that changed. Always reads the "
+                                     + "whole sheet, so it takes precedence over the streaming reader")
+        boolean incrementalImport() default false;
+
+        @AttributeDefinition(name = "Run as Sling Job",
+                             description = "Hand the import to the Excel import job queue and complete the workflow "
+                                     + "step immediately. Parallelism and retries are set on the queue configuration")
+        boolean asyncImport() default false;
+
+        @AttributeDefinition(name = "Template path",
+                             description = "Template of the imported pages")
+        String templatePath() default "/conf/FutureConcepts/settings/wcm/templates/txu-template";
+
+        @AttributeDefinition(name = "Parent path",
+                             description = "Page under which imported pages are created")
+        String parentPath() default "/content/FutureConcepts/us";
+
+        @AttributeDefinition(name = "Page blueprints",
+                             description = "Create pages by copying a pre-built skeleton page of the template, "
+                                     + "including its root and container nodes, in one workspace copy")
+        boolean pageBlueprints() default false;
+
+        @AttributeDefinition(name = "Blueprint root",
+                             description = "Folder holding the skeleton pages built automatically, one per template")
+        String blueprintRoot() default "/var/FutureConcepts/excelimport/blueprints";
+
+        @AttributeDefinition(name = "Template blueprints",
+                             description = "Hand-made skeleton pages as templatePath=blueprintPagePath. Templates "
+                                     + "without an entry get a blueprint built under the blueprint root")
+        String[] blueprints() default {};
+
+        @AttributeDefinition(name = "Staged import",
+                             description = "Build the components in a hidden staging node of the page and swap it in "
+                                     + "for the live container with a single move in the final commit, so a failed "
+                                     + "import never leaves a half-built page. Incremental imports update in place")
+        boolean stagedImport() default false;
+
+        @AttributeDefinition(name = "Dry run",
+                             description = "Only parse the input and report the write plan (components, nodes, "
+                                     + "properties, estimated size and commits) without touching the repository")
+        boolean dryRun() default false;
+
+        @AttributeDefinition(name = "Validate DAM references",
+                             description = "Check every /content/dam path in the sheet before writing it and log "
+                                     + "the references that point at nothing. Valid paths are cached across imports")
+        boolean validateDamReferences() default false;
+
+        @AttributeDefinition(name = "DAM reference cache size",
+                             description = "Number of resolved DAM paths kept in the shared LRU cache")
+        int damReferenceCacheSize() default 5000;
+
+        @AttributeDefinition(name = "DAM reference cache time (seconds)",
+                             description = "How long a resolved DAM path is trusted before it is looked up again. "
+                                     + "0 looks up every reference on every import")
+        int damReferenceCacheSeconds() default 300;
+
+        @AttributeDefinition(name = "DAM renditions",
+                             description = "Rewrite validated DAM references to the first of these renditions the "
+                                     + "asset has, e.g. cq5dam.web.1280.1280.jpeg. Empty keeps the original paths")
+        String[] damRenditions() default {};
+
+        @AttributeDefinition(name = "Launch debounce window (seconds)",
+                             description = "Skip launches for an asset whose binary was already imported within "
+                                     + "this window, e.g. when the launcher fires again for renditions or metadata. "
+                                     + "0 imports on every launch")
+        int launchDebounceSeconds() default 0;
+
+        @AttributeDefinition(name = "Activate imported pages",
+                             description = "After each run, activate all pages it created or changed in grouped "
+                                     + "replication requests")
+        boolean activatePages() default false;
+
+        @AttributeDefinition(name = "Activation batch size",
+                             description = "Number of pages per replication request")
+        int activationBatchSize() default 50;
+
+        @AttributeDefinition(name = "Activation concurrency",
+                             description = "Number of replication requests sent at the same time")
+        int activationConcurrency() default 2;
+
+        @AttributeDefinition(name = "Page lock stripes",
+                             description = "Number of locks that page paths are spread over. Imports of the same "
+                                     + "page run one after the other; imports of different pages only wait for "
+                                     + "each other when their paths share a lock")
+        int pageLockStripes() default 64;
+
+        @AttributeDefinition(name = "Language copies",
+                             description = "Locale roots that get a copy of every imported page, as "
+                                     + "locale=parentPath (e.g. es=/content/FutureConcepts/es). The copies are "
+                                     + "written in parallel from the same parse, and a column with a _locale suffix "
+                                     + "(title_es) overrides the value for that locale. Uses the batch reader; "
+                                     + "not used by incremental imports")
+        String[] languageCopies() default {};
+
+        @AttributeDefinition(name = "Extract embedded images",
+                             description = "Upload the pictures pasted into an XLSX sheet to DAM and set their paths "
+                                     + "on the rows they are anchored on: into the anchor column if it is an "
+                                     + "image column (image2, logoImage, fileReference), otherwise into image")
+        boolean extractEmbeddedImages() default false;
+
+        @AttributeDefinition(name = "Embedded image folder",
+                             description = "DAM folder the pictures are uploaded to, in a subfolder per imported page")
+        String embeddedImageFolder() default "/content/dam/FutureConcepts/excelimport";
+
+        @AttributeDefinition(name = "Embedded image uploads",
+                             description = "Number of pictures uploaded to DAM at the same time")
+        int embeddedImageUploads() default 4;
+    }
 
     private static final Logger log = LoggerFactory.getLogger(CreatePageFromExcelWorkflowProcess.class);
-    private static final String TEMPLATE_PATH = "/conf/FutureConcepts/settings/wcm/templates/txu-template";
-    private static final String PAGE_PARENT_PATH = "/content/FutureConcepts/us/";
+    static final String COMPONENT_NAME = "ComponentName";
+    static final String GROUP_ID = "groupId";
+    static final String LIST_ITEM = "listItem";
+    private static final String BULK_SUMMARY = "excelImportSummary";
+    private static final String BULK_RESULTS = "excelImportResults";
+    private static final String IMPORT_PLAN = "excelImportPlan";
+    private static final String ACTIVATION_SUMMARY = "excelImportActivation";
+    static final String JOB_TOPIC = "futureconcepts/excelimport";
+    static final String JOB_PAYLOAD = "payloadPath";
+
+    @Reference
+    private ResourceResolverFactory resolverFactory;
+
+    @Reference
+    private JobManager jobManager;
+
+    @Reference
+    private ImportProgressTracker progressTracker;
+
+    @Reference
+    private MetricsService metricsService;
+
+    @Reference
+    private Replicator replicator;
+
+    private ImportMetrics metrics;
+
+    private boolean streamingReader;
+    private int commitBatchSize;
+    private int bulkWorkers;
+    private boolean incrementalImport;
+    private boolean asyncImport;
+    private String templatePath;
+    private String parentPath;
+    private PageBlueprints blueprints;
+    private boolean stagedImport;
+    private boolean dryRun;
+    private DamReferenceResolver damReferences;
+    private ImportLaunchDebouncer launchDebouncer;
+    private BatchedPageActivation activation;
+    private Map<String, String> languageRoots = Collections.emptyMap();
+    private PageImportLocks pageLocks;
+    private EmbeddedImages embeddedImages;
+    private String embeddedImageFolder;
+
+    @Activate
+    protected void activate(final Config config) {
+        streamingReader = config.streamingReader();
+        commitBatchSize = config.commitBatchSize();
+        bulkWorkers = config.bulkWorkers();
+        incrementalImport = config.incrementalImport();
+        asyncImport = config.asyncImport();
+        templatePath = config.templatePath();
+        parentPath = config.parentPath().replaceFirst("/+$", "");
+        blueprints = config.pageBlueprints()
+                ? new PageBlueprints(config.blueprintRoot().replaceFirst("/+$", ""),
+                        parseMapping(config.blueprints(), "template blueprint"))
+                : null;
+        languageRoots = parseMapping(config.languageCopies(), "language copy");
+        languageRoots.replaceAll((locale, root) -> root.replaceFirst("/+$", ""));
+        stagedImport = config.stagedImport();
+        dryRun = config.dryRun();
+        metrics = new ImportMetrics(metricsService);
+        pageLocks = new PageImportLocks(config.pageLockStripes(), metrics);
+        damReferences = config.validateDamReferences()
+                ? new DamReferenceResolver(config.damReferenceCacheSize(),
+                        TimeUnit.SECONDS.toMillis(Math.max(0, config.damReferenceCacheSeconds())),
+                        config.damRenditions(), metrics)
+                : null;
+        launchDebouncer = config.launchDebounceSeconds() > 0
+                ? new ImportLaunchDebouncer(TimeUnit.SECONDS.toMillis(config.launchDebounceSeconds()))
+                : null;
+        embeddedImages = config.extractEmbeddedImages()
+                ? new EmbeddedImages(resolverFactory, CreatePageFromExcelWorkflowProcess::createImageAsset,
+                        config.embeddedImageUploads(), metrics)
+                : null;
+        embeddedImageFolder = config.embeddedImageFolder().replaceFirst("/+$", "");
+        activation = config.activatePages()
+                ? new BatchedPageActivation(this::replicate, config.activationBatchSize(),
+                        config.activationConcurrency())
+                : null;
+    }
 
     @Override
     public void execute(WorkItem item, WorkflowSession workflowSession, MetaDataMap metaDataMap)
@@ -36,57 +269,490 @@ public class CreatePageFromExcelWorkflowProcess implements WorkflowProcess {
         String payloadPath = getSanitizedPayload(item.getWorkflowData().getPayload().toString());
         log.info("Workflow started for asset: {}", payloadPath);
 
+        if (launchDebouncer != null && isDuplicateLaunch(workflowSession, payloadPath)) {
+            return;
+        }
+
+        if (asyncImport) {
+            Job job = jobManager.addJob(JOB_TOPIC, Collections.singletonMap(JOB_PAYLOAD, payloadPath));
+            if (job == null) {
+                throw new WorkflowException("Could not queue Excel import job for: " + payloadPath);
+            }
+            progressTracker.queued(payloadPath, job.getId());
+            log.info("Queued Excel import job {} for: {}", job.getId(), payloadPath);
+            return;
+        }
+
         try (ResourceResolver resolver = workflowSession.adaptTo(ResourceResolver.class)) {
             Resource fileRes = resolver.getResource(payloadPath);
             if (fileRes == null) {
                 log.error("File not found at payload: {}", payloadPath);
                 return;
             }
+            importPayload(resolver, fileRes, item.getWorkflowData().getMetaDataMap());
 
-            Asset asset = fileRes.adaptTo(Asset.class);
-            if (asset == null) {
-                log.error("Could not adapt to Asset at path: {}", payloadPath);
-                return;
+        } catch (Exception e) {
+            log.error("Workflow error for asset: {}", payloadPath, e);
+            forgetLaunch(payloadPath);
+            throw new WorkflowException(e);
+        }
+
+        log.info("Workflow finished successfully for: {}", payloadPath);
+    }
+
+    @Override
+    public JobResult process(Job job) {
+        String payloadPath = job.getProperty(JOB_PAYLOAD, String.class);
+        log.info("Excel import job {} started for: {} (attempt {})", job.getId(), payloadPath, job.getRetryCount() + 1);
+
+        try (ResourceResolver resolver = resolverFactory.getServiceResourceResolver(
+                Collections.singletonMap(ResourceResolverFactory.SUBSERVICE, BulkExcelImport.SUBSERVICE))) {
+            Resource fileRes = payloadPath != null ? resolver.getResource(payloadPath) : null;
+            if (fileRes == null) {
+                log.error("File not found at payload: {}", payloadPath);
+                return JobResult.CANCEL;
             }
-            log.info("Successfully adapted resource to Asset: {}", asset.getPath());
+            importPayload(resolver, fileRes, null);
+        } catch (Exception e) {
+            // Retried by the queue; with a commit batch size the next attempt resumes from the checkpoint.
+            log.error("Excel import job {} failed for: {}", job.getId(), payloadPath, e);
+            forgetLaunch(payloadPath);
+            return JobResult.FAILED;
+        }
+
+        log.info("Excel import job {} finished for: {}", job.getId(), payloadPath);
+        return JobResult.OK;
+    }
 
-            String fileName = payloadPath.substring(payloadPath.lastIndexOf('/') + 1);
-            String pageName = fileName.replaceFirst("[.][^.]+$", "");
+    /**
+     * Whether the same version of the payload asset was launched within the debounce window.
+     * Folders and missing payloads are left to the import.
+     */
+    private boolean isDuplicateLaunch(WorkflowSession workflowSession, String payloadPath) throws WorkflowException {
+        ResourceResolver resolver = workflowSession.adaptTo(ResourceResolver.class);
+        Resource resource = resolver != null ? resolver.getResource(payloadPath) : null;
+        Asset asset = resource != null ? resource.adaptTo(Asset.class) : null;
+        if (asset == null) {
+            return false;
+        }
+        String checksum;
+        try {
+            checksum = ImportLaunchDebouncer.checksum(asset);
+        } catch (IOException e) {
+            throw new WorkflowException("Could not read " + payloadPath, e);
+        }
+        if (launchDebouncer.tryLaunch(payloadPath, checksum)) {
+            return false;
+        }
+        log.info("Skipping duplicate launch for {} (sha1 {}) within the debounce window", payloadPath, checksum);
+        metrics.launchSkipped();
+        return true;
+    }
+
+    /**
+     * Lets the next launch of a payload whose import failed run, instead of being skipped as a duplicate.
+     */
+    private void forgetLaunch(String payloadPath) {
+        if (launchDebouncer != null && payloadPath != null) {
+            launchDebouncer.forget(payloadPath);
+        }
+    }
+
+    private void importPayload(ResourceResolver resolver, Resource fileRes, MetaDataMap workflowMetaData)
+            throws Exception {
+        if (isFolder(fileRes)) {
+            ImportProgress progress = progressTracker.start(fileRes.getPath());
+            BulkExcelImport.Report report = new BulkExcelImport(resolverFactory, this::importAsset, bulkWorkers)
+                    .run(listSpreadsheets(fileRes));
+            log.info("Bulk import of {}: {}", fileRes.getPath(), report.getSummary());
+            if (report.getFailed() > 0) {
+                progress.failed(report.getSummary());
+            } else {
+                progress.succeeded(null);
+            }
+            if (workflowMetaData != null) {
+                workflowMetaData.put(BULK_SUMMARY, report.getSummary());
+                workflowMetaData.put(BULK_RESULTS, report.getDetails());
+            }
+            activateImportedPages(report.getResults(), workflowMetaData);
+            return;
+        }
 
-            try (InputStream excelStream = asset.getOriginal().getStream()) {
-                List<Map<String, String>> excelRows = parseExcel(excelStream);
-                log.info("Parsed Excel with {} row(s)", excelRows.size());
+        Asset asset = fileRes.adaptTo(Asset.class);
+        if (asset == null) {
+            log.error("Could not adapt to Asset at path: {}", fileRes.getPath());
+            return;
+        }
+        log.info("Successfully adapted resource to Asset: {}", asset.getPath());
+        ImportResult result = importAsset(resolver, asset);
+        if (workflowMetaData != null && result.getPlan() != null) {
+            workflowMetaData.put(IMPORT_PLAN, result.getPlan());
+        }
+        activateImportedPages(Collections.singletonList(result), workflowMetaData);
+    }
 
-                Page page = createPage(resolver, pageName);
-                createComponentStructure(resolver, page, excelRows);
-                log.info("Page structure creation completed for: {}", page.getPath());
+    /**
+     * Activates the pages of successful, non-dry-run imports. Activation failures are reported but do
+     * not fail the import.
+     */
+    private void activateImportedPages(List<ImportResult> results, MetaDataMap workflowMetaData)
+            throws InterruptedException {
+        if (activation == null) {
+            return;
+        }
+        List<String> pagePaths = new ArrayList<>();
+        for (ImportResult result : results) {
+            if (result.isSuccess() && result.getPlan() == null && result.getPagePath() != null) {
+                pagePaths.add(result.getPagePath());
+                for (ImportResult copy : result.getLanguageCopies()) {
+                    if (copy.isSuccess()) {
+                        pagePaths.add(copy.getPagePath());
+                    }
+                }
             }
+        }
+        if (pagePaths.isEmpty()) {
+            return;
+        }
+        BatchedPageActivation.Report report = activation.activate(pagePaths);
+        metrics.activated(report.getActivated(), report.getFailed().size());
+        if (report.getFailed().isEmpty()) {
+            log.info("Activation: {}", report.getSummary());
+        } else {
+            log.error("Activation: {}; not activated: {}", report.getSummary(), report.getFailed());
+        }
+        if (workflowMetaData != null) {
+            workflowMetaData.put(ACTIVATION_SUMMARY, report.getSummary());
+        }
+    }
+
+    private void replicate(String[] pagePaths) throws Exception {
+        try (ResourceResolver resolver = resolverFactory.getServiceResourceResolver(
+                Collections.singletonMap(ResourceResolverFactory.SUBSERVICE, BulkExcelImport.SUBSERVICE))) {
+            replicator.replicate(resolver.adaptTo(Session.class), ReplicationActionType.ACTIVATE, pagePaths,
+                    new ReplicationOptions());
+        }
+    }
+
+    ImportResult importAsset(ResourceResolver resolver, Asset asset) throws Exception {
+        return importSource(resolver, ImportSource.of(asset));
+    }
 
+    /**
+     * Imports a file of the drop folder, streamed from disk, and activates its pages like a single-asset
+     * workflow run.
+     */
+    ImportResult importFile(ResourceResolver resolver, Path file) throws Exception {
+        ImportResult result = importSource(resolver, ImportSource.of(file));
+        activateImportedPages(Collections.singletonList(result), null);
+        return result;
+    }
+
+    private ImportResult importSource(ResourceResolver resolver, ImportSource source) throws Exception {
+        String repositoryPath = source.getRepositoryPath() != null ? source.getRepositoryPath() : parentPath;
+        ImportProgress progress = progressTracker.start(source.getPath(), repositoryPath);
+        try {
+            ImportResult result = importSource(resolver, source, progress);
+            progress.succeeded(result.getPagePath());
+            return result;
         } catch (Exception e) {
-            log.error("Workflow error for asset: {}", payloadPath, e);
-            throw new WorkflowException(e);
+            progress.failed(e.toString());
+            metrics.failed();
+            if (isMergeConflict(e)) {
+                metrics.mergeConflict();
+            }
+            throw e;
         }
+    }
 
-        log.info("Workflow finished successfully for: {}", payloadPath);
+    private ImportResult importSource(ResourceResolver resolver, ImportSource spreadsheet, ImportProgress progress)
+            throws Exception {
+        long start = System.nanoTime();
+        String fileName = spreadsheet.getName();
+        String pageName = fileName.replaceFirst("[.][^.]+$", "");
+        ImportFormat format = ImportFormat.forName(fileName);
+        if (format == null) {
+            throw new IllegalArgumentException("Unsupported import format: " + spreadsheet.getPath());
+        }
+
+        try (InputStream excelStream = spreadsheet.openStream()) {
+            if (dryRun) {
+                SheetTable excelRows = readTable(format, excelStream, EmbeddedImages.Anchors.NONE, progress);
+                Set<String> brokenReferences = resolveReferences(resolver, excelRows);
+                WritePlan plan = WritePlan.compile(groupExcelRows(excelRows), languageRoots.keySet());
+                String pagePath = parentPath + "/" + pageName;
+                String description = plan.describe(commitBatchSize);
+                if (!brokenReferences.isEmpty()) {
+                    description += ", " + brokenReferences.size() + " broken DAM reference(s) " + brokenReferences;
+                }
+                log.info("Dry run of {} into {}: {}", spreadsheet.getPath(), pagePath, description);
+                return ImportResult.dryRun(spreadsheet.getPath(), pagePath, excelRows.getRowCount(),
+                        plan.getComponents().size(), description,
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            }
+
+            String source = spreadsheet.getPath();
+            long lastModified = spreadsheet.getLastModified();
+            Page page;
+            int rows;
+            int groups;
+            ImportCheckpoint checkpoint;
+            LanguageCopies copies = null;
+            CompletableFuture<Boolean> mainCommitted = new CompletableFuture<>();
+            boolean committed = false;
+            Set<String> brokenReferences = new LinkedHashSet<>();
+            // Released before waiting for the language copies, which lock their own pages.
+            PageImportLocks.Held pageLock = pageLocks.acquire(parentPath + "/" + pageName);
+            try {
+                EmbeddedImages.Anchors images = uploadImages(spreadsheet, format, pageName);
+                if (streamingReader && !incrementalImport && languageRoots.isEmpty()) {
+                    page = createPage(resolver, parentPath, pageName, source, lastModified);
+                    checkpoint = startCheckpoint(resolver, page, source, lastModified, progress);
+                    StreamingComponentWriter writer = new StreamingComponentWriter(
+                            getTargetContainer(resolver, page, checkpoint), checkpoint, progress);
+                    StreamingRowGrouper grouper = new StreamingRowGrouper((group, lastRow, continuation) -> {
+                        brokenReferences.addAll(resolveReferences(resolver, group.getTable()));
+                        writer.handleGroup(group, lastRow, continuation);
+                    });
+                    long writeStart = System.nanoTime() - checkpoint.getCommitNanos();
+                    RowReader reader = format == ImportFormat.XLSX
+                            ? new StreamingExcelReader(images) : format.newReader();
+                    reader.read(excelStream, grouper);
+                    grouper.finish();
+                    metrics.write(System.nanoTime() - writeStart - checkpoint.getCommitNanos());
+                    log.info("Streamed {} row(s) into {} component(s)", grouper.getRowCount(), writer.getGroupCount());
+                    rows = grouper.getRowCount();
+                    groups = writer.getGroupCount();
+                } else {
+                    SheetTable excelRows = readTable(format, excelStream, images, progress);
+                    brokenReferences.addAll(resolveReferences(resolver, excelRows));
+                    rows = excelRows.getRowCount();
+                    WritePlan plan = null;
+                    if (!languageRoots.isEmpty() && !incrementalImport) {
+                        WritePlan sharedPlan = WritePlan.compile(groupExcelRows(excelRows), languageRoots.keySet());
+                        copies = new LanguageCopies(resolverFactory, languageRoots, (copyResolver, locale, root) ->
+                                importLanguageCopy(copyResolver, locale, root, pageName, source, lastModified,
+                                        sharedPlan, excelRows.getRowCount(), mainCommitted));
+                        copies.start();
+                        plan = sharedPlan;
+                    }
+                    page = createPage(resolver, parentPath, pageName, source, lastModified);
+                    checkpoint = startCheckpoint(resolver, page, source, lastModified, progress);
+                    long writeStart = System.nanoTime() - checkpoint.getCommitNanos();
+                    if (plan != null) {
+                        writeComponents(resolver, page, plan, null, checkpoint, progress);
+                        groups = plan.getComponents().size();
+                    } else {
+                        groups = createComponentStructure(resolver, page, excelRows, checkpoint, progress);
+                    }
+                    metrics.write(System.nanoTime() - writeStart - checkpoint.getCommitNanos());
+                }
+
+                if (!brokenReferences.isEmpty()) {
+                    log.warn("{} broken DAM reference(s) in {}: {}", brokenReferences.size(), spreadsheet.getPath(),
+                            brokenReferences);
+                }
+                promoteStaged(resolver, page);
+                checkpoint.complete();
+                committed = true;
+                log.info("Page structure creation completed for: {} in {} commit(s)", page.getPath(),
+                        checkpoint.getCommits());
+            } finally {
+                pageLock.close();
+                mainCommitted.complete(committed);
+                if (copies != null && !committed) {
+                    // Nothing of this import may still be writing once it has failed.
+                    copies.await();
+                }
+            }
+            List<ImportResult> copyResults = copies != null ? copies.await() : Collections.emptyList();
+            long nanos = System.nanoTime() - start;
+            metrics.imported(spreadsheet.getSize(), progress, nanos);
+            return ImportResult.success(source, page.getPath(), rows, groups, TimeUnit.NANOSECONDS.toMillis(nanos))
+                    .withLanguageCopies(copyResults);
+        }
+    }
+
+    /**
+     * Writes the copy of an imported page under a locale root from the main import's plan. The copy is
+     * written alongside the main page but only completed once the main page is committed; if the main
+     * import fails, the copy's pending changes are dropped and the next import writes it again.
+     */
+    private ImportResult importLanguageCopy(ResourceResolver resolver, String locale, String root, String pageName,
+                                            String source, long lastModified, WritePlan plan, int rows,
+                                            CompletableFuture<Boolean> mainCommitted) throws Exception {
+        long start = System.nanoTime();
+        ImportProgress progress = progressTracker.start(source + " [" + locale + "]", root);
+        try (PageImportLocks.Held pageLock = pageLocks.acquire(root + "/" + pageName)) {
+            Page page = createPage(resolver, root, pageName, source, lastModified);
+            ImportCheckpoint checkpoint = startCheckpoint(resolver, page, source, lastModified, progress);
+            writeComponents(resolver, page, plan, locale, checkpoint, progress);
+            if (!mainCommitted.get()) {
+                throw new IllegalStateException("Import of the main page failed, " + locale + " copy not completed");
+            }
+            promoteStaged(resolver, page);
+            checkpoint.complete();
+            progress.succeeded(page.getPath());
+            return ImportResult.success(locale, page.getPath(), rows, plan.getComponents().size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (Exception e) {
+            progress.failed(e.toString());
+            throw e;
+        }
+    }
+
+    /**
+     * Whether the import failed because a concurrent writer changed the same nodes (an Oak merge conflict).
+     */
+    private static boolean isMergeConflict(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause.getMessage() != null && cause.getMessage().contains("OakMerge")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void promoteStaged(ResourceResolver resolver, Page page) throws RepositoryException {
+        if (isStaged()) {
+            Node liveContainer = getContainerNode(resolver, page);
+            ImportStaging.promote(liveContainer.getParent().getParent(), liveContainer);
+        }
+    }
+
+    private SheetTable readTable(ImportFormat format, InputStream excelStream, EmbeddedImages.Anchors images,
+                                 ImportProgress progress) throws Exception {
+        long parseStart = System.nanoTime();
+        SheetTable excelRows = format == ImportFormat.XLSX
+                ? parseExcel(excelStream, images) : SheetTable.read(format.newReader(), excelStream);
+        metrics.parse(System.nanoTime() - parseStart);
+        log.info("Parsed {} with {} row(s)", format, excelRows.getRowCount());
+        progress.rowsParsed(excelRows.getRowCount());
+        return excelRows;
+    }
+
+    /**
+     * Uploads the pictures embedded in an XLSX source to the page's image folder. The workbook is read a
+     * second time for this, so the pictures never pass through the row readers.
+     */
+    private EmbeddedImages.Anchors uploadImages(ImportSource spreadsheet, ImportFormat format, String pageName)
+            throws Exception {
+        if (embeddedImages == null || format != ImportFormat.XLSX) {
+            return EmbeddedImages.Anchors.NONE;
+        }
+        try (InputStream workbook = spreadsheet.openStream()) {
+            return embeddedImages.upload(workbook, embeddedImageFolder + "/" + pageName);
+        }
+    }
+
+    private static void createImageAsset(ResourceResolver resolver, String damPath, InputStream binary,
+                                         String mimeType) {
+        AssetManager assetManager = resolver.adaptTo(AssetManager.class);
+        if (assetManager == null || assetManager.createAsset(damPath, binary, mimeType, true) == null) {
+            throw new IllegalStateException("Could not create asset: " + damPath);
+        }
+    }
+
+    private Set<String> resolveReferences(ResourceResolver resolver, SheetTable table) {
+        return damReferences != null ? damReferences.resolve(resolver, table) : Collections.emptySet();
+    }
+
+    private boolean isStaged() {
+        return stagedImport && !incrementalImport;
+    }
+
+    private boolean isFolder(Resource resource) throws RepositoryException {
+        Node node = resource.adaptTo(Node.class);
+        return node != null && node.isNodeType("nt:folder");
+    }
+
+    private List<String> listSpreadsheets(Resource folder) {
+        List<String> assetPaths = new ArrayList<>();
+        for (Resource child : folder.getChildren()) {
+            if (ImportFormat.forName(child.getName()) != null && child.adaptTo(Asset.class) != null) {
+                assetPaths.add(child.getPath());
+            }
+        }
+        log.info("Found {} spreadsheet(s) in folder: {}", assetPaths.size(), folder.getPath());
+        return assetPaths;
     }
 
     private String getSanitizedPayload(String payload) {
-        int idx = payload.indexOf(".xlsx");
-        return (idx != -1) ? payload.substring(0, idx + 5) : payload;
+        return ImportFormat.assetPath(payload);
+    }
+
+    /**
+     * Parses {@code key=value} configuration entries, keeping their order.
+     */
+    private static Map<String, String> parseMapping(String[] entries, String description) {
+        Map<String, String> configured = new LinkedHashMap<>();
+        for (String entry : entries) {
+            String[] parts = entry.split("=", 2);
+            if (parts.length == 2 && !parts[0].trim().isEmpty() && !parts[1].trim().isEmpty()) {
+                configured.put(parts[0].trim(), parts[1].trim());
+            } else {
+                log.warn("Ignoring invalid {} entry: {}", description, entry);
+            }
+        }
+        return configured;
+    }
+
+    private Page createPage(ResourceResolver resolver, String parent, String pageName, String source,
+                            long lastModified) throws WCMException, RepositoryException, PersistenceException {
+        long start = System.nanoTime();
+        try {
+            return findOrCreatePage(resolver, parent, pageName, source, lastModified);
+        } finally {
+            metrics.pageCreate(System.nanoTime() - start);
+        }
     }
 
-    private Page createPage(ResourceResolver resolver, String pageName) throws WCMException {
+    private Page findOrCreatePage(ResourceResolver resolver, String parent, String pageName, String source,
+                                  long lastModified) throws WCMException, RepositoryException, PersistenceException {
         PageManager pageManager = resolver.adaptTo(PageManager.class);
         if (pageManager == null) {
             throw new IllegalStateException("PageManager unavailable.");
         }
-        Page page = pageManager.create(PAGE_PARENT_PATH, pageName, TEMPLATE_PATH, pageName, true);
+        Page existing = pageManager.getPage(parent + "/" + pageName);
+        if (existing != null && incrementalImport) {
+            log.info("Updating existing page incrementally: {}", existing.getPath());
+            return existing;
+        }
+        if (existing != null && ImportCheckpoint.isResumable(existing, source, lastModified)) {
+            log.info("Resuming interrupted import into page: {}", existing.getPath());
+            return existing;
+        }
+        if (existing != null && ImportCheckpoint.isStale(existing, source, lastModified)) {
+            // Import into the half-built page again rather than creating a sibling next to it.
+            Node container = getContainerNode(resolver, existing);
+            ImportCheckpoint.discard(container.getParent().getParent(), isStaged() ? null : container);
+            log.info("Restarting interrupted import into page: {}", existing.getPath());
+            return existing;
+        }
+        if (existing == null && blueprints != null) {
+            Page page = blueprints.create(resolver, parent, pageName, templatePath);
+            log.info("Created page from blueprint: {}", page.getPath());
+            return page;
+        }
+        Page page = pageManager.create(parent, pageName, templatePath, pageName, true);
         log.info("Created page: {}", page.getPath());
         return page;
     }
 
-    private List<Map<String, String>> parseExcel(InputStream inputStream) throws Exception {
-        List<Map<String, String>> rows = new ArrayList<>();
+    private ImportCheckpoint startCheckpoint(ResourceResolver resolver, Page page, String source, long lastModified,
+                                             ImportProgress progress)
+            throws RepositoryException, PersistenceException {
+        return ImportCheckpoint.start(resolver, page, source, lastModified, commitBatchSize, progress, metrics);
+    }
+
+    static SheetTable parseExcel(InputStream inputStream) throws Exception {
+        return parseExcel(inputStream, EmbeddedImages.Anchors.NONE);
+    }
+
+    /**
+     * @param images DAM paths of uploaded pictures, set into the rows they are anchored on
+     */
+    static SheetTable parseExcel(InputStream inputStream, EmbeddedImages.Anchors images) throws Exception {
         Workbook workbook = WorkbookFactory.create(inputStream);
         Sheet sheet = workbook.getSheetAt(0);
         Iterator<Row> rowIterator = sheet.iterator();
@@ -98,19 +764,22 @@ public class CreatePageFromExcelWorkflowProcess implements WorkflowProcess {
             }
         }
 
+        SheetHeader header = new SheetHeader(headers);
+        SheetTable table = new SheetTable(header);
+        ArraySheetRow rowData = new ArraySheetRow(header);
+
         while (rowIterator.hasNext()) {
             Row row = rowIterator.next();
-            Map<String, String> rowData = new HashMap<>();
-            for (int i = 0; i < headers.size(); i++) {
-                Cell cell = row.getCell(i);
-                rowData.put(headers.get(i), getCellValue(cell));
+            for (int i = 0; i < header.size(); i++) {
+                rowData.set(i, getCellValue(row.getCell(i)));
             }
-            rows.add(rowData);
+            images.apply(row.getRowNum(), rowData);
+            table.addRow(rowData);
         }
-        return rows;
+        return table;
     }
 
-    private String getCellValue(Cell cell) {
+    static String getCellValue(Cell cell) {
         if (cell == null) return "";
         switch (cell.getCellType()) {
             case STRING: return cell.getStringCellValue();
@@ -120,73 +789,102 @@ public class CreatePageFromExcelWorkflowProcess implements WorkflowProcess {
         }
     }
 
-    private void createComponentStructure(ResourceResolver resolver, Page page, List<Map<String, String>> rows)
+    int createComponentStructure(ResourceResolver resolver, Page page, SheetTable rows,
+                                 ImportCheckpoint checkpoint, ImportProgress progress)
             throws RepositoryException, PersistenceException {
-        Resource jcrContentRes = resolver.getResource(page.getPath() + "/jcr:content");
-        if (jcrContentRes == null) throw new IllegalStateException("jcr:content missing.");
-
-        Node jcrContentNode = jcrContentRes.adaptTo(Node.class);
-        Node rootNode = ensureNode(jcrContentNode, "root");
-        Node containerNode = ensureNode(rootNode, "container");
-
-        Map<String, List<Map<String, String>>> grouped = groupExcelRows(rows);
+        Map<String, ComponentGroup> grouped = groupExcelRows(rows);
 
-        for (Map.Entry<String, List<Map<String, String>>> entry : grouped.entrySet()) {
-            List<Map<String, String>> groupRows = entry.getValue();
-            Map<String, String> firstRow = groupRows.get(0);
-            String componentType = firstRow.get("ComponentName");
-
-            String groupId = firstRow.getOrDefault("groupId", UUID.randomUUID().toString());
-            String uniqueNodeName = componentType + "-" + groupId;
+        if (incrementalImport) {
+            Node containerNode = getTargetContainer(resolver, page, checkpoint);
+            new IncrementalComponentSync(containerNode, languageRoots.keySet(), checkpoint, progress).sync(grouped);
+            return grouped.size();
+        }
 
-            log.info("Creating component node: {}", uniqueNodeName);
-            Node componentNode = containerNode.addNode(uniqueNodeName, "nt:unstructured");
-            componentNode.setProperty("sling:resourceType", "FutureConcepts/components/" + componentType);
+        writeComponents(resolver, page, WritePlan.compile(grouped, languageRoots.keySet()), null, checkpoint,
+                progress);
+        return grouped.size();
+    }
 
-            if (groupRows.size() == 1) {
-                addProperties(componentNode, firstRow);
-            } else {
-                addMultifieldItems(componentNode, groupRows);
+    /**
+     * Applies a write plan to the page, with the values of {@code locale} for a language copy.
+     */
+    private void writeComponents(ResourceResolver resolver, Page page, WritePlan plan, String locale,
+                                 ImportCheckpoint checkpoint, ImportProgress progress)
+            throws RepositoryException, PersistenceException {
+        Node containerNode = getTargetContainer(resolver, page, checkpoint);
+        log.info("Write plan for {}: {}", page.getPath(), plan.describe(commitBatchSize));
+        List<WritePlan.PlannedNode> components = plan.getComponents();
+        for (int groupIndex = 0; groupIndex < components.size(); groupIndex++) {
+            if (checkpoint.isGroupCommitted(groupIndex)) {
+                continue;
             }
-
-            log.info("Added component: {}", componentType);
+            components.get(groupIndex).write(containerNode, progress, locale);
+            checkpoint.groupWritten(groupIndex, -1);
         }
+    }
 
-        resolver.commit();
-        log.info("Changes committed to repository for page: {}", page.getPath());
+    static Node addComponentNode(Node containerNode, String nodeName, String componentType,
+                                 ComponentGroup groupRows, Set<String> locales, ImportProgress progress)
+            throws RepositoryException {
+        return WritePlan.component(nodeName, componentType, groupRows, locales).write(containerNode, progress);
     }
 
-    private Map<String, List<Map<String, String>>> groupExcelRows(List<Map<String, String>> rows) {
-        Map<String, List<Map<String, String>>> grouped = new LinkedHashMap<>();
-        for (Map<String, String> row : rows) {
-            String component = row.get("ComponentName");
-            String groupId = row.getOrDefault("groupId", UUID.randomUUID().toString());
-            String key = component + "::" + groupId;
-            grouped.computeIfAbsent(key, k -> new ArrayList<>()).add(row);
+    /**
+     * The container components are written into: the page's live container, or its staging copy for staged imports.
+     */
+    private Node getTargetContainer(ResourceResolver resolver, Page page, ImportCheckpoint checkpoint)
+            throws RepositoryException {
+        Node liveContainer = getContainerNode(resolver, page);
+        if (!isStaged()) {
+            return liveContainer;
         }
-        return grouped;
+        return ImportStaging.stage(liveContainer.getParent().getParent(), liveContainer, checkpoint.isResuming());
     }
 
-    private void addProperties(Node node, Map<String, String> row) throws RepositoryException {
-        for (Map.Entry<String, String> entry : row.entrySet()) {
-            String key = entry.getKey();
-            String value = entry.getValue();
-            if (!"ComponentName".equals(key) && !"groupId".equals(key) && isNonEmptyField(value)) {
-                node.setProperty(key, value);
+    private Node getContainerNode(ResourceResolver resolver, Page page) throws RepositoryException {
+        Resource jcrContentRes = resolver.getResource(page.getPath() + "/jcr:content");
+        if (jcrContentRes == null) throw new IllegalStateException("jcr:content missing.");
+
+        Node jcrContentNode = jcrContentRes.adaptTo(Node.class);
+        Node rootNode = ensureNode(jcrContentNode, "root");
+        return ensureNode(rootNode, "container");
+    }
+
+    static Map<String, ComponentGroup> groupExcelRows(SheetTable rows) {
+        Map<String, ComponentGroup> grouped = new LinkedHashMap<>();
+        int componentColumn = rows.getHeader().indexOf(COMPONENT_NAME);
+        int groupIdColumn = rows.getHeader().indexOf(GROUP_ID);
+        for (int row = 0; row < rows.getRowCount(); row++) {
+            String component = componentColumn >= 0 ? rows.value(row, componentColumn) : null;
+            String groupId = groupIdColumn >= 0 ? rows.value(row, groupIdColumn) : ComponentGroup.defaultGroupId(row);
+            String key = ComponentGroup.key(component, groupId);
+            ComponentGroup group = grouped.get(key);
+            if (group == null) {
+                group = new ComponentGroup(rows, groupId);
+                grouped.put(key, group);
             }
+            group.add(row);
         }
+        return grouped;
     }
 
-    private void addMultifieldItems(Node componentNode, List<Map<String, String>> rows) throws RepositoryException {
-        Node listItems = componentNode.addNode("listItems", "nt:unstructured");
-        int index = 0;
-        for (Map<String, String> row : rows) {
-            Node item = listItems.addNode("item" + index++, "nt:unstructured");
-            addProperties(item, row);
+    /**
+     * Copies the non-key, non-empty columns of a row onto a node and returns the number of properties set.
+     */
+    static int addProperties(Node node, SheetRow row) throws RepositoryException {
+        SheetHeader header = row.getHeader();
+        int written = 0;
+        for (int column = 0; column < header.size(); column++) {
+            String value = row.get(column);
+            if (!header.isKeyColumn(column) && isNonEmptyField(value)) {
+                node.setProperty(header.name(column), value);
+                written++;
+            }
         }
+        return written;
     }
 
-    private Node ensureNode(Node parent, String name) throws RepositoryException {
+    static Node ensureNode(Node parent, String name) throws RepositoryException {
         if (parent.hasNode(name)) {
             return parent.getNode(name);
         }
@@ -196,7 +894,7 @@ public class CreatePageFromExcelWorkflowProcess implements WorkflowProcess {
         return node;
     }
 
-    private boolean isNonEmptyField(String value) {
+    static boolean isNonEmptyField(String value) {
         return value != null && !value.trim().isEmpty();
     }
 }
\ No newline at end of file
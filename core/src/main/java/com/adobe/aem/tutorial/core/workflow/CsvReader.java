@@ -0,0 +1,133 @@
+package com.adobe.aem.tutorial.core.workflow;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming RFC 4180 CSV reader: comma separated, fields optionally enclosed in double quotes with
+ * {@code ""} as an escaped quote, quoted fields may span lines, and records end with LF or CRLF.
+ * Input is decoded as UTF-8 and a leading byte order mark is skipped.
+ * <p>
+ * The reader works on one reused character buffer, field builder and row, so apart from the value
+ * strings themselves it does not allocate per record. Blank lines are skipped, surplus fields are
+ * ignored and missing fields are reported as {@code ""}.
+ */
+final class CsvReader implements RowReader {
+
+    private static final char SEPARATOR = ',';
+    private static final char QUOTE = '"';
+    private static final char BOM = '\uFEFF';
+
+    private static final int END_OF_FIELD = 0;
+    private static final int END_OF_RECORD = 1;
+    private static final int END_OF_INPUT = 2;
+
+    private final char[] buffer = new char[8192];
+    private final StringBuilder field = new StringBuilder();
+    private Reader reader;
+    private int position;
+    private int limit;
+    private boolean quoted;
+    private long record;
+
+    @Override
+    public void read(InputStream inputStream, ExcelRowHandler handler) throws Exception {
+        reader = new InputStreamReader(inputStream, StandardCharsets.UTF_8);
+        if (peek() == BOM) {
+            position++;
+        }
+
+        List<String> headerCells = new ArrayList<>();
+        int end;
+        do {
+            end = nextField();
+            headerCells.add(field.toString().trim());
+        } while (end == END_OF_FIELD);
+        if (headerCells.size() == 1 && headerCells.get(0).isEmpty()) {
+            return;
+        }
+
+        SheetHeader header = new SheetHeader(headerCells);
+        ArraySheetRow row = new ArraySheetRow(header);
+        while (end != END_OF_INPUT) {
+            record++;
+            row.clear();
+            int column = 0;
+            do {
+                end = nextField();
+                if (column < header.size() && field.length() > 0) {
+                    row.set(column, field.toString());
+                }
+                column++;
+            } while (end == END_OF_FIELD);
+
+            boolean blankLine = column == 1 && field.length() == 0 && !quoted;
+            if (!blankLine) {
+                handler.handleRow(row);
+            }
+        }
+    }
+
+    /**
+     * Reads the next field into {@link #field} and returns what terminated it.
+     */
+    private int nextField() throws IOException {
+        field.setLength(0);
+        quoted = false;
+        int c = next();
+        if (c == QUOTE) {
+            quoted = true;
+            while (true) {
+                c = next();
+                if (c == -1) {
+                    throw new IOException("Unterminated quoted field in CSV record " + record);
+                }
+                if (c == QUOTE) {
+                    c = next();
+                    if (c != QUOTE) {
+                        break;
+                    }
+                }
+                field.append((char) c);
+            }
+        }
+        // Unquoted field, or lenient handling of characters after a closing quote.
+        while (c != SEPARATOR && c != '\n' && c != '\r' && c != -1) {
+            field.append((char) c);
+            c = next();
+        }
+
+        if (c == SEPARATOR) {
+            return END_OF_FIELD;
+        }
+        if (c == '\r' && peek() == '\n') {
+            position++;
+        }
+        return c == -1 || peek() == -1 ? END_OF_INPUT : END_OF_RECORD;
+    }
+
+    private int next() throws IOException {
+        int c = peek();
+        if (c != -1) {
+            position++;
+        }
+        return c;
+    }
+
+    private int peek() throws IOException {
+        if (position == limit) {
+            limit = reader.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position];
+    }
+}
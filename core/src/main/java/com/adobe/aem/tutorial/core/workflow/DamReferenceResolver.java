@@ -0,0 +1,160 @@
+package com.adobe.aem.tutorial.core.workflow;
+
+import com.day.cq.dam.api.Asset;
+import com.day.cq.dam.api.Rendition;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongSupplier;
+
+/**
+ * Validates the DAM paths of a sheet (image and file references of hero, tile and carousel rows) before
+ * they are written, so broken references surface at import time instead of at render time. All distinct
+ * paths of a table are collected first and each is looked up once; valid results are kept in an LRU
+ * cache shared by all imports, so a bulk import of many sheets pointing at the same assets resolves
+ * every asset only once. Cached results expire after a configured time, so an asset that is deleted,
+ * moved or given new renditions is looked up again.
+ * <p>
+ * With renditions configured, references are rewritten in the table to the first of those renditions
+ * the asset has. Broken references are reported, left as they are and not cached, so an asset uploaded
+ * later is picked up by the next import.
+ */
+final class DamReferenceResolver {
+
+    static final String DAM_ROOT = "/content/dam/";
+
+    private static final Logger log = LoggerFactory.getLogger(DamReferenceResolver.class);
+
+    private final Map<String, CachedTarget> cache;
+    private final long cacheMillis;
+    private final String[] renditions;
+    private final ImportMetrics metrics;
+    private final LongSupplier clock;
+
+    DamReferenceResolver(int cacheSize, long cacheMillis, String[] renditions, ImportMetrics metrics) {
+        this(cacheSize, cacheMillis, renditions, metrics, System::currentTimeMillis);
+    }
+
+    DamReferenceResolver(int cacheSize, long cacheMillis, String[] renditions, ImportMetrics metrics,
+                         LongSupplier clock) {
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<String, CachedTarget>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedTarget> eldest) {
+                return size() > cacheSize;
+            }
+        });
+        this.cacheMillis = cacheMillis;
+        this.renditions = renditions.clone();
+        this.metrics = metrics;
+        this.clock = clock;
+    }
+
+    /**
+     * Resolves every DAM reference in the non-key columns of the table and rewrites the values that
+     * resolve to a rendition.
+     *
+     * @return the distinct references that point at nothing
+     */
+    Set<String> resolve(ResourceResolver resolver, SheetTable table) {
+        SheetHeader header = table.getHeader();
+        Set<String> references = new LinkedHashSet<>();
+        for (int column = 0; column < header.size(); column++) {
+            if (header.isKeyColumn(column)) {
+                continue;
+            }
+            for (int row = 0; row < table.getRowCount(); row++) {
+                String value = table.value(row, column);
+                if (isReference(value)) {
+                    references.add(value);
+                }
+            }
+        }
+        if (references.isEmpty()) {
+            return Collections.emptySet();
+        }
+
+        Map<String, String> rewrites = new HashMap<>();
+        Set<String> broken = new LinkedHashSet<>();
+        int lookups = 0;
+        long now = clock.getAsLong();
+        for (String reference : references) {
+            CachedTarget cached = cache.get(reference);
+            String target = cached != null && cached.expires > now ? cached.path : null;
+            if (target == null) {
+                lookups++;
+                target = lookup(resolver, reference);
+                if (target == null) {
+                    cache.remove(reference);
+                    broken.add(reference);
+                    continue;
+                }
+                if (cacheMillis > 0) {
+                    cache.put(reference, new CachedTarget(target, now + cacheMillis));
+                }
+            }
+            if (!target.equals(reference)) {
+                rewrites.put(reference, target);
+            }
+        }
+
+        if (!rewrites.isEmpty()) {
+            for (int column = 0; column < header.size(); column++) {
+                for (int row = 0; !header.isKeyColumn(column) && row < table.getRowCount(); row++) {
+                    String target = rewrites.get(table.value(row, column));
+                    if (target != null) {
+                        table.set(row, column, target);
+                    }
+                }
+            }
+        }
+        metrics.damReferences(references.size() - lookups, lookups, broken.size());
+        log.debug("Resolved {} DAM reference(s) with {} lookup(s): {} rewritten, {} broken",
+                references.size(), lookups, rewrites.size(), broken.size());
+        return broken;
+    }
+
+    static boolean isReference(String value) {
+        return value != null && value.startsWith(DAM_ROOT);
+    }
+
+    /**
+     * @return the path to write for the reference, or {@code null} if nothing exists at it
+     */
+    private String lookup(ResourceResolver resolver, String reference) {
+        Resource resource = resolver.getResource(reference);
+        if (resource == null) {
+            return null;
+        }
+        Asset asset = resource.adaptTo(Asset.class);
+        if (asset == null) {
+            // Folders, renditions and other non-asset resources are kept as they were written.
+            return reference;
+        }
+        for (String name : renditions) {
+            Rendition rendition = asset.getRendition(name);
+            if (rendition != null) {
+                return rendition.getPath();
+            }
+        }
+        return asset.getPath();
+    }
+
+    private static final class CachedTarget {
+
+        private final String path;
+        private final long expires;
+
+        private CachedTarget(String path, long expires) {
+            this.path = path;
+            this.expires = expires;
+        }
+    }
+}
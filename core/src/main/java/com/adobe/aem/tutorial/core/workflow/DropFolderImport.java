@@ -0,0 +1,98 @@
+package com.adobe.aem.tutorial.core.workflow;
+
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.ResourceResolverFactory;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.ConfigurationPolicy;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+
+/**
+ * Imports the spreadsheets a content pipeline writes to a local or mounted directory, without uploading
+ * them to DAM first. Files are streamed from disk into the same import as
+ * {@link CreatePageFromExcelWorkflowProcess} and then moved to a processed or failed directory. Only
+ * active when configured.
+ */
+@Designate(ocd = DropFolderImport.Config.class)
+@Component(immediate = true, configurationPolicy = ConfigurationPolicy.REQUIRE)
+public class DropFolderImport {
+
+    @ObjectClassDefinition(name = "Excel Page Import Drop Folder",
+                           description = "Imports spreadsheets written to a directory of the instance's file system")
+    public static @interface Config {
+
+        @AttributeDefinition(name = "Drop folder",
+                             description = "Directory watched for new .xlsx, .csv and .ndjson files")
+        String directory();
+
+        @AttributeDefinition(name = "Processed folder",
+                             description = "Directory successfully imported files are moved to. Empty uses "
+                                     + "'processed' inside the drop folder")
+        String processedDirectory() default "";
+
+        @AttributeDefinition(name = "Failed folder",
+                             description = "Directory files that failed to import are moved to. Empty uses "
+                                     + "'failed' inside the drop folder")
+        String failedDirectory() default "";
+
+        @AttributeDefinition(name = "Import workers",
+                             description = "Number of files imported in parallel")
+        int workers() default 2;
+
+        @AttributeDefinition(name = "Quiet period (ms)",
+                             description = "How long a file must be unchanged before it is imported, so files "
+                                     + "still being copied are not picked up")
+        long quietMillis() default 2000;
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(DropFolderImport.class);
+
+    @Reference
+    private ResourceResolverFactory resolverFactory;
+
+    @Reference
+    private CreatePageFromExcelWorkflowProcess importProcess;
+
+    private DropFolderWatcher watcher;
+
+    @Activate
+    protected void activate(final Config config) throws IOException {
+        Path directory = Paths.get(config.directory());
+        watcher = new DropFolderWatcher(directory,
+                resolve(directory, config.processedDirectory(), "processed"),
+                resolve(directory, config.failedDirectory(), "failed"),
+                this::importFile, config.workers(), config.quietMillis());
+        watcher.start();
+    }
+
+    @Deactivate
+    protected void deactivate() throws InterruptedException {
+        if (watcher != null) {
+            watcher.stop();
+        }
+    }
+
+    private void importFile(Path file) throws Exception {
+        try (ResourceResolver resolver = resolverFactory.getServiceResourceResolver(
+                Collections.singletonMap(ResourceResolverFactory.SUBSERVICE, BulkExcelImport.SUBSERVICE))) {
+            ImportResult result = importProcess.importFile(resolver, file);
+            log.info("Drop folder import: {}", result);
+        }
+    }
+
+    private static Path resolve(Path directory, String configured, String defaultName) {
+        return configured == null || configured.trim().isEmpty()
+                ? directory.resolve(defaultName) : Paths.get(configured.trim());
+    }
+}
@@ -0,0 +1,222 @@
+package com.adobe.aem.tutorial.core.workflow;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Watches a local directory with a {@link WatchService} and imports the spreadsheets written to it. New
+ * files are collected until they have not been modified for the quiet period, so files still being
+ * copied onto the mount are left alone, and all settled files are then handed to a fixed pool of
+ * workers as one batch. Each file is moved to the processed directory after a successful import and to
+ * the failed directory otherwise, numbered rather than replacing a file of the same name moved there
+ * before. Files already in the directory when the watcher starts are imported
+ * too.
+ */
+final class DropFolderWatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(DropFolderWatcher.class);
+
+    /**
+     * Imports one settled file. Throwing moves the file to the failed directory.
+     */
+    @FunctionalInterface
+    interface FileImporter {
+        void importFile(Path file) throws Exception;
+    }
+
+    private final Path directory;
+    private final Path processedDirectory;
+    private final Path failedDirectory;
+    private final FileImporter importer;
+    private final int workers;
+    private final long quietMillis;
+    private final Set<Path> inFlight = ConcurrentHashMap.newKeySet();
+
+    private WatchService watchService;
+    private ThreadPoolExecutor executor;
+    private Thread watcherThread;
+
+    DropFolderWatcher(Path directory, Path processedDirectory, Path failedDirectory, FileImporter importer,
+                      int workers, long quietMillis) {
+        this.directory = directory;
+        this.processedDirectory = processedDirectory;
+        this.failedDirectory = failedDirectory;
+        this.importer = importer;
+        this.workers = Math.max(1, workers);
+        this.quietMillis = Math.max(0, quietMillis);
+    }
+
+    void start() throws IOException {
+        Files.createDirectories(directory);
+        Files.createDirectories(processedDirectory);
+        Files.createDirectories(failedDirectory);
+        watchService = FileSystems.getDefault().newWatchService();
+        directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                runnable -> new Thread(runnable, "excel-import-dropfolder-" + threadCount.incrementAndGet()));
+        Set<Path> pending = listFiles();
+        watcherThread = new Thread(() -> watch(pending), "excel-import-dropfolder-watcher");
+        watcherThread.setDaemon(true);
+        watcherThread.start();
+        log.info("Watching {} for spreadsheets, {} already waiting", directory, pending.size());
+    }
+
+    /**
+     * Stops watching and waits for the running imports to finish. Queued files stay in the directory and
+     * are picked up on the next start.
+     */
+    void stop() throws InterruptedException {
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            log.warn("Could not close the watch service of {}", directory, e);
+        }
+        watcherThread.join(TimeUnit.SECONDS.toMillis(10));
+        executor.getQueue().clear();
+        executor.shutdown();
+        if (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+            log.warn("Drop folder imports of {} still running after shutdown", directory);
+        }
+    }
+
+    private void watch(Set<Path> pending) {
+        try {
+            while (true) {
+                WatchKey key = watchService.poll(quietMillis > 0 ? quietMillis : 1000, TimeUnit.MILLISECONDS);
+                if (key != null) {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            pending.addAll(listFiles());
+                        } else {
+                            pending.add(directory.resolve((Path) event.context()));
+                        }
+                    }
+                    if (!key.reset()) {
+                        log.error("Drop folder {} is no longer accessible, stopped watching", directory);
+                        return;
+                    }
+                }
+                submitSettled(pending);
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            log.debug("Stopped watching {}", directory);
+        } catch (IOException e) {
+            log.error("Watching {} failed, stopped watching", directory, e);
+        }
+    }
+
+    /**
+     * Submits the pending files that have not changed for the quiet period as one batch and keeps the
+     * others pending.
+     */
+    private void submitSettled(Set<Path> pending) {
+        long settledBefore = System.currentTimeMillis() - quietMillis;
+        List<Path> batch = new ArrayList<>();
+        for (Iterator<Path> files = pending.iterator(); files.hasNext(); ) {
+            Path file = files.next();
+            if (!isSpreadsheet(file)) {
+                files.remove();
+                continue;
+            }
+            long lastModified;
+            try {
+                lastModified = Files.getLastModifiedTime(file).toMillis();
+            } catch (IOException e) {
+                // Moved or deleted since the event.
+                files.remove();
+                continue;
+            }
+            if (lastModified <= settledBefore) {
+                files.remove();
+                if (inFlight.add(file)) {
+                    batch.add(file);
+                }
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        log.info("Importing {} file(s) from {}", batch.size(), directory);
+        for (Path file : batch) {
+            executor.execute(() -> importFile(file));
+        }
+    }
+
+    private void importFile(Path file) {
+        Path target = processedDirectory;
+        try {
+            importer.importFile(file);
+        } catch (Exception e) {
+            log.error("Drop folder import failed for {}", file, e);
+            target = failedDirectory;
+        }
+        try {
+            moveWithoutReplacing(file, target);
+        } catch (IOException e) {
+            log.error("Could not move {} to {}", file, target, e);
+        } finally {
+            inFlight.remove(file);
+        }
+    }
+
+    /**
+     * Moves the file into {@code targetDirectory} under its own name, or with a counter before the
+     * extension ({@code home-1.xlsx}) when a file of that name was dropped and moved there before.
+     */
+    private static Path moveWithoutReplacing(Path file, Path targetDirectory) throws IOException {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String base = dot > 0 ? name.substring(0, dot) : name;
+        String extension = dot > 0 ? name.substring(dot) : "";
+        for (int counter = 0; ; counter++) {
+            Path target = targetDirectory.resolve(counter == 0 ? name : base + "-" + counter + extension);
+            try {
+                return Files.move(file, target);
+            } catch (FileAlreadyExistsException e) {
+                log.debug("{} already exists, trying the next name", target);
+            }
+        }
+    }
+
+    private Set<Path> listFiles() throws IOException {
+        Set<Path> files = new LinkedHashSet<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+            entries.forEach(files::add);
+        }
+        return files;
+    }
+
+    /**
+     * Skips directories, files of other formats and the hidden or lock files editors and copy tools
+     * leave behind.
+     */
+    private static boolean isSpreadsheet(Path file) {
+        String name = file.getFileName().toString();
+        return !name.startsWith(".") && !name.startsWith("~$") && ImportFormat.forName(name) != null
+                && Files.isRegularFile(file);
+    }
+}
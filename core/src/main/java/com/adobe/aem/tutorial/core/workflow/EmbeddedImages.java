@@ -0,0 +1,349 @@
+package com.adobe.aem.tutorial.core.workflow;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.openxml4j.opc.PackageRelationship;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.usermodel.XSSFRelation;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.ResourceResolverFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Uploads the pictures pasted into the first sheet of an XLSX workbook to DAM, so they can be imported
+ * like image references typed into the sheet. The drawing parts of the sheet are read for each
+ * picture's anchor cell and media part; the media binaries are then streamed from the workbook's zip
+ * straight into asset creation, never held on the heap. Uploads run on a bounded pool, one service-user
+ * {@link ResourceResolver} per worker, and a picture used at several anchors is uploaded once.
+ * <p>
+ * The resulting {@link Anchors} put each picture's DAM path into the row it is anchored on: into the
+ * anchor column if it is an image property ({@code image2}, {@code logoImage}, {@code fileReference}),
+ * otherwise into the {@code image} column.
+ */
+final class EmbeddedImages {
+
+    static final String IMAGE_COLUMN = "image";
+    static final String FILE_REFERENCE_COLUMN = "fileReference";
+
+    private static final Logger log = LoggerFactory.getLogger(EmbeddedImages.class);
+
+    private static final String RELATIONSHIPS_NS =
+            "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+
+    /**
+     * Creates one DAM asset from a streamed binary.
+     */
+    @FunctionalInterface
+    interface AssetWriter {
+        void write(ResourceResolver resolver, String damPath, InputStream binary, String mimeType) throws Exception;
+    }
+
+    private final ResourceResolverFactory resolverFactory;
+    private final AssetWriter writer;
+    private final int concurrency;
+    private final ImportMetrics metrics;
+
+    EmbeddedImages(ResourceResolverFactory resolverFactory, AssetWriter writer, int concurrency,
+                   ImportMetrics metrics) {
+        this.resolverFactory = resolverFactory;
+        this.writer = writer;
+        this.concurrency = Math.max(1, concurrency);
+        this.metrics = metrics;
+    }
+
+    /**
+     * Uploads the pictures of the workbook as assets of {@code damFolder}, named after their media parts.
+     *
+     * @return the DAM paths of the uploaded pictures by anchor cell
+     */
+    Anchors upload(InputStream workbook, String damFolder) throws Exception {
+        // The drawing relationships and media need random access to the zip, as in StreamingExcelReader.
+        Path tempFile = Files.createTempFile("excel-import-images-", ".xlsx");
+        try {
+            Files.copy(workbook, tempFile, StandardCopyOption.REPLACE_EXISTING);
+            List<Picture> pictures;
+            try (OPCPackage pkg = OPCPackage.open(tempFile.toFile(), PackageAccess.READ)) {
+                pictures = find(pkg);
+            }
+            if (pictures.isEmpty()) {
+                return Anchors.NONE;
+            }
+            try (ZipFile zip = new ZipFile(tempFile.toFile())) {
+                return upload(zip, pictures, damFolder);
+            }
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    private Anchors upload(ZipFile zip, List<Picture> pictures, String damFolder) throws InterruptedException {
+        Map<String, String> damPaths = new LinkedHashMap<>();
+        for (Picture picture : pictures) {
+            damPaths.putIfAbsent(picture.entryName,
+                    damFolder + "/" + picture.entryName.substring(picture.entryName.lastIndexOf('/') + 1));
+        }
+        Map<String, String> contentTypes = new HashMap<>();
+        pictures.forEach(picture -> contentTypes.put(picture.entryName, picture.contentType));
+
+        Queue<String> pending = new ConcurrentLinkedQueue<>(damPaths.keySet());
+        List<String> failed = Collections.synchronizedList(new ArrayList<>());
+        int workers = Math.min(concurrency, damPaths.size());
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(workers,
+                runnable -> new Thread(runnable, "excel-import-images-" + threadCount.incrementAndGet()));
+        try {
+            List<Future<?>> futures = new ArrayList<>(workers);
+            for (int i = 0; i < workers; i++) {
+                futures.add(executor.submit(() -> uploadPending(zip, pending, damPaths, contentTypes, failed)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Image upload failed unexpectedly", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        metrics.embeddedImages(damPaths.size() - failed.size(), failed.size());
+
+        Anchors anchors = new Anchors();
+        for (Picture picture : pictures) {
+            if (!failed.contains(picture.entryName)) {
+                anchors.put(picture.row, picture.column, damPaths.get(picture.entryName));
+            }
+        }
+        log.info("Uploaded {} of {} embedded image(s) to {}", damPaths.size() - failed.size(), damPaths.size(),
+                damFolder);
+        return anchors;
+    }
+
+    /**
+     * Uploads pictures from the shared queue until it is empty, with one resolver for the whole worker.
+     */
+    private void uploadPending(ZipFile zip, Queue<String> pending, Map<String, String> damPaths,
+                               Map<String, String> contentTypes, List<String> failed) {
+        try (ResourceResolver resolver = resolverFactory.getServiceResourceResolver(
+                Collections.singletonMap(ResourceResolverFactory.SUBSERVICE, BulkExcelImport.SUBSERVICE))) {
+            for (String entryName = pending.poll(); entryName != null; entryName = pending.poll()) {
+                ZipEntry entry = zip.getEntry(entryName);
+                try (InputStream binary = zip.getInputStream(entry)) {
+                    writer.write(resolver, damPaths.get(entryName), binary, contentTypes.get(entryName));
+                } catch (Exception e) {
+                    log.error("Upload of embedded image {} to {} failed", entryName, damPaths.get(entryName), e);
+                    failed.add(entryName);
+                }
+            }
+        } catch (Exception e) {
+            log.error("Could not open a resolver to upload embedded images", e);
+            for (String entryName = pending.poll(); entryName != null; entryName = pending.poll()) {
+                failed.add(entryName);
+            }
+        }
+    }
+
+    /**
+     * @return the pictures anchored to a cell of the first sheet, in drawing order
+     */
+    static List<Picture> find(OPCPackage pkg) throws Exception {
+        XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) new XSSFReader(pkg).getSheetsData();
+        if (!sheets.hasNext()) {
+            return Collections.emptyList();
+        }
+        sheets.next().close();
+        PackagePart sheetPart = sheets.getSheetPart();
+        List<Picture> pictures = new ArrayList<>();
+        for (PackageRelationship drawingRel
+                : sheetPart.getRelationshipsByType(XSSFRelation.DRAWINGS.getRelation())) {
+            PackagePart drawing = sheetPart.getRelatedPart(drawingRel);
+            XMLReader xmlReader = XMLHelper.newXMLReader();
+            DrawingHandler handler = new DrawingHandler();
+            xmlReader.setContentHandler(handler);
+            try (InputStream in = drawing.getInputStream()) {
+                xmlReader.parse(new InputSource(in));
+            }
+            for (int i = 0; i < handler.anchors.size(); i++) {
+                PackagePart media = drawing.getRelatedPart(drawing.getRelationship(handler.embeds.get(i)));
+                int[] anchor = handler.anchors.get(i);
+                pictures.add(new Picture(anchor[0], anchor[1], media.getPartName().getName().substring(1),
+                        media.getContentType()));
+            }
+        }
+        return pictures;
+    }
+
+    /**
+     * A picture anchored to a cell, with zero-based sheet row and column.
+     */
+    static final class Picture {
+
+        final int row;
+        final int column;
+        final String entryName;
+        final String contentType;
+
+        Picture(int row, int column, String entryName, String contentType) {
+            this.row = row;
+            this.column = column;
+            this.entryName = entryName;
+            this.contentType = contentType;
+        }
+    }
+
+    /**
+     * Collects the {@code from} cell and the embedded media relationship of every cell-anchored picture.
+     */
+    private static final class DrawingHandler extends DefaultHandler {
+
+        private final List<int[]> anchors = new ArrayList<>();
+        private final List<String> embeds = new ArrayList<>();
+        private final StringBuilder text = new StringBuilder();
+        private boolean inAnchor;
+        private boolean inFrom;
+        private boolean capturing;
+        private int row;
+        private int column;
+        private String embed;
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            switch (localName) {
+                case "twoCellAnchor":
+                case "oneCellAnchor":
+                    inAnchor = true;
+                    embed = null;
+                    break;
+                case "from":
+                    inFrom = inAnchor;
+                    break;
+                case "row":
+                case "col":
+                    capturing = inFrom;
+                    text.setLength(0);
+                    break;
+                case "blip":
+                    if (inAnchor) {
+                        embed = attributes.getValue(RELATIONSHIPS_NS, "embed");
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (capturing) {
+                text.append(ch, start, length);
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            switch (localName) {
+                case "row":
+                    if (capturing) {
+                        row = Integer.parseInt(text.toString().trim());
+                    }
+                    capturing = false;
+                    break;
+                case "col":
+                    if (capturing) {
+                        column = Integer.parseInt(text.toString().trim());
+                    }
+                    capturing = false;
+                    break;
+                case "from":
+                    inFrom = false;
+                    break;
+                case "twoCellAnchor":
+                case "oneCellAnchor":
+                    if (embed != null) {
+                        anchors.add(new int[] { row, column });
+                        embeds.add(embed);
+                    }
+                    inAnchor = false;
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    /**
+     * DAM paths of uploaded pictures by anchor cell, applied to rows as they are parsed.
+     */
+    static final class Anchors {
+
+        static final Anchors NONE = new Anchors();
+
+        private final Map<Integer, Map<Integer, String>> byRow = new HashMap<>();
+        private int size;
+
+        private void put(int row, int column, String damPath) {
+            if (byRow.computeIfAbsent(row, r -> new HashMap<>()).putIfAbsent(column, damPath) == null) {
+                size++;
+            }
+        }
+
+        int size() {
+            return size;
+        }
+
+        /**
+         * Sets the DAM paths of the pictures anchored on a sheet row into the parsed row.
+         *
+         * @param sheetRow zero-based row number in the sheet, counting the header row
+         */
+        void apply(int sheetRow, ArraySheetRow row) {
+            Map<Integer, String> pictures = byRow.get(sheetRow);
+            if (pictures == null) {
+                return;
+            }
+            SheetHeader header = row.getHeader();
+            for (Map.Entry<Integer, String> picture : pictures.entrySet()) {
+                int column = picture.getKey();
+                if (column >= header.size() || !isImageColumn(header.name(column))) {
+                    column = header.indexOf(IMAGE_COLUMN);
+                }
+                if (column < 0) {
+                    log.warn("No column for the image anchored on sheet row {}: {}", sheetRow + 1,
+                            picture.getValue());
+                } else {
+                    row.set(column, picture.getValue());
+                }
+            }
+        }
+
+        private static boolean isImageColumn(String name) {
+            return name.toLowerCase(Locale.ROOT).contains(IMAGE_COLUMN) || FILE_REFERENCE_COLUMN.equals(name);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.adobe.aem.tutorial.core.workflow;
+
+/**
+ * Callback for readers that hand spreadsheet rows over one at a time instead of
+ * returning the whole sheet. The row view is only valid for the duration of the call.
+ */
+@FunctionalInterface
+interface ExcelRowHandler {
+
+    void handleRow(SheetRow row) throws Exception;
+}
@@ -0,0 +1,115 @@
+package com.adobe.aem.tutorial.core.workflow;
+
+import com.adobe.granite.workflow.WorkflowException;
+import com.adobe.granite.workflow.WorkflowSession;
+import com.adobe.granite.workflow.exec.WorkItem;
+import com.adobe.granite.workflow.exec.WorkflowProcess;
+import com.adobe.granite.workflow.metadata.MetaDataMap;
+import com.day.cq.dam.api.Asset;
+import com.day.cq.dam.api.AssetManager;
+import com.day.cq.wcm.api.Page;
+import com.day.cq.wcm.api.PageManager;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+
+/**
+ * Exports the payload page into a DAM asset in the Excel import layout, the reverse of
+ * {@link CreatePageFromExcelWorkflowProcess}. With child pages included, every page gets an asset of its
+ * own, named by {@link PageExcelExporter#fileName(Page, Page)}, as the import builds one page per file.
+ * Each workbook is streamed to a temporary file and from there into the asset, so it is never held in
+ * memory.
+ */
+@Component(service = WorkflowProcess.class, property = { "process.label = Export AEM Page to Excel" })
+@Designate(ocd = ExportPageToExcelWorkflowProcess.Config.class)
+public class ExportPageToExcelWorkflowProcess implements WorkflowProcess {
+
+    @ObjectClassDefinition(name = "FutureConcepts - Export Page to Excel",
+                           description = "Exports pages into Excel workbooks that the page import can read back")
+    public static @interface Config {
+
+        @AttributeDefinition(name = "Export folder",
+                             description = "DAM folder the workbooks are written to. Keep it outside the folders "
+                                     + "the import launcher watches")
+        String exportFolder() default "/content/dam/FutureConcepts/exports";
+
+        @AttributeDefinition(name = "Include child pages",
+                             description = "Also export every descendant page of the payload, each into a "
+                                     + "workbook of its own")
+        boolean deep() default false;
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(ExportPageToExcelWorkflowProcess.class);
+
+    private String exportFolder;
+    private boolean deep;
+
+    @Activate
+    protected void activate(final Config config) {
+        exportFolder = config.exportFolder().replaceFirst("/+$", "");
+        deep = config.deep();
+    }
+
+    @Override
+    public void execute(WorkItem item, WorkflowSession workflowSession, MetaDataMap metaDataMap)
+            throws WorkflowException {
+        String payloadPath = item.getWorkflowData().getPayload().toString();
+        ResourceResolver resolver = workflowSession.adaptTo(ResourceResolver.class);
+        PageManager pageManager = resolver != null ? resolver.adaptTo(PageManager.class) : null;
+        AssetManager assetManager = resolver != null ? resolver.adaptTo(AssetManager.class) : null;
+        Page page = pageManager != null ? pageManager.getContainingPage(payloadPath) : null;
+        if (page == null || assetManager == null) {
+            log.error("No page to export at payload: {}", payloadPath);
+            return;
+        }
+
+        try {
+            int pages = 0;
+            for (Iterator<Page> exported = PageExcelExporter.pages(page, deep); exported.hasNext(); ) {
+                Page next = exported.next();
+                if (next == page || PageExcelExporter.isExportable(next)) {
+                    exportPage(assetManager, next, exportFolder + "/" + PageExcelExporter.fileName(page, next));
+                    pages++;
+                }
+            }
+            log.info("Exported {} page(s) under {} to {}", pages, page.getPath(), exportFolder);
+        } catch (WorkflowException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("Excel export failed for page: {}", page.getPath(), e);
+            throw new WorkflowException(e);
+        }
+    }
+
+    private void exportPage(AssetManager assetManager, Page page, String assetPath) throws Exception {
+        Path workbook = Files.createTempFile("excel-export-", ".xlsx");
+        try {
+            try (OutputStream out = Files.newOutputStream(workbook)) {
+                new PageExcelExporter().export(page, out);
+            }
+            try (InputStream in = Files.newInputStream(workbook)) {
+                Asset asset = assetManager.createAsset(assetPath, in, PageExcelExporter.CONTENT_TYPE, true);
+                if (asset == null) {
+                    throw new WorkflowException("Could not create export asset: " + assetPath);
+                }
+            }
+        } finally {
+            try {
+                Files.deleteIfExists(workbook);
+            } catch (Exception e) {
+                log.warn("Could not delete temporary export file: {}", workbook, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.adobe.aem.tutorial.core.workflow;
+
+import com.day.cq.wcm.api.Page;
+import org.apache.sling.api.resource.PersistenceException;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.ValueMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.jcr.Node;
+import javax.jcr.NodeIterator;
+import javax.jcr.RepositoryException;
+
+/**
+ * Splits a page import into several repository commits. It records the last committed group in a
+ * checkpoint node under the page's {@code jcr:content}. If a workflow fails or is restarted for the
+ * same asset version, the import resumes after that group instead of rebuilding the whole page.
+ * <p>
+ * With a batch size of {@code 0} no checkpoint is written and {@link #complete()} performs the single
+ * commit the importer has always done.
+ */
+final class ImportCheckpoint {
+
+    static final String NODE_NAME = "excelImportCheckpoint";
+    static final String PN_SOURCE = "source";
+    static final String PN_SOURCE_LAST_MODIFIED = "sourceLastModified";
+    static final String PN_LAST_COMMITTED_GROUP = "lastCommittedGroup";
+    static final String PN_LAST_COMMITTED_ROW = "lastCommittedRow";
+
+    private static final Logger log = LoggerFactory.getLogger(ImportCheckpoint.class);
+
+    private final ResourceResolver resolver;
+    private final Node contentNode;
+    private final int batchSize;
+    private final ImportProgress progress;
+    private final ImportMetrics metrics;
+    private long resumeAfterGroup = -1;
+    private long resumeAfterRow = -1;
+    private long lastGroup = -1;
+    private long lastRow = -1;
+    private int pending;
+    private int commits;
+    private long commitNanos;
+
+    private ImportCheckpoint(ResourceResolver resolver, Node contentNode, int batchSize, ImportProgress progress,
+                             ImportMetrics metrics) {
+        this.resolver = resolver;
+        this.contentNode = contentNode;
+        this.batchSize = batchSize;
+        this.progress = progress;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Returns {@code true} if the page holds a checkpoint left behind by an interrupted import of the
+     * same asset version.
+     */
+    static boolean isResumable(Page page, String source, long sourceLastModified) {
+        Resource checkpoint = page.getContentResource() != null ? page.getContentResource().getChild(NODE_NAME) : null;
+        if (checkpoint == null) {
+            return false;
+        }
+        ValueMap properties = checkpoint.getValueMap();
+        return source.equals(properties.get(PN_SOURCE, String.class))
+                && sourceLastModified == properties.get(PN_SOURCE_LAST_MODIFIED, -1L);
+    }
+
+    /**
+     * Returns {@code true} if the page holds a checkpoint left behind by an interrupted import that cannot
+     * be resumed, because the asset or its version has changed since.
+     */
+    static boolean isStale(Page page, String source, long sourceLastModified) {
+        Resource content = page.getContentResource();
+        return content != null && content.getChild(NODE_NAME) != null
+                && !isResumable(page, source, sourceLastModified);
+    }
+
+    /**
+     * Drops a stale checkpoint and the components its import had written, so the page is imported again
+     * from the first group.
+     *
+     * @param writtenContainer the container the interrupted import wrote into, or {@code null} if it wrote
+     *                         into a staging copy that is replaced anyway
+     */
+    static void discard(Node contentNode, Node writtenContainer) throws RepositoryException {
+        if (contentNode.hasNode(NODE_NAME)) {
+            contentNode.getNode(NODE_NAME).remove();
+        }
+        if (writtenContainer != null) {
+            NodeIterator components = writtenContainer.getNodes();
+            while (components.hasNext()) {
+                components.nextNode().remove();
+            }
+        }
+    }
+
+    static ImportCheckpoint start(ResourceResolver resolver, Page page, String source, long sourceLastModified,
+                                  int batchSize, ImportProgress progress, ImportMetrics metrics)
+            throws RepositoryException, PersistenceException {
+        Resource contentResource = resolver.getResource(page.getPath() + "/jcr:content");
+        if (contentResource == null) throw new IllegalStateException("jcr:content missing.");
+
+        ImportCheckpoint checkpoint = new ImportCheckpoint(resolver, contentResource.adaptTo(Node.class), batchSize,
+                progress, metrics);
+        if (isResumable(page, source, sourceLastModified)) {
+            Node node = checkpoint.contentNode.getNode(NODE_NAME);
+            checkpoint.resumeAfterGroup = node.getProperty(PN_LAST_COMMITTED_GROUP).getLong();
+            checkpoint.resumeAfterRow = node.getProperty(PN_LAST_COMMITTED_ROW).getLong();
+            checkpoint.lastGroup = checkpoint.resumeAfterGroup;
+            checkpoint.lastRow = checkpoint.resumeAfterRow;
+            log.info("Resuming import of {} into {} after group {}", source, page.getPath(), checkpoint.resumeAfterGroup);
+        } else if (batchSize > 0) {
+            // Persist an empty checkpoint with the page so a failure before the first chunk can still resume.
+            Node node = checkpoint.contentNode.hasNode(NODE_NAME)
+                    ? checkpoint.contentNode.getNode(NODE_NAME)
+                    : checkpoint.contentNode.addNode(NODE_NAME, "nt:unstructured");
+            node.setProperty(PN_SOURCE, source);
+            node.setProperty(PN_SOURCE_LAST_MODIFIED, sourceLastModified);
+            checkpoint.write();
+        }
+        return checkpoint;
+    }
+
+    /**
+     * @return whether this import continues an interrupted one
+     */
+    boolean isResuming() {
+        return resumeAfterGroup >= 0;
+    }
+
+    boolean isGroupCommitted(long groupIndex) {
+        return groupIndex <= resumeAfterGroup;
+    }
+
+    boolean isRowCommitted(long rowIndex) {
+        return rowIndex <= resumeAfterRow;
+    }
+
+    /**
+     * Marks a group as written and commits once {@code batchSize} groups are pending.
+     */
+    void groupWritten(long groupIndex, long rowIndex) throws RepositoryException, PersistenceException {
+        progress.groupWritten();
+        if (batchSize <= 0) {
+            return;
+        }
+        lastGroup = groupIndex;
+        lastRow = rowIndex;
+        if (++pending >= batchSize) {
+            write();
+            log.debug("Committed import chunk up to group {}", groupIndex);
+        }
+    }
+
+    /**
+     * Commits the remaining changes and removes the checkpoint node.
+     */
+    void complete() throws RepositoryException, PersistenceException {
+        if (contentNode.hasNode(NODE_NAME)) {
+            contentNode.getNode(NODE_NAME).remove();
+        }
+        commit();
+    }
+
+    int getCommits() {
+        return commits;
+    }
+
+    /**
+     * Total time spent in {@code resolver.commit()} so far, so callers can take it out of their phase timings.
+     */
+    long getCommitNanos() {
+        return commitNanos;
+    }
+
+    private void write() throws RepositoryException, PersistenceException {
+        Node node = contentNode.getNode(NODE_NAME);
+        node.setProperty(PN_LAST_COMMITTED_GROUP, lastGroup);
+        node.setProperty(PN_LAST_COMMITTED_ROW, lastRow);
+        commit();
+        pending = 0;
+    }
+
+    private void commit() throws PersistenceException {
+        long start = System.nanoTime();
+        resolver.commit();
+        long nanos = System.nanoTime() - start;
+        commitNanos += nanos;
+        commits++;
+        metrics.commit(nanos);
+        progress.committed();
+    }
+}
@@ -0,0 +1,52 @@
+package com.adobe.aem.tutorial.core.workflow;
+
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * Asset formats the page import accepts, recognised by file extension.
+ */
+enum ImportFormat {
+
+    XLSX(".xlsx", StreamingExcelReader::new),
+    CSV(".csv", CsvReader::new),
+    NDJSON(".ndjson", NdjsonReader::new);
+
+    private final String extension;
+    private final Supplier<RowReader> readerFactory;
+
+    ImportFormat(String extension, Supplier<RowReader> readerFactory) {
+        this.extension = extension;
+        this.readerFactory = readerFactory;
+    }
+
+    RowReader newReader() {
+        return readerFactory.get();
+    }
+
+    /**
+     * @return the format of a file name, or {@code null} if it is not an import format
+     */
+    static ImportFormat forName(String fileName) {
+        String name = fileName.toLowerCase(Locale.ROOT);
+        for (ImportFormat format : values()) {
+            if (name.endsWith(format.extension)) {
+                return format;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Cuts a workflow payload such as {@code /content/dam/a.csv/jcr:content/renditions/original} back to
+     * the asset path. Payloads without a known extension are returned unchanged.
+     */
+    static String assetPath(String payload) {
+        for (int slash = payload.indexOf('/', 1); ; slash = payload.indexOf('/', slash + 1)) {
+            String prefix = slash == -1 ? payload : payload.substring(0, slash);
+            if (forName(prefix) != null || slash == -1) {
+                return prefix;
+            }
+        }
+    }
+}
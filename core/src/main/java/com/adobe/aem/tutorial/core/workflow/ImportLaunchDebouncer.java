@@ -0,0 +1,83 @@
+package com.adobe.aem.tutorial.core.workflow;
+
+import com.day.cq.dam.api.Asset;
+import com.day.cq.dam.api.DamConstants;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Drops repeated workflow launches for the same spreadsheet version. The DAM launcher fires for the
+ * asset and again for its rendition and metadata sub-paths, so one upload can start several imports of
+ * the same binary. Launches are keyed by asset path + binary checksum: the first launch of a key runs, and
+ * later launches of that key within the debounce window are skipped. A new upload changes the checksum
+ * and is imported right away.
+ * <p>
+ * Launches are remembered in memory on this instance only, and forgotten once the window has passed or
+ * the import they started failed, so a failed import can be re-run right away.
+ */
+final class ImportLaunchDebouncer {
+
+    private final long windowMillis;
+    private final LongSupplier clock;
+    private final Map<String, Long> launches = new HashMap<>();
+
+    ImportLaunchDebouncer(long windowMillis) {
+        this(windowMillis, System::currentTimeMillis);
+    }
+
+    ImportLaunchDebouncer(long windowMillis, LongSupplier clock) {
+        this.windowMillis = windowMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * @return {@code true} if the launch should run, {@code false} if the same key was launched within
+     * the debounce window
+     */
+    synchronized boolean tryLaunch(String assetPath, String checksum) {
+        long now = clock.getAsLong();
+        launches.values().removeIf(launched -> now - launched >= windowMillis);
+        return launches.putIfAbsent(assetPath + "@" + checksum, now) == null;
+    }
+
+    /**
+     * Forgets the launches of an asset whose import failed.
+     */
+    synchronized void forget(String assetPath) {
+        launches.keySet().removeIf(key -> key.startsWith(assetPath + "@"));
+    }
+
+    /**
+     * Checksum of the asset's original binary: the {@code dam:sha1} DAM stores in the asset metadata, or
+     * the same SHA-1 computed from the binary while asset processing has not set it yet.
+     */
+    static String checksum(Asset asset) throws IOException {
+        String sha1 = asset.getMetadataValue(DamConstants.PN_SHA1);
+        if (sha1 != null && !sha1.isEmpty()) {
+            return sha1;
+        }
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 not available", e);
+        }
+        byte[] buffer = new byte[8192];
+        try (InputStream in = asset.getOriginal().getStream()) {
+            for (int read = in.read(buffer); read >= 0; read = in.read(buffer)) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+}
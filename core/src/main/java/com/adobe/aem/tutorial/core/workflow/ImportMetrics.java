@@ -0,0 +1,150 @@
+package com.adobe.aem.tutorial.core.workflow;
+
+import org.apache.sling.commons.metrics.Counter;
+import org.apache.sling.commons.metrics.Histogram;
+import org.apache.sling.commons.metrics.MetricsService;
+import org.apache.sling.commons.metrics.Timer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-phase timers and per-import size histograms of the Excel page import, registered with the Sling
+ * {@link MetricsService} under {@code futureconcepts.excelimport.*} and therefore visible over JMX.
+ * <p>
+ * Phases: {@code parse} is the POI read of the whole sheet, {@code pageCreate} covers finding or creating
+ * the page, {@code write} is node creation without commit time (in streaming mode it also includes
+ * reading, which interleaves with writing), and {@code commit} is the latency of every single
+ * {@code resolver.commit()}. The {@code damReferences.*} counters track the DAM reference cache, and the
+ * {@code embeddedImages.*} counters the pictures uploaded from workbooks.
+ */
+final class ImportMetrics {
+
+    static final ImportMetrics NOOP = new ImportMetrics(MetricsService.NOOP);
+
+    private static final String PREFIX = "futureconcepts.excelimport.";
+
+    private final Timer total;
+    private final Timer parse;
+    private final Timer pageCreate;
+    private final Timer write;
+    private final Timer commit;
+    private final Histogram bytesRead;
+    private final Histogram rows;
+    private final Histogram groups;
+    private final Histogram nodes;
+    private final Histogram properties;
+    private final Counter failures;
+    private final Counter damCacheHits;
+    private final Counter damLookups;
+    private final Counter damBroken;
+    private final Counter launchesSkipped;
+    private final Counter pagesActivated;
+    private final Timer pageLockWait;
+    private final Counter mergeConflicts;
+    private final Counter activationFailures;
+    private final Counter imagesUploaded;
+    private final Counter imageUploadFailures;
+
+    ImportMetrics(MetricsService metricsService) {
+        total = metricsService.timer(PREFIX + "total");
+        parse = metricsService.timer(PREFIX + "parse");
+        pageCreate = metricsService.timer(PREFIX + "pageCreate");
+        write = metricsService.timer(PREFIX + "write");
+        commit = metricsService.timer(PREFIX + "commit");
+        bytesRead = metricsService.histogram(PREFIX + "bytesRead");
+        rows = metricsService.histogram(PREFIX + "rows");
+        groups = metricsService.histogram(PREFIX + "groups");
+        nodes = metricsService.histogram(PREFIX + "nodes");
+        properties = metricsService.histogram(PREFIX + "properties");
+        failures = metricsService.counter(PREFIX + "failures");
+        damCacheHits = metricsService.counter(PREFIX + "damReferences.cacheHits");
+        damLookups = metricsService.counter(PREFIX + "damReferences.lookups");
+        damBroken = metricsService.counter(PREFIX + "damReferences.broken");
+        launchesSkipped = metricsService.counter(PREFIX + "launchesSkipped");
+        pagesActivated = metricsService.counter(PREFIX + "pagesActivated");
+        pageLockWait = metricsService.timer(PREFIX + "pageLockWait");
+        mergeConflicts = metricsService.counter(PREFIX + "mergeConflicts");
+        activationFailures = metricsService.counter(PREFIX + "activationFailures");
+        imagesUploaded = metricsService.counter(PREFIX + "embeddedImages.uploaded");
+        imageUploadFailures = metricsService.counter(PREFIX + "embeddedImages.failed");
+    }
+
+    void parse(long nanos) {
+        parse.update(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    void pageCreate(long nanos) {
+        pageCreate.update(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    void write(long nanos) {
+        write.update(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    void commit(long nanos) {
+        commit.update(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records the size and duration of one successful import.
+     */
+    void imported(long bytes, ImportProgress progress, long nanos) {
+        total.update(nanos, TimeUnit.NANOSECONDS);
+        bytesRead.update(bytes);
+        rows.update(progress.getRowsParsed());
+        groups.update(progress.getGroupsWritten());
+        nodes.update(progress.getNodesWritten());
+        properties.update(progress.getPropertiesWritten());
+    }
+
+    void failed() {
+        failures.increment();
+    }
+
+    /**
+     * Counts a workflow launch dropped as a duplicate of a recent launch for the same asset version.
+     */
+    void launchSkipped() {
+        launchesSkipped.increment();
+    }
+
+    /**
+     * Records an import that had to wait for another import holding its page lock. The timer count is the
+     * number of contended acquisitions.
+     */
+    void pageLockContended(long waitNanos) {
+        pageLockWait.update(waitNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Counts an import that failed with an Oak merge conflict.
+     */
+    void mergeConflict() {
+        mergeConflicts.increment();
+    }
+
+    /**
+     * Records one post-import activation stage.
+     */
+    void activated(int pages, int failedPages) {
+        pagesActivated.increment(pages);
+        activationFailures.increment(failedPages);
+    }
+
+    /**
+     * Records the embedded images uploaded to DAM for one workbook.
+     */
+    void embeddedImages(int uploaded, int failedUploads) {
+        imagesUploaded.increment(uploaded);
+        imageUploadFailures.increment(failedUploads);
+    }
+
+    /**
+     * Records one DAM reference resolution pass: cache hits, repository lookups and broken references.
+     */
+    void damReferences(int cacheHits, int lookups, int broken) {
+        damCacheHits.increment(cacheHits);
+        damLookups.increment(lookups);
+        damBroken.increment(broken);
+    }
+}
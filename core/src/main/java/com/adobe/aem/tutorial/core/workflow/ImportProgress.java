@@ -0,0 +1,147 @@
+package com.adobe.aem.tutorial.core.workflow;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Live counters of one spreadsheet import, updated by the importing thread and read by the status endpoint.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public final class ImportProgress {
+
+    public enum State { QUEUED, RUNNING, SUCCEEDED, FAILED }
+
+    private final String source;
+    private final String repositoryPath;
+    private final AtomicLong rowsParsed = new AtomicLong();
+    private final AtomicInteger groupsWritten = new AtomicInteger();
+    private final AtomicInteger commits = new AtomicInteger();
+    private final AtomicLong nodesWritten = new AtomicLong();
+    private final AtomicLong propertiesWritten = new AtomicLong();
+    private volatile State state = State.QUEUED;
+    private volatile String jobId;
+    private volatile String pagePath;
+    private volatile String error;
+    private volatile long startedNanos;
+    private volatile long finishedNanos;
+
+    ImportProgress(String source) {
+        this(source, source);
+    }
+
+    ImportProgress(String source, String repositoryPath) {
+        this.source = source;
+        this.repositoryPath = repositoryPath;
+    }
+
+    void started() {
+        startedNanos = System.nanoTime();
+        state = State.RUNNING;
+    }
+
+    void rowParsed() {
+        rowsParsed.incrementAndGet();
+    }
+
+    void rowsParsed(long rows) {
+        rowsParsed.addAndGet(rows);
+    }
+
+    void groupWritten() {
+        groupsWritten.incrementAndGet();
+    }
+
+    void committed() {
+        commits.incrementAndGet();
+    }
+
+    void nodeWritten() {
+        nodesWritten.incrementAndGet();
+    }
+
+    void propertiesWritten(int count) {
+        propertiesWritten.addAndGet(count);
+    }
+
+    void succeeded(String pagePath) {
+        this.pagePath = pagePath;
+        finish(State.SUCCEEDED);
+    }
+
+    void failed(String error) {
+        this.error = error;
+        finish(State.FAILED);
+    }
+
+    void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+
+    private void finish(State finalState) {
+        finishedNanos = System.nanoTime();
+        state = finalState;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * @return the repository path that decides who may see the import: the source asset, or the parent of
+     *         the created page when the source is not in the repository or the import writes a language copy
+     */
+    public String getRepositoryPath() {
+        return repositoryPath;
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public long getRowsParsed() {
+        return rowsParsed.get();
+    }
+
+    public int getGroupsWritten() {
+        return groupsWritten.get();
+    }
+
+    public int getCommits() {
+        return commits.get();
+    }
+
+    public long getNodesWritten() {
+        return nodesWritten.get();
+    }
+
+    public long getPropertiesWritten() {
+        return propertiesWritten.get();
+    }
+
+    public String getPagePath() {
+        return pagePath;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public long getElapsedMillis() {
+        if (startedNanos == 0) {
+            return 0;
+        }
+        long end = finishedNanos != 0 ? finishedNanos : System.nanoTime();
+        return TimeUnit.NANOSECONDS.toMillis(end - startedNanos);
+    }
+
+    boolean isFinished() {
+        return state == State.SUCCEEDED || state == State.FAILED;
+    }
+}
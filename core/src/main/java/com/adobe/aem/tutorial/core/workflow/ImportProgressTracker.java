@@ -0,0 +1,78 @@
+package com.adobe.aem.tutorial.core.workflow;
+
+import org.osgi.service.component.annotations.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the progress of running and recently finished Excel imports in memory, keyed by source asset path.
+ * A new import of the same asset replaces the previous entry, and only the most recent finished
+ * imports are retained.
+ */
+@Component(service = ImportProgressTracker.class)
+public class ImportProgressTracker {
+
+    private static final int MAX_FINISHED = 100;
+
+    private final Map<String, ImportProgress> imports = new LinkedHashMap<>();
+
+    /**
+     * Registers an import that has been handed to the job queue but has not started yet.
+     */
+    public synchronized ImportProgress queued(String source, String jobId) {
+        ImportProgress progress = register(source, source);
+        progress.setJobId(jobId);
+        return progress;
+    }
+
+    /**
+     * Marks an import as running, reusing the queued entry if there is one.
+     */
+    public synchronized ImportProgress start(String source) {
+        return start(source, source);
+    }
+
+    /**
+     * Marks an import as running whose {@code source} key is not itself a repository path, such as a drop
+     * folder file or a language copy, with the repository path that access to it is checked against.
+     */
+    public synchronized ImportProgress start(String source, String repositoryPath) {
+        ImportProgress progress = imports.get(source);
+        if (progress == null || progress.getState() != ImportProgress.State.QUEUED) {
+            progress = register(source, repositoryPath);
+        }
+        progress.started();
+        return progress;
+    }
+
+    public synchronized ImportProgress get(String source) {
+        return imports.get(source);
+    }
+
+    public synchronized List<ImportProgress> getAll() {
+        return new ArrayList<>(imports.values());
+    }
+
+    private ImportProgress register(String source, String repositoryPath) {
+        ImportProgress progress = new ImportProgress(source, repositoryPath);
+        imports.remove(source);
+        imports.put(source, progress);
+        evictFinished();
+        return progress;
+    }
+
+    private void evictFinished() {
+        long finished = imports.values().stream().filter(ImportProgress::isFinished).count();
+        Iterator<ImportProgress> oldestFirst = imports.values().iterator();
+        while (finished > MAX_FINISHED && oldestFirst.hasNext()) {
+            if (oldestFirst.next().isFinished()) {
+                oldestFirst.remove();
+                finished--;
+            }
+        }
+    }
+}
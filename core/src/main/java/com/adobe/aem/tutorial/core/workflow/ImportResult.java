@@ -0,0 +1,113 @@
+package com.adobe.aem.tutorial.core.workflow;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of importing one spreadsheet: the page it produced, how much was written and how long it took.
+ */
+final class ImportResult {
+
+    private final String source;
+    private final String pagePath;
+    private final int rows;
+    private final int groups;
+    private final long durationMillis;
+    private final Exception error;
+    private final String plan;
+    private final List<ImportResult> languageCopies;
+
+    private ImportResult(String source, String pagePath, int rows, int groups, long durationMillis, Exception error,
+                         String plan) {
+        this(source, pagePath, rows, groups, durationMillis, error, plan, Collections.emptyList());
+    }
+
+    private ImportResult(String source, String pagePath, int rows, int groups, long durationMillis, Exception error,
+                         String plan, List<ImportResult> languageCopies) {
+        this.source = source;
+        this.pagePath = pagePath;
+        this.rows = rows;
+        this.groups = groups;
+        this.durationMillis = durationMillis;
+        this.error = error;
+        this.plan = plan;
+        this.languageCopies = languageCopies;
+    }
+
+    static ImportResult success(String source, String pagePath, int rows, int groups, long durationMillis) {
+        return new ImportResult(source, pagePath, rows, groups, durationMillis, null, null);
+    }
+
+    /**
+     * Result of a dry run, which only compiled the write plan described by {@code plan}.
+     */
+    static ImportResult dryRun(String source, String pagePath, int rows, int groups, String plan, long durationMillis) {
+        return new ImportResult(source, pagePath, rows, groups, durationMillis, null, plan);
+    }
+
+    static ImportResult failure(String source, long durationMillis, Exception error) {
+        return new ImportResult(source, null, 0, 0, durationMillis, error, null);
+    }
+
+    String getSource() {
+        return source;
+    }
+
+    String getPagePath() {
+        return pagePath;
+    }
+
+    int getRows() {
+        return rows;
+    }
+
+    int getGroups() {
+        return groups;
+    }
+
+    long getDurationMillis() {
+        return durationMillis;
+    }
+
+    Exception getError() {
+        return error;
+    }
+
+    String getPlan() {
+        return plan;
+    }
+
+    List<ImportResult> getLanguageCopies() {
+        return languageCopies;
+    }
+
+    /**
+     * @return this result together with the results of the language copies written from the same plan
+     */
+    ImportResult withLanguageCopies(List<ImportResult> copies) {
+        return new ImportResult(source, pagePath, rows, groups, durationMillis, error, plan,
+                Collections.unmodifiableList(copies));
+    }
+
+    boolean isSuccess() {
+        return error == null;
+    }
+
+    @Override
+    public String toString() {
+        if (plan != null) {
+            return String.format("%s -> %s (dry run): %d row(s), %s in %d ms", source, pagePath, rows, plan,
+                    durationMillis);
+        }
+        if (!isSuccess()) {
+            return String.format("%s FAILED after %d ms: %s", source, durationMillis, error);
+        }
+        String copies = "";
+        if (!languageCopies.isEmpty()) {
+            long failed = languageCopies.stream().filter(copy -> !copy.isSuccess()).count();
+            copies = String.format(", %d language cop(ies), %d failed", languageCopies.size(), failed);
+        }
+        return String.format("%s -> %s: %d row(s), %d group(s) in %d ms%s", source, pagePath, rows, groups,
+                durationMillis, copies);
+    }
+}
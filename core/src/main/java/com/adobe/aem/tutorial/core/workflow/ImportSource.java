@@ -0,0 +1,108 @@
+package com.adobe.aem.tutorial.core.workflow;
+
+import com.day.cq.dam.api.Asset;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * A spreadsheet to import: a DAM asset, or a file of the drop folder. The binary is opened as a stream
+ * each time it is read, so neither source is loaded into memory.
+ */
+interface ImportSource {
+
+    /**
+     * @return the file name, which sets the format and the page name
+     */
+    String getName();
+
+    /**
+     * @return the path the import is tracked and checkpointed under
+     */
+    String getPath();
+
+    /**
+     * @return the repository path of the source, or {@code null} for a file outside the repository
+     */
+    String getRepositoryPath();
+
+    long getLastModified();
+
+    long getSize();
+
+    InputStream openStream() throws IOException;
+
+    static ImportSource of(Asset asset) {
+        return new ImportSource() {
+            @Override
+            public String getName() {
+                return asset.getName();
+            }
+
+            @Override
+            public String getPath() {
+                return asset.getPath();
+            }
+
+            @Override
+            public String getRepositoryPath() {
+                return asset.getPath();
+            }
+
+            @Override
+            public long getLastModified() {
+                return asset.getLastModified();
+            }
+
+            @Override
+            public long getSize() {
+                return asset.getOriginal().getSize();
+            }
+
+            @Override
+            public InputStream openStream() {
+                return asset.getOriginal().getStream();
+            }
+        };
+    }
+
+    static ImportSource of(Path file) throws IOException {
+        String name = file.getFileName().toString();
+        String path = file.toAbsolutePath().toString();
+        long lastModified = Files.getLastModifiedTime(file).toMillis();
+        long size = Files.size(file);
+        return new ImportSource() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public String getPath() {
+                return path;
+            }
+
+            @Override
+            public String getRepositoryPath() {
+                return null;
+            }
+
+            @Override
+            public long getLastModified() {
+                return lastModified;
+            }
+
+            @Override
+            public long getSize() {
+                return size;
+            }
+
+            @Override
+            public InputStream openStream() throws IOException {
+                return Files.newInputStream(file);
+            }
+        };
+    }
+}
@@ -0,0 +1,80 @@
+package com.adobe.aem.tutorial.core.workflow;
+
+import javax.jcr.Node;
+import javax.jcr.NodeIterator;
+import javax.jcr.Property;
+import javax.jcr.PropertyIterator;
+import javax.jcr.RepositoryException;
+
+/**
+ * Builds the imported components in a hidden {@code excelImportStaging} node under the page's
+ * {@code jcr:content}, outside of the rendered {@code root}, and swaps it in for the live container with
+ * a single move. The live page only changes in the final commit. A failed import leaves one staging node
+ * behind, and the next import of the page replaces it or resumes into it.
+ * <p>
+ * The staging container starts with the live container's properties but none of its components, as the
+ * import writes every component of the sheet. Staging never saves the session, so nothing is persisted
+ * before the importer's own commits.
+ */
+final class ImportStaging {
+
+    static final String NODE_NAME = "excelImportStaging";
+
+    private ImportStaging() {
+    }
+
+    /**
+     * Returns the staging container, starting from the live container's properties.
+     *
+     * @param resuming whether an interrupted import's checkpoint is being resumed, in which case its
+     *                 staged components are kept
+     */
+    static Node stage(Node contentNode, Node liveContainer, boolean resuming) throws RepositoryException {
+        if (contentNode.hasNode(NODE_NAME)) {
+            if (resuming) {
+                return contentNode.getNode(NODE_NAME);
+            }
+            contentNode.getNode(NODE_NAME).remove();
+        }
+
+        Node staging = contentNode.addNode(NODE_NAME, liveContainer.getPrimaryNodeType().getName());
+        PropertyIterator properties = liveContainer.getProperties();
+        while (properties.hasNext()) {
+            Property property = properties.nextProperty();
+            if (!property.getDefinition().isProtected()) {
+                if (property.isMultiple()) {
+                    staging.setProperty(property.getName(), property.getValues());
+                } else {
+                    staging.setProperty(property.getName(), property.getValue());
+                }
+            }
+        }
+        return staging;
+    }
+
+    /**
+     * Replaces the live container with the staged one, keeping its position among its siblings.
+     */
+    static void promote(Node contentNode, Node liveContainer) throws RepositoryException {
+        Node parent = liveContainer.getParent();
+        String name = liveContainer.getName();
+        String livePath = liveContainer.getPath();
+        String nextSibling = nextSibling(parent, name);
+
+        liveContainer.remove();
+        contentNode.getSession().move(contentNode.getNode(NODE_NAME).getPath(), livePath);
+        if (nextSibling != null) {
+            parent.orderBefore(name, nextSibling);
+        }
+    }
+
+    private static String nextSibling(Node parent, String name) throws RepositoryException {
+        NodeIterator children = parent.getNodes();
+        while (children.hasNext()) {
+            if (children.nextNode().getName().equals(name)) {
+                return children.hasNext() ? children.nextNode().getName() : null;
+            }
+        }
+        return null;
+    }
+}
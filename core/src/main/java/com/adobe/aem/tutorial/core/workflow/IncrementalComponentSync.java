@@ -0,0 +1,160 @@
+package com.adobe.aem.tutorial.core.workflow;
+
+import org.apache.sling.api.resource.PersistenceException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.jcr.Node;
+import javax.jcr.NodeIterator;
+import javax.jcr.RepositoryException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Re-imports a spreadsheet into an existing page by diffing component groups instead of rebuilding them.
+ * Each group, keyed by {@code ComponentName} + {@code groupId}, is content-hashed, and the hash is stored on
+ * its component node. A re-import then adds, replaces or removes only the nodes whose hash changed,
+ * and leaves unchanged components (and components authored by hand) untouched. Nodes are named
+ * {@code ComponentName-groupId} as in a full import, so a page first imported in full, or written before
+ * hashes were stored, is replaced group by group on its first incremental import.
+ */
+final class IncrementalComponentSync {
+
+    static final String PN_IMPORT_HASH = "excelImportHash";
+
+    private static final Logger log = LoggerFactory.getLogger(IncrementalComponentSync.class);
+
+    private final Node containerNode;
+    private final Set<String> locales;
+    private final ImportCheckpoint checkpoint;
+    private final ImportProgress progress;
+    private int added;
+    private int updated;
+    private int removed;
+    private int unchanged;
+
+    /**
+     * @param locales the configured language copy locales, whose {@code property_locale} columns are not
+     *                written as properties of the page
+     */
+    IncrementalComponentSync(Node containerNode, Set<String> locales, ImportCheckpoint checkpoint,
+                             ImportProgress progress) {
+        this.containerNode = containerNode;
+        this.locales = locales;
+        this.checkpoint = checkpoint;
+        this.progress = progress;
+    }
+
+    void sync(Map<String, ComponentGroup> grouped) throws RepositoryException, PersistenceException {
+        Set<String> existingNames = new HashSet<>();
+        Map<String, String> existingHashes = new HashMap<>();
+        NodeIterator children = containerNode.getNodes();
+        while (children.hasNext()) {
+            Node child = children.nextNode();
+            existingNames.add(child.getName());
+            if (child.hasProperty(PN_IMPORT_HASH)) {
+                existingHashes.put(child.getName(), child.getProperty(PN_IMPORT_HASH).getString());
+            }
+        }
+
+        Map<String, ComponentGroup> byNodeName = new LinkedHashMap<>();
+        Map<String, String> hashes = new HashMap<>();
+        for (ComponentGroup groupRows : grouped.values()) {
+            byNodeName.put(groupRows.getNodeName(), groupRows);
+            hashes.put(groupRows.getNodeName(), hash(groupRows));
+        }
+
+        int groupIndex = -1;
+        for (Map.Entry<String, ComponentGroup> entry : byNodeName.entrySet()) {
+            groupIndex++;
+            String nodeName = entry.getKey();
+            String hash = hashes.get(nodeName);
+            String existingHash = existingHashes.remove(nodeName);
+            if (hash.equals(existingHash)) {
+                unchanged++;
+                continue;
+            }
+            // A node of the same name without a hash was written by a full import; replace it as well.
+            if (existingNames.contains(nodeName)) {
+                containerNode.getNode(nodeName).remove();
+                updated++;
+            } else {
+                added++;
+            }
+            ComponentGroup groupRows = entry.getValue();
+            Node componentNode = CreatePageFromExcelWorkflowProcess.addComponentNode(containerNode, nodeName,
+                    groupRows.getComponentType(), groupRows, locales, progress);
+            componentNode.setProperty(PN_IMPORT_HASH, hash);
+            progress.propertiesWritten(1);
+            checkpoint.groupWritten(groupIndex, -1);
+        }
+
+        for (String staleName : existingHashes.keySet()) {
+            containerNode.getNode(staleName).remove();
+            removed++;
+        }
+
+        restoreOrder(new ArrayList<>(byNodeName.keySet()));
+        log.info("Incremental import of {}: {} added, {} updated, {} removed, {} unchanged",
+                containerNode.getPath(), added, updated, removed, unchanged);
+    }
+
+    /**
+     * Moves imported components into sheet order, touching only the nodes that are out of place.
+     */
+    private void restoreOrder(List<String> desired) throws RepositoryException {
+        Set<String> imported = new HashSet<>(desired);
+        List<String> actual = new ArrayList<>(desired.size());
+        NodeIterator children = containerNode.getNodes();
+        while (children.hasNext()) {
+            String name = children.nextNode().getName();
+            if (imported.contains(name)) {
+                actual.add(name);
+            }
+        }
+        for (int i = 0; i < desired.size(); i++) {
+            String name = desired.get(i);
+            if (!name.equals(actual.get(i))) {
+                containerNode.orderBefore(name, actual.get(i));
+                actual.remove(name);
+                actual.add(i, name);
+            }
+        }
+    }
+
+    static String hash(ComponentGroup groupRows) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        update(digest, groupRows.getComponentType());
+        update(digest, String.valueOf(groupRows.size()));
+        for (int i = 0; i < groupRows.size(); i++) {
+            SheetRow row = groupRows.row(i);
+            for (int column : row.getHeader().sortedColumns()) {
+                update(digest, row.getHeader().name(column));
+                update(digest, row.get(column));
+            }
+        }
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+}
@@ -0,0 +1,92 @@
+package com.adobe.aem.tutorial.core.workflow;
+
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.ResourceResolverFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Writes the language copies of one import in parallel with the main page, one thread and one
+ * service-user {@link ResourceResolver} per locale root. All copies are written from the write plan of
+ * the main import, so the sheet is parsed and planned once. A failed copy is recorded and does not stop
+ * the others or the main page. Writers complete a copy only once the main page is committed, so a
+ * failed main import does not leave finished copies of a page that was never written.
+ */
+final class LanguageCopies {
+
+    private static final Logger log = LoggerFactory.getLogger(LanguageCopies.class);
+
+    @FunctionalInterface
+    interface CopyWriter {
+        ImportResult write(ResourceResolver resolver, String locale, String parentPath) throws Exception;
+    }
+
+    private final ResourceResolverFactory resolverFactory;
+    private final Map<String, String> localeRoots;
+    private final CopyWriter writer;
+    private final List<Future<ImportResult>> futures = new ArrayList<>();
+    private final List<String> locales = new ArrayList<>();
+
+    /**
+     * @param localeRoots parent path of the copied page per locale
+     */
+    LanguageCopies(ResourceResolverFactory resolverFactory, Map<String, String> localeRoots, CopyWriter writer) {
+        this.resolverFactory = resolverFactory;
+        this.localeRoots = localeRoots;
+        this.writer = writer;
+    }
+
+    /**
+     * Starts writing all copies in the background.
+     */
+    void start() {
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(localeRoots.size(),
+                runnable -> new Thread(runnable, "excel-import-language-" + threadCount.incrementAndGet()));
+        for (Map.Entry<String, String> root : localeRoots.entrySet()) {
+            locales.add(root.getKey());
+            futures.add(executor.submit(() -> writeCopy(root.getKey(), root.getValue())));
+        }
+        // Lets the threads end once the copies are written, even if nobody waits for them.
+        executor.shutdown();
+    }
+
+    /**
+     * Waits for all copies started by {@link #start()}.
+     */
+    List<ImportResult> await() throws InterruptedException {
+        List<ImportResult> results = new ArrayList<>(futures.size());
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                results.add(futures.get(i).get());
+            } catch (ExecutionException e) {
+                results.add(ImportResult.failure(locales.get(i), 0, e));
+            }
+        }
+        return results;
+    }
+
+    private ImportResult writeCopy(String locale, String parentPath) {
+        long start = System.nanoTime();
+        try (ResourceResolver resolver = resolverFactory.getServiceResourceResolver(
+                Collections.singletonMap(ResourceResolverFactory.SUBSERVICE, BulkExcelImport.SUBSERVICE))) {
+            ImportResult result = writer.write(resolver, locale, parentPath);
+            log.info("Language copy: {}", result);
+            return result;
+        } catch (Exception e) {
+            log.error("Language copy {} under {} failed", locale, parentPath, e);
+            return ImportResult.failure(locale, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), e);
+        }
+    }
+}
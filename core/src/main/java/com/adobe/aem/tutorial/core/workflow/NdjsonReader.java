@@ -0,0 +1,98 @@
+package com.adobe.aem.tutorial.core.workflow;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Streaming reader for newline-delimited JSON, one flat object per line, for example
+ * {@code {"ComponentName":"hero","groupId":"g1","title":"Welcome"}}. The columns are the union of the keys
+ * of all objects, in order of first appearance, and an object without a key has {@code ""} in that column.
+ * Strings are taken as-is, numbers and booleans in their JSON text form, and {@code null} and nested
+ * values become {@code ""}.
+ * <p>
+ * The input is spooled to a temporary file and read twice, once for the keys and once for the rows.
+ * Both passes pull objects from a Jackson token stream, and rows are read into one reused row, so no
+ * tree model is built.
+ */
+final class NdjsonReader implements RowReader {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    @Override
+    public void read(InputStream inputStream, ExcelRowHandler handler) throws Exception {
+        Path spool = Files.createTempFile("excel-import-", ".ndjson");
+        try {
+            Files.copy(inputStream, spool, StandardCopyOption.REPLACE_EXISTING);
+            ArraySheetRow row = new ArraySheetRow(readHeader(spool));
+            try (JsonParser parser = JSON_FACTORY.createParser(spool.toFile())) {
+                while (nextObject(parser)) {
+                    readObject(parser, row);
+                    handler.handleRow(row);
+                }
+            }
+        } finally {
+            Files.deleteIfExists(spool);
+        }
+    }
+
+    private static SheetHeader readHeader(Path spool) throws IOException {
+        Set<String> names = new LinkedHashSet<>();
+        try (JsonParser parser = JSON_FACTORY.createParser(spool.toFile())) {
+            while (nextObject(parser)) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    names.add(parser.currentName().trim());
+                    parser.nextToken();
+                    parser.skipChildren();
+                }
+            }
+        }
+        return new SheetHeader(new ArrayList<>(names));
+    }
+
+    private static boolean nextObject(JsonParser parser) throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == null) {
+            return false;
+        }
+        if (token != JsonToken.START_OBJECT) {
+            throw new IOException("Expected a JSON object in line " + parser.getTokenLocation().getLineNr());
+        }
+        return true;
+    }
+
+    private static void readObject(JsonParser parser, ArraySheetRow row) throws IOException {
+        row.clear();
+        SheetHeader header = row.getHeader();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            int column = header.indexOf(parser.currentName().trim());
+            row.set(column, value(parser, parser.nextToken()));
+        }
+    }
+
+    private static String value(JsonParser parser, JsonToken token) throws IOException {
+        switch (token) {
+            case VALUE_STRING:
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+            case VALUE_TRUE:
+            case VALUE_FALSE:
+                return parser.getText();
+            case START_OBJECT:
+            case START_ARRAY:
+                parser.skipChildren();
+                return "";
+            default:
+                return "";
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.adobe.aem.tutorial.core.workflow;
+
+import com.day.cq.wcm.api.NameConstants;
+import com.day.cq.wcm.api.Page;
+import com.day.cq.wcm.api.PageManager;
+import com.day.cq.wcm.api.WCMException;
+import org.apache.sling.api.resource.PersistenceException;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.jcr.Node;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import java.util.Calendar;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Creates import pages by cloning a ready-made skeleton page with a single {@code Workspace.copy}
+ * instead of running {@code PageManager.create} and then adding the {@code root} and {@code container}
+ * nodes for every page.
+ * <p>
+ * A blueprint can be configured per template and is then used as-is. Otherwise one blueprint per template is
+ * built under the blueprint root on first use after startup, and rebuilt whenever the template's
+ * {@code cq:lastModified} changes.
+ */
+final class PageBlueprints {
+
+    private static final Logger log = LoggerFactory.getLogger(PageBlueprints.class);
+    private static final String[] TEMPLATE_CONTENT = { "jcr:content", "structure/jcr:content", "initial/jcr:content" };
+
+    private final String blueprintRoot;
+    private final Map<String, String> configuredBlueprints;
+    private final Map<String, Long> builtTemplateVersions = new ConcurrentHashMap<>();
+
+    PageBlueprints(String blueprintRoot, Map<String, String> configuredBlueprints) {
+        this.blueprintRoot = blueprintRoot;
+        this.configuredBlueprints = configuredBlueprints;
+    }
+
+    /**
+     * Copies the template's blueprint to {@code parentPath/pageName}. The copy is persisted immediately;
+     * the title and modification stamp are left pending for the import's next commit.
+     */
+    Page create(ResourceResolver resolver, String parentPath, String pageName, String templatePath)
+            throws RepositoryException, WCMException, PersistenceException {
+        Session session = resolver.adaptTo(Session.class);
+        PageManager pageManager = resolver.adaptTo(PageManager.class);
+        if (session == null || pageManager == null) {
+            throw new IllegalStateException("Session or PageManager unavailable.");
+        }
+
+        String pagePath = parentPath + "/" + pageName;
+        session.getWorkspace().copy(getBlueprint(resolver, pageManager, templatePath), pagePath);
+
+        Node content = session.getNode(pagePath + "/" + NameConstants.NN_CONTENT);
+        content.setProperty(NameConstants.PN_TITLE, pageName);
+        content.setProperty(NameConstants.PN_PAGE_LAST_MOD, Calendar.getInstance());
+        content.setProperty(NameConstants.PN_PAGE_LAST_MOD_BY, session.getUserID());
+        return pageManager.getPage(pagePath);
+    }
+
+    private String getBlueprint(ResourceResolver resolver, PageManager pageManager, String templatePath)
+            throws WCMException, RepositoryException, PersistenceException {
+        String configured = configuredBlueprints.get(templatePath);
+        if (configured != null) {
+            return configured;
+        }
+
+        String blueprintPath = blueprintRoot + "/" + blueprintName(templatePath);
+        long templateVersion = templateVersion(resolver, templatePath);
+        if (isCurrent(resolver, templatePath, blueprintPath, templateVersion)) {
+            return blueprintPath;
+        }
+        synchronized (this) {
+            if (!isCurrent(resolver, templatePath, blueprintPath, templateVersion)) {
+                build(resolver, pageManager, templatePath, blueprintPath);
+                builtTemplateVersions.put(templatePath, templateVersion);
+            }
+        }
+        return blueprintPath;
+    }
+
+    private boolean isCurrent(ResourceResolver resolver, String templatePath, String blueprintPath,
+                              long templateVersion) {
+        resolver.refresh();
+        Long built = builtTemplateVersions.get(templatePath);
+        return built != null && built == templateVersion && resolver.getResource(blueprintPath) != null;
+    }
+
+    private void build(ResourceResolver resolver, PageManager pageManager, String templatePath, String blueprintPath)
+            throws WCMException, RepositoryException, PersistenceException {
+        Resource existing = resolver.getResource(blueprintPath);
+        if (existing != null) {
+            resolver.delete(existing);
+        }
+        String name = blueprintPath.substring(blueprintRoot.length() + 1);
+        Page blueprint = pageManager.create(blueprintRoot, name, templatePath, name, false);
+        Node content = blueprint.getContentResource().adaptTo(Node.class);
+        CreatePageFromExcelWorkflowProcess.ensureNode(CreatePageFromExcelWorkflowProcess.ensureNode(content, "root"),
+                "container");
+        resolver.commit();
+        log.info("Built page blueprint {} for template {}", blueprintPath, templatePath);
+    }
+
+    private static long templateVersion(ResourceResolver resolver, String templatePath) {
+        Resource template = resolver.getResource(templatePath);
+        if (template == null) {
+            throw new IllegalStateException("Template not found: " + templatePath);
+        }
+        long version = 0;
+        for (String contentPath : TEMPLATE_CONTENT) {
+            Resource content = template.getChild(contentPath);
+            Calendar lastModified = content != null
+                    ? content.getValueMap().get(NameConstants.PN_PAGE_LAST_MOD, Calendar.class) : null;
+            if (lastModified != null) {
+                version = Math.max(version, lastModified.getTimeInMillis());
+            }
+        }
+        return version;
+    }
+
+    private static String blueprintName(String templatePath) {
+        return templatePath.replaceAll("^/+", "").replace('/', '_');
+    }
+}
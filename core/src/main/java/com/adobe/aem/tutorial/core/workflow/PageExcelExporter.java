@@ -0,0 +1,243 @@
+package com.adobe.aem.tutorial.core.workflow;
+
+import com.day.cq.wcm.api.Page;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.util.WorkbookUtil;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ValueMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Reverse of {@link CreatePageFromExcelWorkflowProcess}: writes the components of a page back into the
+ * {@code ComponentName} / {@code groupId} / {@code listItem} layout the import reads. A component becomes
+ * a row with an empty {@code listItem}, and each of its {@code listItems} children a row named after the
+ * item, so re-importing the workbook as a page rebuilds the same component nodes.
+ * <p>
+ * The import builds one page from the first sheet of a file, so every page is written as a workbook of its
+ * own; several pages go into a ZIP archive with one workbook per page. Workbooks are written with POI's
+ * streaming SXSSF writer, which keeps only a small window of rows in memory and spills the rest to a
+ * compressed temporary file, and each one is disposed before the next page is read. Only string properties
+ * without a namespace are exported, as those are what the import writes.
+ */
+public final class PageExcelExporter {
+
+    public static final String CONTENT_TYPE = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+    public static final String ARCHIVE_CONTENT_TYPE = "application/zip";
+
+    private static final Logger log = LoggerFactory.getLogger(PageExcelExporter.class);
+
+    private static final String RESOURCE_TYPE_PREFIX = "FutureConcepts/components/";
+    private static final int ROW_WINDOW = 100;
+    private static final int FIRST_PROPERTY_COLUMN = 3;
+
+    /**
+     * Writes the page to {@code out} as a single-sheet XLSX workbook. A page without a
+     * {@code root/container} gets a sheet with the header only.
+     *
+     * @return whether the page had a container to export
+     */
+    public boolean export(Page page, OutputStream out) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_WINDOW);
+        workbook.setCompressTempFiles(true);
+        try {
+            SXSSFSheet sheet = workbook.createSheet(WorkbookUtil.createSafeSheetName(page.getName()));
+            Resource container = container(page);
+            if (container != null) {
+                writeSheet(sheet, container);
+            } else {
+                writeHeader(sheet, Collections.emptyList());
+            }
+            workbook.write(out);
+            return container != null;
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    /**
+     * Writes the root page and, if {@code deep}, all of its descendants to {@code out} as a ZIP archive with
+     * one workbook per page, at the path given by {@link #fileName(Page, Page)}. Pages without a
+     * {@code root/container} are left out.
+     *
+     * @return the number of exported pages
+     */
+    public int exportArchive(Page root, boolean deep, OutputStream out) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(out);
+        int exported = 0;
+        for (Iterator<Page> pages = pages(root, deep); pages.hasNext(); ) {
+            Page page = pages.next();
+            if (!isExportable(page)) {
+                log.debug("Skipping page without root/container: {}", page.getPath());
+                continue;
+            }
+            zip.putNextEntry(new ZipEntry(fileName(root, page)));
+            export(page, zip);
+            zip.closeEntry();
+            exported++;
+        }
+        zip.finish();
+        return exported;
+    }
+
+    /**
+     * @return whether the page has a {@code root/container} whose components can be exported
+     */
+    public static boolean isExportable(Page page) {
+        return container(page) != null;
+    }
+
+    /**
+     * @return the workbook name for a page exported under {@code root}: the root's name for the root itself,
+     *         and the path below the root's parent for a descendant, e.g. {@code home/about/team.xlsx}. The
+     *         import names the page after the file, so every workbook re-imports as its own page.
+     */
+    public static String fileName(Page root, Page page) {
+        String parentPath = root.getPath().substring(0, root.getPath().lastIndexOf('/') + 1);
+        return page.getPath().substring(parentPath.length()) + ".xlsx";
+    }
+
+    /**
+     * @return the root page followed, if {@code deep}, by all of its descendants
+     */
+    public static Iterator<Page> pages(Page root, boolean deep) {
+        if (!deep) {
+            return Collections.singletonList(root).iterator();
+        }
+        Iterator<Page> descendants = root.listChildren(page -> true, true);
+        return new Iterator<Page>() {
+            private boolean rootReturned;
+
+            @Override
+            public boolean hasNext() {
+                return !rootReturned || descendants.hasNext();
+            }
+
+            @Override
+            public Page next() {
+                if (!rootReturned) {
+                    rootReturned = true;
+                    return root;
+                }
+                return descendants.next();
+            }
+        };
+    }
+
+    /**
+     * Writes one page. The components are walked twice: once for the column names, then for the rows,
+     * so only the header is held in memory.
+     */
+    private static void writeSheet(SXSSFSheet sheet, Resource container) {
+        Set<String> columns = new LinkedHashSet<>();
+        for (Resource component : container.getChildren()) {
+            if (componentType(component) != null) {
+                columns.addAll(exportedProperties(component.getValueMap()));
+                Resource listItems = component.getChild("listItems");
+                if (listItems != null) {
+                    for (Resource item : listItems.getChildren()) {
+                        columns.addAll(exportedProperties(item.getValueMap()));
+                    }
+                }
+            }
+        }
+        List<String> header = new ArrayList<>(columns);
+        writeHeader(sheet, header);
+
+        int rowIndex = 1;
+        for (Resource component : container.getChildren()) {
+            String componentType = componentType(component);
+            if (componentType == null) {
+                log.debug("Skipping component that the import cannot create: {}", component.getPath());
+                continue;
+            }
+            String groupId = component.getName().startsWith(componentType + "-")
+                    ? component.getName().substring(componentType.length() + 1) : component.getName();
+            int firstRow = rowIndex;
+            if (!exportedProperties(component.getValueMap()).isEmpty()) {
+                writeRow(sheet.createRow(rowIndex++), componentType, groupId, "", component, header);
+            }
+            Resource listItems = component.getChild("listItems");
+            if (listItems != null) {
+                for (Resource item : listItems.getChildren()) {
+                    writeRow(sheet.createRow(rowIndex++), componentType, groupId, item.getName(), item, header);
+                }
+            }
+            if (rowIndex == firstRow) {
+                // Neither properties nor items, but the component still has to be created.
+                writeRow(sheet.createRow(rowIndex++), componentType, groupId, "", component, header);
+            }
+        }
+    }
+
+    private static void writeRow(Row row, String componentType, String groupId, String listItem, Resource resource,
+                                 List<String> header) {
+        row.createCell(0).setCellValue(componentType);
+        row.createCell(1).setCellValue(groupId);
+        row.createCell(2).setCellValue(listItem);
+        ValueMap properties = resource.getValueMap();
+        for (int column = 0; column < header.size(); column++) {
+            Object value = properties.get(header.get(column));
+            if (value instanceof String) {
+                row.createCell(column + FIRST_PROPERTY_COLUMN).setCellValue((String) value);
+            }
+        }
+    }
+
+    private static void writeHeader(SXSSFSheet sheet, List<String> columns) {
+        Row row = sheet.createRow(0);
+        row.createCell(0).setCellValue(CreatePageFromExcelWorkflowProcess.COMPONENT_NAME);
+        row.createCell(1).setCellValue(CreatePageFromExcelWorkflowProcess.GROUP_ID);
+        row.createCell(2).setCellValue(CreatePageFromExcelWorkflowProcess.LIST_ITEM);
+        for (int column = 0; column < columns.size(); column++) {
+            row.createCell(column + FIRST_PROPERTY_COLUMN).setCellValue(columns.get(column));
+        }
+    }
+
+    private static Resource container(Page page) {
+        Resource content = page.getContentResource();
+        return content != null ? content.getChild("root/container") : null;
+    }
+
+    /**
+     * @return the {@code ComponentName} of a component the import can create, or {@code null}
+     */
+    private static String componentType(Resource component) {
+        String resourceType = component.getValueMap().get("sling:resourceType", String.class);
+        return resourceType != null && resourceType.startsWith(RESOURCE_TYPE_PREFIX)
+                ? resourceType.substring(RESOURCE_TYPE_PREFIX.length()) : null;
+    }
+
+    private static boolean isKeyColumn(String name) {
+        return CreatePageFromExcelWorkflowProcess.COMPONENT_NAME.equals(name)
+                || CreatePageFromExcelWorkflowProcess.GROUP_ID.equals(name)
+                || CreatePageFromExcelWorkflowProcess.LIST_ITEM.equals(name);
+    }
+
+    private static List<String> exportedProperties(ValueMap properties) {
+        List<String> names = new ArrayList<>();
+        for (Map.Entry<String, Object> property : properties.entrySet()) {
+            String name = property.getKey();
+            if (property.getValue() instanceof String && name.indexOf(':') < 0
+                    && !IncrementalComponentSync.PN_IMPORT_HASH.equals(name) && !isKeyColumn(name)) {
+                names.add(name);
+            }
+        }
+        return names;
+    }
+}
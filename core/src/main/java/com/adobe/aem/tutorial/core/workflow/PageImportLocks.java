@@ -0,0 +1,63 @@
+package com.adobe.aem.tutorial.core.workflow;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Serializes imports that write the same page while letting all other imports run in parallel. Page
+ * paths are hashed onto a fixed set of lock stripes, so two imports only wait for each other when their
+ * pages share a stripe, and the lock table never grows. Without this, two concurrent imports of the same
+ * page both create it and write its components, and one of them fails with an Oak merge conflict.
+ * <p>
+ * The locks cover imports running on this instance. A thread must hold at most one page lock at a time.
+ */
+final class PageImportLocks {
+
+    private final ReentrantLock[] stripes;
+    private final ImportMetrics metrics;
+
+    PageImportLocks(int stripeCount, ImportMetrics metrics) {
+        int size = stripeCount <= 1 ? 1 : Integer.highestOneBit(stripeCount - 1) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.metrics = metrics;
+    }
+
+    /**
+     * Blocks until no other import holds the lock of the page's stripe.
+     *
+     * @return the held lock, released by closing it
+     */
+    Held acquire(String pagePath) throws InterruptedException {
+        int hash = pagePath.hashCode();
+        ReentrantLock lock = stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+        if (!lock.tryLock()) {
+            long start = System.nanoTime();
+            lock.lockInterruptibly();
+            metrics.pageLockContended(System.nanoTime() - start);
+        }
+        return new Held(lock);
+    }
+
+    int getStripeCount() {
+        return stripes.length;
+    }
+
+    /**
+     * A page lock held by the current thread.
+     */
+    static final class Held implements AutoCloseable {
+
+        private final ReentrantLock lock;
+
+        private Held(ReentrantLock lock) {
+            this.lock = lock;
+        }
+
+        @Override
+        public void close() {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.adobe.aem.tutorial.core.workflow;
+
+import java.io.InputStream;
+
+/**
+ * Streaming reader of one import format. Implementations take the column names from the first record
+ * and hand every following record to the handler as a {@link SheetRow}, so all formats produce the same
+ * {@code ComponentName} / {@code groupId} row model.
+ */
+interface RowReader {
+
+    void read(InputStream inputStream, ExcelRowHandler handler) throws Exception;
+}
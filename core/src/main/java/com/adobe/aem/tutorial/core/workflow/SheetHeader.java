@@ -0,0 +1,68 @@
+package com.adobe.aem.tutorial.core.workflow;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Column names of a parsed sheet, shared by all of its rows. Names are interned once, so rows only hold
+ * values. Lookups by name resolve to the last column with that name, the same way the former per-row
+ * {@code HashMap} let a later duplicate header win.
+ */
+final class SheetHeader {
+
+    private final String[] names;
+    private final Map<String, Integer> index = new HashMap<>();
+    private final boolean[] keyColumns;
+    private final int[] sortedColumns;
+
+    SheetHeader(List<String> columnNames) {
+        names = new String[columnNames.size()];
+        keyColumns = new boolean[names.length];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = columnNames.get(i).intern();
+            index.put(names[i], i);
+            keyColumns[i] = CreatePageFromExcelWorkflowProcess.COMPONENT_NAME.equals(names[i])
+                    || CreatePageFromExcelWorkflowProcess.GROUP_ID.equals(names[i])
+                    || CreatePageFromExcelWorkflowProcess.LIST_ITEM.equals(names[i]);
+        }
+        sortedColumns = index.keySet().stream().sorted().mapToInt(index::get).toArray();
+    }
+
+    int size() {
+        return names.length;
+    }
+
+    String name(int column) {
+        return names[column];
+    }
+
+    /**
+     * @return the column for {@code name}, or {@code -1} if the sheet has no such header
+     */
+    int indexOf(String name) {
+        Integer column = index.get(name);
+        return column != null ? column : -1;
+    }
+
+    /**
+     * @return whether the column is {@code ComponentName}, {@code groupId} or {@code listItem}, which are never
+     *         written as properties
+     */
+    boolean isKeyColumn(int column) {
+        return keyColumns[column];
+    }
+
+    /**
+     * @return one column per distinct name, ordered by name
+     */
+    int[] sortedColumns() {
+        return sortedColumns;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(names);
+    }
+}
@@ -0,0 +1,25 @@
+package com.adobe.aem.tutorial.core.workflow;
+
+/**
+ * Read-only view of one spreadsheet row. Values are addressed by column index of the shared
+ * {@link SheetHeader}; missing cells read as {@code ""}. Views handed to an {@link ExcelRowHandler}
+ * may be reused for the next row and must not be retained.
+ */
+interface SheetRow {
+
+    SheetHeader getHeader();
+
+    String get(int column);
+
+    /**
+     * @return the value of the named column, or {@code null} if the sheet has no such header
+     */
+    default String get(String name) {
+        int column = getHeader().indexOf(name);
+        return column >= 0 ? get(column) : null;
+    }
+
+    default boolean has(String name) {
+        return getHeader().indexOf(name) >= 0;
+    }
+}
@@ -0,0 +1,133 @@
+package com.adobe.aem.tutorial.core.workflow;
+
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Column-oriented storage for a parsed sheet. Each column is a single {@code String[]} indexed by row,
+ * and short values are deduplicated, so repeated component names, ids and numbers are stored once.
+ * Rows are read through lightweight {@link SheetRow} views instead of per-row maps.
+ */
+final class SheetTable {
+
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int MAX_POOLED_LENGTH = 64;
+
+    private final SheetHeader header;
+    private final String[][] columns;
+    private final Map<String, String> pool = new HashMap<>();
+    private int rowCount;
+
+    SheetTable(SheetHeader header) {
+        this.header = header;
+        this.columns = new String[header.size()][INITIAL_CAPACITY];
+    }
+
+    /**
+     * Reads every row a streaming reader produces into a new table.
+     */
+    static SheetTable read(RowReader reader, InputStream inputStream) throws Exception {
+        Collector collector = new Collector();
+        reader.read(inputStream, collector);
+        return collector.table != null
+                ? collector.table : new SheetTable(new SheetHeader(Collections.emptyList()));
+    }
+
+    SheetHeader getHeader() {
+        return header;
+    }
+
+    int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Copies the row's values into the table.
+     *
+     * @return the index of the new row
+     */
+    int addRow(SheetRow row) {
+        if (rowCount == capacity()) {
+            for (int column = 0; column < columns.length; column++) {
+                columns[column] = Arrays.copyOf(columns[column], rowCount * 2);
+            }
+        }
+        for (int column = 0; column < columns.length; column++) {
+            columns[column][rowCount] = dedupe(row.get(column));
+        }
+        return rowCount++;
+    }
+
+    /**
+     * Drops all rows but keeps the allocated columns, so the table can be reused for the next batch of rows.
+     */
+    void clear() {
+        for (String[] column : columns) {
+            Arrays.fill(column, 0, rowCount, null);
+        }
+        pool.clear();
+        rowCount = 0;
+    }
+
+    String value(int row, int column) {
+        return columns[column][row];
+    }
+
+    void set(int row, int column, String value) {
+        columns[column][row] = dedupe(value);
+    }
+
+    SheetRow row(int index) {
+        return new Row(index);
+    }
+
+    private int capacity() {
+        return columns.length > 0 ? columns[0].length : Integer.MAX_VALUE;
+    }
+
+    private String dedupe(String value) {
+        if (value == null || value.isEmpty()) {
+            return "";
+        }
+        if (value.length() > MAX_POOLED_LENGTH) {
+            return value;
+        }
+        String pooled = pool.putIfAbsent(value, value);
+        return pooled != null ? pooled : value;
+    }
+
+    private final class Row implements SheetRow {
+
+        private final int index;
+
+        private Row(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public SheetHeader getHeader() {
+            return header;
+        }
+
+        @Override
+        public String get(int column) {
+            return columns[column][index];
+        }
+    }
+
+    private static final class Collector implements ExcelRowHandler {
+
+        private SheetTable table;
+
+        @Override
+        public void handleRow(SheetRow row) {
+            if (table == null) {
+                table = new SheetTable(row.getHeader());
+            }
+            table.addRow(row);
+        }
+    }
+}
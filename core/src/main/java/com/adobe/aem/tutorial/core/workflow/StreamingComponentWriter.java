@@ -0,0 +1,119 @@
+package com.adobe.aem.tutorial.core.workflow;
+
+import org.apache.sling.api.resource.PersistenceException;
+
+import javax.jcr.Node;
+import javax.jcr.NodeIterator;
+import javax.jcr.Property;
+import javax.jcr.PropertyIterator;
+import javax.jcr.RepositoryException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes component nodes while the streaming reader is still producing rows, so page construction
+ * never needs the full row list. Each run of rows from the {@link StreamingRowGrouper} is written in
+ * its final shape, the same way {@link WritePlan} lays out a group. When a group continues further down
+ * the sheet, its rows are appended as {@code listItems/itemN} entries, converting a single-row component
+ * to the multifield layout first. In a sheet with a {@code listItem} column, the rows are appended under
+ * the item names they give, or set on the component node when they name no item.
+ * <p>
+ * Runs that an earlier, interrupted run already committed are only counted, so group state is rebuilt
+ * without writing them again.
+ */
+final class StreamingComponentWriter implements StreamingRowGrouper.GroupHandler {
+
+    private final Node containerNode;
+    private final ImportCheckpoint checkpoint;
+    private final ImportProgress progress;
+    private int runCount;
+    private int groupCount;
+
+    StreamingComponentWriter(Node containerNode, ImportCheckpoint checkpoint, ImportProgress progress) {
+        this.containerNode = containerNode;
+        this.checkpoint = checkpoint;
+        this.progress = progress;
+    }
+
+    @Override
+    public void handleGroup(ComponentGroup group, int lastRow, boolean continuation)
+            throws RepositoryException, PersistenceException {
+        int runIndex = runCount++;
+        if (!continuation) {
+            groupCount++;
+        }
+        progress.rowsParsed(group.size());
+        if (checkpoint.isRowCommitted(lastRow)) {
+            return;
+        }
+
+        if (continuation) {
+            appendItems(containerNode.getNode(group.getNodeName()), group);
+        } else {
+            WritePlan.component(group.getNodeName(), group.getComponentType(), group).write(containerNode, progress);
+        }
+        checkpoint.groupWritten(runIndex, lastRow);
+    }
+
+    int getGroupCount() {
+        return groupCount;
+    }
+
+    private void appendItems(Node componentNode, ComponentGroup group) throws RepositoryException {
+        int listItemColumn = group.first().getHeader().indexOf(CreatePageFromExcelWorkflowProcess.LIST_ITEM);
+        if (listItemColumn >= 0) {
+            appendNamedItems(componentNode, group, listItemColumn);
+            return;
+        }
+        if (!componentNode.hasNode("listItems")) {
+            moveToFirstItem(componentNode);
+        }
+        Node listItems = componentNode.getNode("listItems");
+        int itemCount = 0;
+        for (NodeIterator items = listItems.getNodes(); items.hasNext(); items.nextNode()) {
+            itemCount++;
+        }
+        for (int i = 0; i < group.size(); i++) {
+            Node item = listItems.addNode("item" + (itemCount + i), "nt:unstructured");
+            progress.nodeWritten();
+            progress.propertiesWritten(CreatePageFromExcelWorkflowProcess.addProperties(item, group.row(i)));
+        }
+    }
+
+    private void appendNamedItems(Node componentNode, ComponentGroup group, int listItemColumn)
+            throws RepositoryException {
+        for (int i = 0; i < group.size(); i++) {
+            SheetRow row = group.row(i);
+            String itemName = row.get(listItemColumn);
+            Node target = componentNode;
+            if (CreatePageFromExcelWorkflowProcess.isNonEmptyField(itemName)) {
+                if (!componentNode.hasNode("listItems")) {
+                    componentNode.addNode("listItems", "nt:unstructured");
+                    progress.nodeWritten();
+                }
+                target = componentNode.getNode("listItems").addNode(itemName.trim(), "nt:unstructured");
+                progress.nodeWritten();
+            }
+            progress.propertiesWritten(CreatePageFromExcelWorkflowProcess.addProperties(target, row));
+        }
+    }
+
+    private void moveToFirstItem(Node componentNode) throws RepositoryException {
+        Node firstItem = componentNode.addNode("listItems", "nt:unstructured").addNode("item0", "nt:unstructured");
+        progress.nodeWritten();
+        progress.nodeWritten();
+        List<Property> rowProperties = new ArrayList<>();
+        PropertyIterator properties = componentNode.getProperties();
+        while (properties.hasNext()) {
+            Property property = properties.nextProperty();
+            if (!property.getDefinition().isProtected() && !"sling:resourceType".equals(property.getName())) {
+                rowProperties.add(property);
+            }
+        }
+        for (Property property : rowProperties) {
+            firstItem.setProperty(property.getName(), property.getValue());
+            property.remove();
+        }
+        progress.propertiesWritten(rowProperties.size());
+    }
+}
@@ -0,0 +1,214 @@
+package com.adobe.aem.tutorial.core.workflow;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Reads the first sheet of an XLSX workbook with the XSSF event model and passes each data row to an
+ * {@link ExcelRowHandler} as soon as it is parsed. Only the shared strings table and the current row
+ * are kept in memory, so heap usage does not grow with the number of rows.
+ * <p>
+ * The header semantics are the same as {@code parseExcel}: the first row supplies the trimmed column
+ * names, and every following row is mapped by column index, with missing cells reported as {@code ""}.
+ */
+final class StreamingExcelReader implements RowReader {
+
+    private final EmbeddedImages.Anchors images;
+
+    StreamingExcelReader() {
+        this(EmbeddedImages.Anchors.NONE);
+    }
+
+    /**
+     * @param images DAM paths of uploaded pictures, set into the rows they are anchored on
+     */
+    StreamingExcelReader(EmbeddedImages.Anchors images) {
+        this.images = images;
+    }
+
+    @Override
+    public void read(InputStream inputStream, ExcelRowHandler handler) throws Exception {
+        // OPCPackage needs random access to the zip; spooling to disk keeps that off the heap.
+        Path tempFile = Files.createTempFile("excel-import-", ".xlsx");
+        try {
+            Files.copy(inputStream, tempFile, StandardCopyOption.REPLACE_EXISTING);
+            try (OPCPackage pkg = OPCPackage.open(tempFile.toFile(), PackageAccess.READ)) {
+                XSSFReader reader = new XSSFReader(pkg);
+                ReadOnlySharedStringsTable sharedStrings = new ReadOnlySharedStringsTable(pkg);
+                Iterator<InputStream> sheets = reader.getSheetsData();
+                if (!sheets.hasNext()) {
+                    return;
+                }
+                try (InputStream sheet = sheets.next()) {
+                    XMLReader xmlReader = XMLHelper.newXMLReader();
+                    xmlReader.setContentHandler(new SheetHandler(sharedStrings, handler, images));
+                    xmlReader.parse(new InputSource(sheet));
+                } catch (SAXException e) {
+                    throw e.getException() != null ? e.getException() : e;
+                }
+            }
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    static int columnIndex(String cellReference) {
+        int column = 0;
+        for (int i = 0; i < cellReference.length(); i++) {
+            char c = cellReference.charAt(i);
+            if (c < 'A' || c > 'Z') {
+                break;
+            }
+            column = column * 26 + (c - 'A' + 1);
+        }
+        return column - 1;
+    }
+
+    private static final class SheetHandler extends DefaultHandler {
+
+        private final ReadOnlySharedStringsTable sharedStrings;
+        private final ExcelRowHandler handler;
+        private final EmbeddedImages.Anchors images;
+        private final StringBuilder text = new StringBuilder();
+
+        private final List<String> headerCells = new ArrayList<>();
+        private ArraySheetRow row;
+        private int rowNumber = -1;
+        private int column;
+        private String cellType;
+        private boolean formula;
+        private boolean inlineString;
+        private boolean capturing;
+
+        SheetHandler(ReadOnlySharedStringsTable sharedStrings, ExcelRowHandler handler,
+                     EmbeddedImages.Anchors images) {
+            this.sharedStrings = sharedStrings;
+            this.handler = handler;
+            this.images = images;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            switch (localName) {
+                case "row":
+                    String number = attributes.getValue("r");
+                    rowNumber = number != null ? Integer.parseInt(number) - 1 : rowNumber + 1;
+                    column = -1;
+                    if (row != null) {
+                        row.clear();
+                    }
+                    break;
+                case "c":
+                    String reference = attributes.getValue("r");
+                    column = reference != null ? columnIndex(reference) : column + 1;
+                    cellType = attributes.getValue("t");
+                    formula = false;
+                    text.setLength(0);
+                    break;
+                case "f":
+                    formula = true;
+                    break;
+                case "v":
+                    capturing = true;
+                    break;
+                case "is":
+                    inlineString = true;
+                    break;
+                case "t":
+                    capturing = inlineString;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (capturing) {
+                text.append(ch, start, length);
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) throws SAXException {
+            switch (localName) {
+                case "v":
+                case "t":
+                    capturing = false;
+                    break;
+                case "is":
+                    inlineString = false;
+                    break;
+                case "c":
+                    endCell();
+                    break;
+                case "row":
+                    endRow();
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        private void endCell() {
+            String value = cellValue();
+            if (row == null) {
+                // The header row is read in cell order, the same way parseExcel iterates it.
+                headerCells.add(value.trim());
+            } else if (column >= 0 && column < row.getHeader().size()) {
+                row.set(column, value);
+            }
+        }
+
+        private void endRow() throws SAXException {
+            if (row == null) {
+                row = new ArraySheetRow(new SheetHeader(headerCells));
+                return;
+            }
+            images.apply(rowNumber, row);
+            try {
+                handler.handleRow(row);
+            } catch (Exception e) {
+                throw new SAXException(e);
+            }
+        }
+
+        private String cellValue() {
+            if (formula) {
+                return "";
+            }
+            String raw = text.toString();
+            if (cellType == null || "n".equals(cellType)) {
+                return raw.isEmpty() ? "" : String.valueOf((long) Double.parseDouble(raw));
+            }
+            switch (cellType) {
+                case "s":
+                    return sharedStrings.getItemAt(Integer.parseInt(raw)).getString();
+                case "inlineStr":
+                case "str":
+                    return raw;
+                case "b":
+                    return String.valueOf("1".equals(raw));
+                default:
+                    return "";
+            }
+        }
+    }
+
+}
@@ -0,0 +1,82 @@
+package com.adobe.aem.tutorial.core.workflow;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Groups streamed rows into components without holding the sheet. Rows with the same
+ * {@code ComponentName} + {@code groupId} key that follow each other form a run, and each run is handed
+ * on as soon as a row with a different key (or the end of the sheet) arrives. Only the current run is
+ * buffered, so memory depends on the largest group rather than on the sheet.
+ * <p>
+ * A key that shows up again after other rows is handed on as a continuation of its earlier group,
+ * which keeps the result identical to grouping the whole sheet. Rows of a sheet without a {@code groupId}
+ * column get a row-based id from {@link ComponentGroup#defaultGroupId(int)}.
+ */
+final class StreamingRowGrouper implements ExcelRowHandler {
+
+    /**
+     * Receives each run of rows. The group and its rows are only valid for the duration of the call.
+     */
+    @FunctionalInterface
+    interface GroupHandler {
+
+        /**
+         * @param lastRow      index of the run's last row in the sheet
+         * @param continuation whether an earlier run already had the same key
+         */
+        void handleGroup(ComponentGroup group, int lastRow, boolean continuation) throws Exception;
+    }
+
+    private final GroupHandler handler;
+    private final Set<String> seenKeys = new HashSet<>();
+    private SheetTable run;
+    private ComponentGroup group;
+    private String key;
+    private int rowCount;
+
+    StreamingRowGrouper(GroupHandler handler) {
+        this.handler = handler;
+    }
+
+    @Override
+    public void handleRow(SheetRow row) throws Exception {
+        int rowIndex = rowCount;
+        if (run == null) {
+            run = new SheetTable(row.getHeader());
+        }
+        String componentType = row.get(CreatePageFromExcelWorkflowProcess.COMPONENT_NAME);
+        String groupId = row.has(CreatePageFromExcelWorkflowProcess.GROUP_ID)
+                ? row.get(CreatePageFromExcelWorkflowProcess.GROUP_ID) : ComponentGroup.defaultGroupId(rowIndex);
+        String rowKey = ComponentGroup.key(componentType, groupId);
+        if (!rowKey.equals(key)) {
+            flush();
+            key = rowKey;
+            group = new ComponentGroup(run, groupId);
+        }
+        group.add(run.addRow(row));
+        rowCount++;
+    }
+
+    /**
+     * Hands on the last run. Call once the reader has returned.
+     */
+    void finish() throws Exception {
+        flush();
+    }
+
+    int getRowCount() {
+        return rowCount;
+    }
+
+    private void flush() throws Exception {
+        if (group == null) {
+            return;
+        }
+        boolean continuation = !seenKeys.add(key);
+        handler.handleGroup(group, rowCount - 1, continuation);
+        run.clear();
+        group = null;
+        key = null;
+    }
+}
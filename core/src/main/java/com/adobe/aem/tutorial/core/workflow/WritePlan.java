@@ -0,0 +1,257 @@
+package com.adobe.aem.tutorial.core.workflow;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.jcr.Node;
+import javax.jcr.RepositoryException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable description of the component nodes and properties an import writes, compiled from the grouped
+ * rows before the repository is touched. Applying the plan is a plain walk over it, and its totals serve
+ * as a dry-run report.
+ */
+final class WritePlan {
+
+    private static final Logger log = LoggerFactory.getLogger(WritePlan.class);
+
+    /** Rough per-node storage overhead (primary type, node record, child entry) used for the size estimate. */
+    private static final int NODE_OVERHEAD_BYTES = 200;
+
+    private final List<PlannedNode> components;
+    private final int nodeCount;
+    private final int propertyCount;
+    private final long estimatedBytes;
+
+    private WritePlan(List<PlannedNode> components) {
+        this.components = Collections.unmodifiableList(components);
+        int nodes = 0;
+        int properties = 0;
+        long bytes = 0;
+        List<PlannedNode> pending = new ArrayList<>(components);
+        while (!pending.isEmpty()) {
+            PlannedNode node = pending.remove(pending.size() - 1);
+            nodes++;
+            bytes += NODE_OVERHEAD_BYTES + node.name.length();
+            for (int i = 0; i < node.names.length; i++) {
+                if (node.locales[i] == null) {
+                    properties++;
+                }
+                bytes += node.names[i].length() + node.values[i].length();
+            }
+            pending.addAll(node.children);
+        }
+        this.nodeCount = nodes;
+        this.propertyCount = properties;
+        this.estimatedBytes = bytes;
+    }
+
+    /**
+     * Plans one component node per group, named {@code ComponentName-groupId}.
+     */
+    static WritePlan compile(Map<String, ComponentGroup> grouped) {
+        return compile(grouped, Collections.emptySet());
+    }
+
+    /**
+     * Plans the components for a set of locales at once. A column named {@code property_locale}, e.g.
+     * {@code title_es}, is not written as a property of its own; it overrides {@code property} when the
+     * plan is written for that locale.
+     */
+    static WritePlan compile(Map<String, ComponentGroup> grouped, Set<String> locales) {
+        List<PlannedNode> components = new ArrayList<>(grouped.size());
+        for (ComponentGroup groupRows : grouped.values()) {
+            components.add(component(groupRows.getNodeName(), groupRows.getComponentType(), groupRows, locales));
+        }
+        return new WritePlan(components);
+    }
+
+    /**
+     * Plans a single component: one row becomes properties of the component node, several rows become
+     * {@code listItems/itemN} multifield entries. A sheet with a {@code listItem} column spells the layout
+     * out instead: a row naming an item becomes {@code listItems/<listItem>}, and a row with an empty
+     * {@code listItem} holds the properties of the component node itself, so a list of one item and a list
+     * component with properties of its own both survive an export and re-import.
+     */
+    static PlannedNode component(String nodeName, String componentType, ComponentGroup groupRows) {
+        return component(nodeName, componentType, groupRows, Collections.emptySet());
+    }
+
+    /**
+     * Plans a single component whose {@code property_locale} columns are overrides for these locales.
+     */
+    static PlannedNode component(String nodeName, String componentType, ComponentGroup groupRows,
+                                 Set<String> locales) {
+        Properties properties = new Properties();
+        properties.add("sling:resourceType", "FutureConcepts/components/" + componentType, null);
+
+        int listItemColumn = groupRows.first().getHeader().indexOf(CreatePageFromExcelWorkflowProcess.LIST_ITEM);
+        List<PlannedNode> items = new ArrayList<>();
+        for (int index = 0; index < groupRows.size(); index++) {
+            SheetRow row = groupRows.row(index);
+            String itemName = listItemColumn >= 0 ? row.get(listItemColumn) : "item" + index;
+            if (listItemColumn >= 0 ? !CreatePageFromExcelWorkflowProcess.isNonEmptyField(itemName)
+                    : groupRows.size() == 1) {
+                properties.addRow(row, locales);
+            } else {
+                Properties itemProperties = new Properties();
+                itemProperties.addRow(row, locales);
+                items.add(new PlannedNode(itemName.trim(), itemProperties, Collections.emptyList()));
+            }
+        }
+        List<PlannedNode> children = items.isEmpty() ? Collections.emptyList()
+                : Collections.singletonList(new PlannedNode("listItems", new Properties(), items));
+        return new PlannedNode(nodeName, properties, children);
+    }
+
+    List<PlannedNode> getComponents() {
+        return components;
+    }
+
+    int getNodeCount() {
+        return nodeCount;
+    }
+
+    int getPropertyCount() {
+        return propertyCount;
+    }
+
+    long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+
+    /**
+     * Number of repository commits applying the plan takes: one for the whole page, or with checkpoints
+     * the initial checkpoint, one per full batch of components and the final commit.
+     */
+    int getCommitCount(int commitBatchSize) {
+        return commitBatchSize > 0 ? 2 + components.size() / commitBatchSize : 1;
+    }
+
+    String describe(int commitBatchSize) {
+        return String.format("%d component(s), %d node(s), %d propert(ies), ~%d KB, %d commit(s)",
+                components.size(), nodeCount, propertyCount, (estimatedBytes + 1023) / 1024,
+                getCommitCount(commitBatchSize));
+    }
+
+    /**
+     * Properties of one planned node in write order: the base values first, then the locale overrides.
+     */
+    private static final class Properties {
+
+        private final List<String> names = new ArrayList<>();
+        private final List<String> values = new ArrayList<>();
+        private final List<String> locales = new ArrayList<>();
+
+        void add(String name, String value, String locale) {
+            names.add(name);
+            values.add(value);
+            locales.add(locale);
+        }
+
+        void addRow(SheetRow row, Set<String> rowLocales) {
+            SheetHeader header = row.getHeader();
+            List<String[]> overrides = Collections.emptyList();
+            for (int column = 0; column < header.size(); column++) {
+                String value = row.get(column);
+                if (header.isKeyColumn(column) || !CreatePageFromExcelWorkflowProcess.isNonEmptyField(value)) {
+                    continue;
+                }
+                String name = header.name(column);
+                String locale = localeOf(name, rowLocales);
+                if (locale == null) {
+                    add(name, value, null);
+                } else {
+                    if (overrides.isEmpty()) {
+                        overrides = new ArrayList<>();
+                    }
+                    overrides.add(new String[] { name.substring(0, name.length() - locale.length() - 1), value,
+                            locale });
+                }
+            }
+            for (String[] override : overrides) {
+                add(override[0], override[1], override[2]);
+            }
+        }
+
+        private static String localeOf(String columnName, Set<String> locales) {
+            for (String locale : locales) {
+                if (columnName.length() > locale.length() + 1 && columnName.endsWith("_" + locale)) {
+                    return locale;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * One planned node with its properties and child nodes.
+     */
+    static final class PlannedNode {
+
+        private final String name;
+        private final String[] names;
+        private final String[] values;
+        private final String[] locales;
+        private final List<PlannedNode> children;
+
+        private PlannedNode(String name, Properties properties, List<PlannedNode> children) {
+            this.name = name;
+            this.names = properties.names.toArray(new String[0]);
+            this.values = properties.values.toArray(new String[0]);
+            this.locales = properties.locales.toArray(new String[0]);
+            this.children = Collections.unmodifiableList(children);
+        }
+
+        String getName() {
+            return name;
+        }
+
+        /**
+         * @return the base value of a property, or {@code null} if the node has none
+         */
+        String getValue(String propertyName) {
+            for (int i = 0; i < names.length; i++) {
+                if (locales[i] == null && names[i].equals(propertyName)) {
+                    return values[i];
+                }
+            }
+            return null;
+        }
+
+        List<PlannedNode> getChildren() {
+            return children;
+        }
+
+        Node write(Node parent, ImportProgress progress) throws RepositoryException {
+            return write(parent, progress, null);
+        }
+
+        /**
+         * Writes the node and its children with the base values, overridden by the values of
+         * {@code locale} where the sheet has them.
+         */
+        Node write(Node parent, ImportProgress progress, String locale) throws RepositoryException {
+            log.debug("Creating component node: {}", name);
+            Node node = parent.addNode(name, "nt:unstructured");
+            int written = 0;
+            for (int i = 0; i < names.length; i++) {
+                if (locales[i] == null || locales[i].equals(locale)) {
+                    node.setProperty(names[i], values[i]);
+                    written++;
+                }
+            }
+            progress.nodeWritten();
+            progress.propertiesWritten(written);
+            for (PlannedNode child : children) {
+                child.write(node, progress, locale);
+            }
+            return node;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.adobe.aem.tutorial.core.models;
+
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.wrappers.ValueMapDecorator;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ArticleDetailsModelTest {
+
+    @Test
+    void indexesAuthoredAndNewestFirstOrder() {
+        Resource component = component("articles",
+                item("item0", 2021), item("item1", (Integer) null), item("item2", 2023), item("item3", 2022));
+
+        ArticleDetailsModel.ArticleIndex index = new ArticleDetailsModel.ArticleIndex(component);
+
+        assertAll(
+                () -> assertEquals(Arrays.asList("item0", "item2", "item3"), index.authored),
+                () -> assertEquals(Arrays.asList("item2", "item3", "item0"), index.byDate)
+        );
+    }
+
+    @Test
+    void countsOnlyItemsThatAdapt() {
+        Map<String, Object> withoutAuthor = properties(2022);
+        withoutAuthor.remove("author");
+        Resource component = component("articles",
+                item("item0", 2021), item("item1", withoutAuthor), item("item2", 2023));
+
+        ArticleDetailsModel.ArticleIndex index = new ArticleDetailsModel.ArticleIndex(component);
+
+        assertAll(
+                () -> assertEquals(Arrays.asList("item0", "item2"), index.authored),
+                () -> assertEquals(Arrays.asList("item2", "item0"), index.byDate)
+        );
+    }
+
+    @Test
+    void adaptsOnlyTheItemsOfThePage() {
+        Resource[] items = new Resource[5];
+        for (int i = 0; i < items.length; i++) {
+            items[i] = item("item" + i, 2020 + i);
+            when(items[i].adaptTo(ArticleItem.class)).thenReturn(mock(ArticleItem.class));
+        }
+        Resource component = component("article", items);
+        ArticleDetailsModel.ArticleIndex index = new ArticleDetailsModel.ArticleIndex(component);
+
+        List<ArticleItem> page = index.page(component, index.authored, 2, 2);
+        List<ArticleItem> beyond = index.page(component, index.authored, 4, 2);
+
+        assertAll(
+                () -> assertEquals(2, page.size()),
+                () -> assertTrue(beyond.isEmpty()),
+                () -> verify(items[0], never()).adaptTo(ArticleItem.class),
+                () -> verify(items[2]).adaptTo(ArticleItem.class),
+                () -> verify(items[3]).adaptTo(ArticleItem.class),
+                () -> verify(items[4], never()).adaptTo(ArticleItem.class)
+        );
+    }
+
+    @Test
+    void componentWithoutArticlesHasAnEmptyIndex() {
+        Resource component = mock(Resource.class);
+
+        ArticleDetailsModel.ArticleIndex index = new ArticleDetailsModel.ArticleIndex(component);
+
+        assertAll(
+                () -> assertTrue(index.authored.isEmpty()),
+                () -> assertTrue(index.page(component, index.authored, 1, 10).isEmpty())
+        );
+    }
+
+    @Test
+    void readsPageAndSizeSelectors() {
+        String[] selectors = { "model", "page-3", "size-20" };
+
+        assertAll(
+                () -> assertEquals(3, ArticleDetailsModel.selector(selectors, ArticleDetailsModel.PAGE_SELECTOR, 1)),
+                () -> assertEquals(20, ArticleDetailsModel.selector(selectors, ArticleDetailsModel.SIZE_SELECTOR, 10)),
+                () -> assertEquals(1, ArticleDetailsModel.selector(new String[] { "page-x" },
+                        ArticleDetailsModel.PAGE_SELECTOR, 1)),
+                () -> assertEquals(10, ArticleDetailsModel.selector(new String[0],
+                        ArticleDetailsModel.SIZE_SELECTOR, 10))
+        );
+    }
+
+    private static Resource component(String multifieldName, Resource... items) {
+        Resource multifield = mock(Resource.class);
+        when(multifield.getName()).thenReturn(multifieldName);
+        List<Resource> children = new ArrayList<>(Arrays.asList(items));
+        when(multifield.getChildren()).thenReturn(children);
+        for (Resource item : items) {
+            String name = item.getName();
+            when(multifield.getChild(name)).thenReturn(item);
+        }
+        Resource component = mock(Resource.class);
+        when(component.getChild(multifieldName)).thenReturn(multifield);
+        return component;
+    }
+
+    private static Resource item(String name, Integer year) {
+        return item(name, properties(year));
+    }
+
+    private static Resource item(String name, Map<String, Object> properties) {
+        Resource item = mock(Resource.class);
+        when(item.getName()).thenReturn(name);
+        when(item.getValueMap()).thenReturn(new ValueMapDecorator(properties));
+        return item;
+    }
+
+    private static Map<String, Object> properties(Integer year) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("artTitle", "Title");
+        properties.put("artDescription", "Description");
+        properties.put("author", "Author");
+        if (year != null) {
+            Calendar date = Calendar.getInstance();
+            date.clear();
+            date.set(year, Calendar.JANUARY, 1);
+            properties.put("date", date);
+        }
+        return properties;
+    }
+}
@@ -0,0 +1,111 @@
+package com.adobe.aem.tutorial.core.models;
+
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.ResourceResolverFactory;
+import org.apache.sling.api.resource.observation.ResourceChange;
+import org.apache.sling.api.resource.observation.ResourceChange.ChangeType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ArticleFeedTest {
+
+    @Mock
+    private ResourceResolverFactory resolverFactory;
+
+    @Mock
+    private ResourceResolver resolver;
+
+    @InjectMocks
+    private ArticleFeed feed;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        lenient().when(resolverFactory.getServiceResourceResolver(anyMap())).thenReturn(resolver);
+        ArticleFeed.Config config = mock(ArticleFeed.Config.class);
+        when(config.maxItems()).thenReturn(3);
+        when(config.cacheSeconds()).thenReturn(600L);
+        when(config.maxCachedFeeds()).thenReturn(10);
+        feed.activate(config);
+    }
+
+    @Test
+    void queriesOnlyTheTaggedIndexAndNeverTraverses() {
+        String statement = ArticleFeed.statement("O'Brien");
+
+        assertAll(
+                () -> assertTrue(statement.contains("ISDESCENDANTNODE(article, '/content/FutureConcepts')")),
+                () -> assertTrue(statement.contains("article.[author] = 'O''Brien'")),
+                () -> assertTrue(statement.contains("ORDER BY article.[date] DESC")),
+                () -> assertTrue(statement.endsWith("OPTION(TRAVERSAL FAIL, INDEX TAG futureconceptsArticles)"))
+        );
+    }
+
+    @Test
+    void reusesFeedUntilContentChanges() {
+        when(resolver.findResources(anyString(), eq("JCR-SQL2")))
+                .thenAnswer(invocation -> items(5).iterator());
+
+        List<ArticleFeed.Entry> first = feed.latest(2, null);
+        List<ArticleFeed.Entry> capped = feed.latest(10, " ");
+        feed.onChange(Collections.singletonList(new ResourceChange(ChangeType.CHANGED,
+                "/content/FutureConcepts/us/jcr:content/root/articles/articles/item0", false)));
+        feed.latest(2, "");
+
+        assertAll(
+                () -> assertEquals(2, first.size()),
+                () -> assertEquals("/content/FutureConcepts/us", first.get(0).getPagePath()),
+                () -> assertEquals(3, capped.size()),
+                () -> verify(resolver, times(2)).findResources(anyString(), eq("JCR-SQL2"))
+        );
+    }
+
+    @Test
+    void failedQueryIsNotCached() {
+        when(resolver.findResources(anyString(), eq("JCR-SQL2")))
+                .thenThrow(new IllegalStateException("Traversal query not allowed"))
+                .thenAnswer(invocation -> items(1).iterator());
+
+        List<ArticleFeed.Entry> failed = feed.latest(5, "Jane");
+        List<ArticleFeed.Entry> recovered = feed.latest(5, "Jane");
+
+        assertAll(
+                () -> assertTrue(failed.isEmpty()),
+                () -> assertEquals(1, recovered.size())
+        );
+    }
+
+    private static List<Resource> items(int count) {
+        List<Resource> items = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Resource item = mock(Resource.class);
+            // Items after the configured maximum are never read.
+            lenient().when(item.getPath())
+                    .thenReturn("/content/FutureConcepts/us/jcr:content/root/articles/articles/item" + i);
+            lenient().when(item.adaptTo(ArticleItem.class)).thenReturn(mock(ArticleItem.class));
+            items.add(item);
+        }
+        return items;
+    }
+}
@@ -0,0 +1,92 @@
+package com.adobe.aem.tutorial.core.models;
+
+import com.day.cq.dam.api.Asset;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.osgi.framework.BundleContext;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ImageRenditionsTest {
+
+    private static final String HERO = "/content/dam/FutureConcepts/hero banner.jpg";
+
+    @TempDir
+    Path cacheDirectory;
+
+    private final ImageRenditions renditions = new ImageRenditions();
+    private final ResourceResolver resolver = mock(ResourceResolver.class);
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ImageRenditions.Config config = mock(ImageRenditions.Config.class);
+        when(config.widths()).thenReturn(new int[] { 1280, 320, 640, 0 });
+        when(config.quality()).thenReturn(82);
+        when(config.cacheDirectory()).thenReturn(cacheDirectory.toString());
+        when(config.maxCacheMegabytes()).thenReturn(10L);
+        renditions.activate(config, mock(BundleContext.class));
+    }
+
+    @Test
+    void offersConfiguredWidthsUpToTheOriginal() {
+        asset(HERO, "image/jpeg", "1000");
+
+        ResponsiveImage image = renditions.responsive(resolver, HERO);
+
+        String prefix = "/content/dam/FutureConcepts/hero%20banner.jpg.fcimg.";
+        int extraFormats = (ImageRenditions.Format.AVIF.isEncodable() ? 1 : 0)
+                + (ImageRenditions.Format.WEBP.isEncodable() ? 1 : 0);
+        assertAll(
+                () -> assertEquals(prefix + "640.jpg/1700000000000.jpg", image.getSrc()),
+                () -> assertEquals(prefix + "320.jpg/1700000000000.jpg 320w, "
+                        + prefix + "640.jpg/1700000000000.jpg 640w", image.getSrcset()),
+                () -> assertEquals(extraFormats, image.getSources().size()),
+                () -> assertTrue(renditions.isWidth(1280)),
+                () -> assertFalse(renditions.isWidth(1000))
+        );
+    }
+
+    @Test
+    void keepsImagesThatCannotBeScaled() {
+        asset("/content/dam/FutureConcepts/logo.svg", "image/svg+xml", null);
+
+        ResponsiveImage image = renditions.responsive(resolver, "/content/dam/FutureConcepts/logo.svg");
+
+        assertAll(
+                () -> assertEquals("/content/dam/FutureConcepts/logo.svg", image.getSrc()),
+                () -> assertNull(image.getSrcset()),
+                () -> assertNull(renditions.responsive(resolver, null))
+        );
+    }
+
+    @Test
+    void readsBoundingWidthOfWebRenditions() {
+        assertAll(
+                () -> assertEquals(1280, ImageRenditions.boundingWidth("cq5dam.web.1280.1280.jpeg")),
+                () -> assertEquals(319, ImageRenditions.boundingWidth("cq5dam.thumbnail.319.319.png")),
+                () -> assertEquals(-1, ImageRenditions.boundingWidth("original"))
+        );
+    }
+
+    private void asset(String path, String mimeType, String width) {
+        Asset asset = mock(Asset.class);
+        when(asset.getPath()).thenReturn(path);
+        when(asset.getMimeType()).thenReturn(mimeType);
+        when(asset.getLastModified()).thenReturn(1700000000000L);
+        when(asset.getMetadataValue("tiff:ImageWidth")).thenReturn(width);
+        Resource resource = mock(Resource.class);
+        when(resource.adaptTo(Asset.class)).thenReturn(asset);
+        when(resolver.getResource(path)).thenReturn(resource);
+    }
+}
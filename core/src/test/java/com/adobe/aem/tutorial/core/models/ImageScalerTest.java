@@ -0,0 +1,59 @@
+package com.adobe.aem.tutorial.core.models;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImageScalerTest {
+
+    @Test
+    void scalesLargeImageDownToWidth() throws Exception {
+        byte[] original = png(2000, 1000, BufferedImage.TYPE_INT_RGB);
+        ByteArrayOutputStream scaled = new ByteArrayOutputStream();
+
+        ImageScaler.scale(new ByteArrayInputStream(original), 300, "image/jpeg", 0.8f, scaled);
+
+        BufferedImage result = ImageIO.read(new ByteArrayInputStream(scaled.toByteArray()));
+        assertAll(
+                () -> assertEquals(2000, ImageScaler.width(new ByteArrayInputStream(original))),
+                () -> assertEquals(300, result.getWidth()),
+                () -> assertEquals(150, result.getHeight())
+        );
+    }
+
+    @Test
+    void neverUpscalesAndKeepsTransparencyInPng() throws Exception {
+        byte[] original = png(200, 100, BufferedImage.TYPE_INT_ARGB);
+        ByteArrayOutputStream scaled = new ByteArrayOutputStream();
+
+        ImageScaler.scale(new ByteArrayInputStream(original), 640, "image/png", 0.8f, scaled);
+
+        BufferedImage result = ImageIO.read(new ByteArrayInputStream(scaled.toByteArray()));
+        assertAll(
+                () -> assertEquals(200, result.getWidth()),
+                () -> assertTrue(result.getColorModel().hasAlpha()),
+                () -> assertFalse(ImageScaler.canRead("image/svg+xml"))
+        );
+    }
+
+    private static byte[] png(int width, int height, int type) throws Exception {
+        BufferedImage image = new BufferedImage(width, height, type);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.ORANGE);
+        graphics.fillRect(0, 0, width / 2, height);
+        graphics.dispose();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
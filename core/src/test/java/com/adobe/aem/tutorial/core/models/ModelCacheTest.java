@@ -0,0 +1,168 @@
+package com.adobe.aem.tutorial.core.models;
+
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.observation.ResourceChange;
+import org.apache.sling.api.resource.observation.ResourceChange.ChangeType;
+import org.apache.sling.api.wrappers.ValueMapDecorator;
+import org.apache.sling.commons.metrics.Counter;
+import org.apache.sling.commons.metrics.MetricsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ModelCacheTest {
+
+    private static final String HEADER = "/content/FutureConcepts/us/jcr:content/root/header";
+
+    @Mock
+    private MetricsService metricsService;
+
+    @Mock
+    private Counter hits;
+
+    @Mock
+    private Counter misses;
+
+    @Mock
+    private Counter invalidations;
+
+    @InjectMocks
+    private ModelCache cache;
+
+    private final Map<String, Object> properties = new HashMap<>();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        when(metricsService.counter("futureconcepts.modelcache.hits")).thenReturn(hits);
+        when(metricsService.counter("futureconcepts.modelcache.misses")).thenReturn(misses);
+        when(metricsService.counter("futureconcepts.modelcache.invalidations")).thenReturn(invalidations);
+        ModelCache.Config config = mock(ModelCache.Config.class);
+        when(config.maxEntries()).thenReturn(2);
+        cache.activate(config);
+        properties.put("cq:lastModified", calendar(1000));
+    }
+
+    @Test
+    void loadsOncePerVersion() {
+        Resource header = resource(HEADER);
+
+        String first = load(header);
+        String second = load(header);
+        properties.put("cq:lastModified", calendar(2000));
+        String changed = load(header);
+
+        assertAll(
+                () -> assertEquals("v1", first),
+                () -> assertEquals("v1", second),
+                () -> assertEquals("v2", changed),
+                () -> assertEquals(2, loads.get())
+        );
+    }
+
+    @Test
+    void changeBelowCachedResourceInvalidatesIt() {
+        Resource header = resource(HEADER);
+        load(header);
+
+        cache.onChange(Collections.singletonList(
+                new ResourceChange(ChangeType.CHANGED, HEADER + "/plansDropdown/item0", false)));
+        load(header);
+        cache.onChange(Collections.singletonList(
+                new ResourceChange(ChangeType.CHANGED, "/content/FutureConcepts/us/jcr:content/root/hero", false)));
+        load(header);
+
+        assertEquals(2, loads.get());
+        verify(invalidations).increment();
+    }
+
+    @Test
+    void removedPageInvalidatesComponentsBelowIt() {
+        Resource header = resource(HEADER);
+        load(header);
+
+        cache.onChange(Collections.singletonList(
+                new ResourceChange(ChangeType.REMOVED, "/content/FutureConcepts/us", true)));
+        load(header);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void changeElsewhereWhileLoadingDoesNotKeepTheValueOutOfTheCache() {
+        Resource header = resource(HEADER);
+        loadDuring(header, new ResourceChange(ChangeType.ADDED, "/content/FutureConcepts/us/imported", false));
+        load(header);
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void changeToTheResourceWhileLoadingKeepsTheValueOutOfTheCache() {
+        Resource header = resource(HEADER);
+        loadDuring(header, new ResourceChange(ChangeType.CHANGED, HEADER + "/plansDropdown/item0", false));
+        load(header);
+        loadDuring(header, new ResourceChange(ChangeType.REMOVED, "/content/FutureConcepts/us", true));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedResource() {
+        Resource header = resource(HEADER);
+        load(header);
+        load(resource("/content/FutureConcepts/us/jcr:content/root/footer"));
+        load(header);
+        load(resource("/content/FutureConcepts/es/jcr:content/root/footer"));
+        load(header);
+
+        assertEquals(3, loads.get());
+        verify(hits, times(2)).increment();
+        verify(misses, times(3)).increment();
+    }
+
+    private String load(Resource resource) {
+        return cache.get(resource, String.class, r -> {
+            loads.incrementAndGet();
+            return ((Calendar) properties.get("cq:lastModified")).getTimeInMillis() == 1000 ? "v1" : "v2";
+        });
+    }
+
+    private void loadDuring(Resource resource, ResourceChange change) {
+        cache.get(resource, String.class, r -> {
+            loads.incrementAndGet();
+            cache.onChange(Collections.singletonList(change));
+            return "v1";
+        });
+    }
+
+    private Resource resource(String path) {
+        Resource resource = mock(Resource.class);
+        when(resource.getPath()).thenReturn(path);
+        when(resource.getValueMap()).thenAnswer(invocation -> new ValueMapDecorator(new HashMap<>(properties)));
+        return resource;
+    }
+
+    private static Calendar calendar(long millis) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(millis);
+        return calendar;
+    }
+}
@@ -0,0 +1,64 @@
+package com.adobe.aem.tutorial.core.models;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RenditionDiskCacheTest {
+
+    @TempDir
+    Path directory;
+
+    private final AtomicInteger generated = new AtomicInteger();
+
+    @Test
+    void generatesOnceAndEvictsLeastRecentlyUsed() throws Exception {
+        RenditionDiskCache cache = new RenditionDiskCache(directory, 250);
+        cache.open();
+
+        Path first = get(cache, "first.jpg");
+        get(cache, "second.jpg");
+        get(cache, "first.jpg");
+        get(cache, "third.jpg");
+
+        assertAll(
+                () -> assertEquals(3, generated.get()),
+                () -> assertTrue(Files.exists(first)),
+                () -> assertFalse(Files.exists(directory.resolve("second.jpg"))),
+                () -> assertEquals(200, cache.getTotalBytes())
+        );
+    }
+
+    @Test
+    void reopensWithFilesOfPreviousRunAndDropsPartialOnes() throws Exception {
+        RenditionDiskCache cache = new RenditionDiskCache(directory, 1000);
+        cache.open();
+        get(cache, "kept.png");
+        Files.write(directory.resolve("kept.png12345.tmp"), new byte[10]);
+
+        RenditionDiskCache reopened = new RenditionDiskCache(directory, 1000);
+        reopened.open();
+        get(reopened, "kept.png");
+
+        assertAll(
+                () -> assertEquals(1, generated.get()),
+                () -> assertEquals(100, reopened.getTotalBytes()),
+                () -> assertFalse(Files.exists(directory.resolve("kept.png12345.tmp")))
+        );
+    }
+
+    private Path get(RenditionDiskCache cache, String key) throws Exception {
+        return cache.get(key, out -> {
+            generated.incrementAndGet();
+            out.write(new byte[100]);
+        });
+    }
+}
@@ -0,0 +1,159 @@
+package com.adobe.aem.tutorial.core.servlets;
+
+import com.adobe.aem.tutorial.core.models.ModelCache;
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.api.SlingHttpServletResponse;
+import org.apache.sling.api.request.RequestPathInfo;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.models.factory.ExportException;
+import org.apache.sling.models.factory.ModelFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CachedModelJsonServletTest {
+
+    private static final String JSON = "{\"brandName\":\"TXU Energy\",\":type\":\"FutureConcepts/components/header\"}";
+
+    @Mock
+    private ModelFactory modelFactory;
+
+    @Mock
+    private ModelCache modelCache;
+
+    @Mock
+    private SlingHttpServletRequest request;
+
+    @Mock
+    private SlingHttpServletResponse response;
+
+    @Mock
+    private Resource resource;
+
+    @InjectMocks
+    private CachedModelJsonServlet servlet;
+
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws Exception {
+        lenient().when(request.getResource()).thenReturn(resource);
+        lenient().when(resource.getPath()).thenReturn("/content/FutureConcepts/us/jcr:content/root/header");
+        lenient().when(modelCache.get(eq(resource), eq(CachedModelJsonServlet.SerializedModel.class), any()))
+                .thenAnswer(invocation -> ((Function<Resource, ?>) invocation.getArgument(2)).apply(resource));
+        lenient().when(response.getOutputStream()).thenReturn(new ServletOutputStream() {
+            @Override
+            public void write(int b) {
+                body.write(b);
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+            }
+        });
+    }
+
+    @Test
+    void writesExporterOutputWithStrongETag() throws Exception {
+        when(modelFactory.exportModelForResource(eq(resource), eq("jackson"), eq(String.class), anyMap()))
+                .thenReturn(JSON);
+
+        servlet.doGet(request, response);
+
+        String etag = etag();
+        assertAll(
+                () -> assertEquals(JSON, body.toString(StandardCharsets.UTF_8.name())),
+                () -> assertTrue(etag.startsWith("\"") && etag.endsWith("\"") && etag.length() > 2),
+                () -> verify(response).setContentType("application/json"),
+                () -> verify(response).setContentLength(JSON.getBytes(StandardCharsets.UTF_8).length)
+        );
+    }
+
+    @Test
+    void answersNotModifiedWhenETagMatches() throws Exception {
+        when(modelFactory.exportModelForResource(eq(resource), eq("jackson"), eq(String.class), anyMap()))
+                .thenReturn(JSON);
+        servlet.doGet(request, response);
+        String etag = etag();
+
+        when(request.getHeader("If-None-Match")).thenReturn("\"stale\", " + etag);
+        body.reset();
+        servlet.doGet(request, response);
+
+        assertEquals(0, body.size());
+        verify(response).setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+    }
+
+    @Test
+    void failedExportIsAnError() throws Exception {
+        when(modelFactory.exportModelForResource(eq(resource), eq("jackson"), eq(String.class), anyMap()))
+                .thenThrow(new ExportException("broken"));
+
+        servlet.doGet(request, response);
+
+        verify(response).sendError(eq(HttpServletResponse.SC_INTERNAL_SERVER_ERROR), any());
+        verify(response, never()).getOutputStream();
+    }
+
+    @Test
+    void leavesFurtherSelectorsToTheExporter() {
+        RequestPathInfo model = mock(RequestPathInfo.class);
+        when(model.getSelectors()).thenReturn(new String[] { "model" });
+        RequestPathInfo tidy = mock(RequestPathInfo.class);
+        when(tidy.getSelectors()).thenReturn(new String[] { "model", "tidy" });
+        when(request.getRequestPathInfo()).thenReturn(model, tidy);
+
+        assertAll(
+                () -> assertTrue(servlet.accepts(request)),
+                () -> assertFalse(servlet.accepts(request))
+        );
+        verify(modelCache, never()).get(any(), any(), any());
+    }
+
+    @Test
+    void matchesListedOrWildcardETags() {
+        assertAll(
+                () -> assertTrue(CachedModelJsonServlet.matches("\"a\", \"b\"", "\"b\"")),
+                () -> assertTrue(CachedModelJsonServlet.matches("*", "\"b\"")),
+                () -> assertFalse(CachedModelJsonServlet.matches("W/\"b\"", "\"b\"")),
+                () -> assertFalse(CachedModelJsonServlet.matches(null, "\"b\""))
+        );
+    }
+
+    private String etag() {
+        ArgumentCaptor<String> etag = ArgumentCaptor.forClass(String.class);
+        verify(response).setHeader(eq("ETag"), etag.capture());
+        return etag.getValue();
+    }
+}
@@ -0,0 +1,142 @@
+package com.adobe.aem.tutorial.core.servlets;
+
+import com.adobe.aem.tutorial.core.workflow.ImportProgressTracker;
+import org.apache.jackrabbit.api.security.user.Group;
+import org.apache.jackrabbit.api.security.user.User;
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.api.SlingHttpServletResponse;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ExcelImportStatusServletTest {
+
+    private static final String READABLE = "/content/dam/FutureConcepts/imports/home.xlsx";
+    private static final String HIDDEN = "/content/dam/restricted/imports/pricing.xlsx";
+
+    @Spy
+    private ImportProgressTracker progressTracker = new ImportProgressTracker();
+
+    @Mock
+    private SlingHttpServletRequest request;
+
+    @Mock
+    private SlingHttpServletResponse response;
+
+    @Mock
+    private ResourceResolver resolver;
+
+    @Mock
+    private User user;
+
+    @InjectMocks
+    private ExcelImportStatusServlet servlet;
+
+    private final StringWriter body = new StringWriter();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ExcelImportStatusServlet.Config config = mock(ExcelImportStatusServlet.Config.class);
+        when(config.allowedGroups()).thenReturn(new String[] { "workflow-administrators" });
+        servlet.activate(config);
+
+        progressTracker.start(READABLE);
+        progressTracker.start(HIDDEN);
+        when(request.getResourceResolver()).thenReturn(resolver);
+        when(resolver.adaptTo(User.class)).thenReturn(user);
+        lenient().when(resolver.getResource(READABLE)).thenReturn(mock(Resource.class));
+        lenient().when(response.getWriter()).thenReturn(new PrintWriter(body));
+    }
+
+    @Test
+    void listsOnlyImportsOfReadableSourcesToGroupMembers() throws Exception {
+        memberOf("workflow-administrators");
+
+        servlet.doGet(request, response);
+
+        assertAll(
+                () -> assertTrue(body.toString().contains(READABLE)),
+                () -> assertFalse(body.toString().contains(HIDDEN))
+        );
+    }
+
+    @Test
+    void hidesImportOfUnreadableSource() throws Exception {
+        memberOf("workflow-administrators");
+        when(request.getParameter("source")).thenReturn(HIDDEN);
+
+        servlet.doGet(request, response);
+
+        verify(response).sendError(HttpServletResponse.SC_NOT_FOUND, "No import tracked for " + HIDDEN);
+    }
+
+    @Test
+    void showsLanguageCopiesAndDropFolderImportsToReadersOfTheirPageParent() throws Exception {
+        memberOf("workflow-administrators");
+        progressTracker.start(READABLE + " [es]", "/content/FutureConcepts/es");
+        progressTracker.start("/mnt/dropfolder/processing/home.csv", "/content/FutureConcepts/us");
+        progressTracker.start(HIDDEN + " [es]", "/content/restricted/es");
+        lenient().when(resolver.getResource("/content/FutureConcepts/es")).thenReturn(mock(Resource.class));
+        lenient().when(resolver.getResource("/content/FutureConcepts/us")).thenReturn(mock(Resource.class));
+
+        servlet.doGet(request, response);
+
+        assertAll(
+                () -> assertTrue(body.toString().contains(READABLE + " [es]")),
+                () -> assertTrue(body.toString().contains("/mnt/dropfolder/processing/home.csv")),
+                () -> assertFalse(body.toString().contains(HIDDEN))
+        );
+    }
+
+    @Test
+    void reportsALanguageCopyBySource() throws Exception {
+        memberOf("workflow-administrators");
+        progressTracker.start(READABLE + " [es]", "/content/FutureConcepts/es");
+        when(resolver.getResource("/content/FutureConcepts/es")).thenReturn(mock(Resource.class));
+        when(request.getParameter("source")).thenReturn(READABLE + " [es]");
+
+        servlet.doGet(request, response);
+
+        assertTrue(body.toString().contains("\"repositoryPath\":\"/content/FutureConcepts/es\""));
+        verify(response, never()).sendError(anyInt(), anyString());
+    }
+
+    @Test
+    void forbidsUsersOutsideTheAllowedGroups() throws Exception {
+        memberOf("contributor");
+
+        servlet.doGet(request, response);
+
+        verify(response).sendError(HttpServletResponse.SC_FORBIDDEN);
+        assertTrue(body.toString().isEmpty());
+    }
+
+    private void memberOf(String groupId) throws Exception {
+        Group group = mock(Group.class);
+        when(group.getID()).thenReturn(groupId);
+        when(user.memberOf()).thenReturn(Collections.singletonList(group).iterator());
+    }
+}
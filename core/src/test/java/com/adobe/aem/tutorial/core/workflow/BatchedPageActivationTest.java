@@ -0,0 +1,36 @@
+package com.adobe.aem.tutorial.core.workflow;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BatchedPageActivationTest {
+
+    @Test
+    void groupsPagesIntoBatchesAndReportsFailedBatches() throws Exception {
+        List<List<String>> requests = Collections.synchronizedList(new ArrayList<>());
+        BatchedPageActivation.ReplicationAgent agent = paths -> {
+            requests.add(Arrays.asList(paths));
+            if (Arrays.asList(paths).contains("/content/FutureConcepts/us/broken")) {
+                throw new IllegalStateException("agent blocked");
+            }
+        };
+
+        BatchedPageActivation.Report report = new BatchedPageActivation(agent, 2, 2).activate(Arrays.asList(
+                "/content/FutureConcepts/us/a", "/content/FutureConcepts/us/b", "/content/FutureConcepts/us/a",
+                "/content/FutureConcepts/us/c", "/content/FutureConcepts/us/broken"));
+
+        assertAll(
+                () -> assertEquals(2, requests.size()),
+                () -> assertEquals(2, report.getActivated()),
+                () -> assertEquals(Arrays.asList("/content/FutureConcepts/us/c", "/content/FutureConcepts/us/broken"),
+                        report.getFailed())
+        );
+    }
+}
@@ -0,0 +1,88 @@
+package com.adobe.aem.tutorial.core.workflow;
+
+import com.adobe.aem.tutorial.core.testcontext.AppAemContext;
+import io.wcm.testing.mock.aem.junit5.AemContext;
+import io.wcm.testing.mock.aem.junit5.AemContextExtension;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.ResourceResolverFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.ByteArrayInputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(AemContextExtension.class)
+class BulkExcelImportTest {
+
+    private static final String FOLDER = "/content/dam/FutureConcepts/imports/";
+    private static final String XLSX = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+
+    private final AemContext context = AppAemContext.newAemContext();
+
+    private final Set<ResourceResolver> resolvers = ConcurrentHashMap.newKeySet();
+    private final Set<String> threads = ConcurrentHashMap.newKeySet();
+    private ResourceResolverFactory resolverFactory;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        for (String name : Arrays.asList("home.xlsx", "about.xlsx", "broken.xlsx")) {
+            context.create().asset(FOLDER + name, new ByteArrayInputStream(new byte[0]), XLSX);
+        }
+        context.resourceResolver().commit();
+        resolverFactory = context.getService(ResourceResolverFactory.class);
+    }
+
+    @Test
+    void importsEveryFileInItsOwnSessionAndRecordsFailuresPerFile() throws Exception {
+        BulkExcelImport bulkImport = new BulkExcelImport(resolverFactory, (resolver, asset) -> {
+            resolvers.add(resolver);
+            threads.add(Thread.currentThread().getName());
+            if (asset.getName().startsWith("broken")) {
+                throw new IllegalArgumentException("Sheet has no ComponentName column");
+            }
+            return ImportResult.success(asset.getPath(), "/content/FutureConcepts/en/" + asset.getName(), 10, 2, 5);
+        }, 2);
+
+        BulkExcelImport.Report report = bulkImport.run(Arrays.asList(FOLDER + "home.xlsx", FOLDER + "about.xlsx",
+                FOLDER + "broken.xlsx", FOLDER + "missing.xlsx"));
+
+        List<ImportResult> results = report.getResults();
+        assertAll(
+                () -> assertEquals(4, results.size()),
+                () -> assertEquals(FOLDER + "home.xlsx", results.get(0).getSource()),
+                () -> assertTrue(results.get(1).isSuccess()),
+                () -> assertFalse(results.get(2).isSuccess()),
+                () -> assertEquals(FOLDER + "missing.xlsx", results.get(3).getSource()),
+                () -> assertFalse(results.get(3).isSuccess()),
+                () -> assertEquals(2, report.getFailed()),
+                () -> assertEquals(3, resolvers.size()),
+                () -> assertFalse(resolvers.contains(context.resourceResolver())),
+                () -> assertTrue(threads.stream().allMatch(thread -> thread.startsWith("excel-import-worker-"))),
+                () -> assertTrue(report.getSummary().startsWith("2 of 4 file(s) imported, 20 row(s)"))
+        );
+    }
+
+    @Test
+    void emptyFolderImportsNothing() throws Exception {
+        BulkExcelImport bulkImport = new BulkExcelImport(resolverFactory, (resolver, asset) -> {
+            throw new AssertionError("No asset to import");
+        }, 4);
+
+        BulkExcelImport.Report report = bulkImport.run(Collections.emptyList());
+
+        assertAll(
+                () -> assertTrue(report.getResults().isEmpty()),
+                () -> assertEquals(0, report.getFailed())
+        );
+    }
+}
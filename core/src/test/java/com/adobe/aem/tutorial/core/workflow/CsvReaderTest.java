@@ -0,0 +1,46 @@
+package com.adobe.aem.tutorial.core.workflow;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CsvReaderTest {
+
+    @Test
+    void readsQuotedFieldsAcrossLines() throws Exception {
+        String csv = "\uFEFFComponentName, groupId ,title,description\r\n"
+                + "herocomponent,g1,\"Hello, \"\"World\"\"\",\"first line\nsecond line\"\r\n"
+                + "\r\n"
+                + "tilecomponent,g2\n"
+                + "tilecomponent,g3,Tile,Text,surplus";
+
+        SheetTable table = SheetTable.read(new CsvReader(),
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(3, table.getRowCount());
+        SheetRow hero = table.row(0);
+        SheetRow shortRow = table.row(1);
+        SheetRow longRow = table.row(2);
+        assertAll(
+                () -> assertEquals("herocomponent", hero.get("ComponentName")),
+                () -> assertEquals("g1", hero.get("groupId")),
+                () -> assertEquals("Hello, \"World\"", hero.get("title")),
+                () -> assertEquals("first line\nsecond line", hero.get("description")),
+                () -> assertEquals("g2", shortRow.get("groupId")),
+                () -> assertEquals("", shortRow.get("title")),
+                () -> assertEquals("Text", longRow.get("description")),
+                () -> assertEquals(4, table.getHeader().size())
+        );
+    }
+
+    @Test
+    void emptyInputHasNoRows() throws Exception {
+        SheetTable table = SheetTable.read(new CsvReader(), new ByteArrayInputStream(new byte[0]));
+
+        assertEquals(0, table.getRowCount());
+    }
+}
@@ -0,0 +1,81 @@
+package com.adobe.aem.tutorial.core.workflow;
+
+import com.day.cq.dam.api.Asset;
+import com.day.cq.dam.api.Rendition;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DamReferenceResolverTest {
+
+    private static final String HERO = "/content/dam/FutureConcepts/hero.png";
+    private static final String WEB = HERO + "/jcr:content/renditions/cq5dam.web.1280.1280.jpeg";
+    private static final String MISSING = "/content/dam/FutureConcepts/missing.png";
+
+    @Test
+    void looksUpEachPathOnceAndRewritesToRendition() throws Exception {
+        ResourceResolver resolver = mock(ResourceResolver.class);
+        Resource resource = mock(Resource.class);
+        Asset asset = mock(Asset.class);
+        Rendition rendition = mock(Rendition.class);
+        when(resolver.getResource(HERO)).thenReturn(resource);
+        when(resource.adaptTo(Asset.class)).thenReturn(asset);
+        when(asset.getRendition("cq5dam.web.1280.1280.jpeg")).thenReturn(rendition);
+        when(rendition.getPath()).thenReturn(WEB);
+
+        DamReferenceResolver references = new DamReferenceResolver(10, 60_000L,
+                new String[] { "cq5dam.web.1280.1280.jpeg" }, ImportMetrics.NOOP);
+        SheetTable first = table("ComponentName,image,image2\n"
+                + "tilecomponent," + HERO + "," + HERO + "\n"
+                + "herocomponent," + MISSING + ",\n");
+        Set<String> broken = references.resolve(resolver, first);
+        references.resolve(resolver, table("ComponentName,image\nherocomponent," + HERO + "\n"));
+
+        assertAll(
+                () -> assertEquals(Collections.singleton(MISSING), broken),
+                () -> assertEquals(WEB, first.row(0).get("image")),
+                () -> assertEquals(WEB, first.row(0).get("image2")),
+                () -> assertEquals(MISSING, first.row(1).get("image"))
+        );
+        verify(resolver, times(1)).getResource(HERO);
+    }
+
+    @Test
+    void looksUpAgainOnceTheCachedPathExpired() throws Exception {
+        ResourceResolver resolver = mock(ResourceResolver.class);
+        when(resolver.getResource(HERO)).thenReturn(mock(Resource.class));
+        AtomicLong now = new AtomicLong(1_000_000L);
+        DamReferenceResolver references = new DamReferenceResolver(10, 60_000L, new String[0], ImportMetrics.NOOP,
+                now::get);
+
+        references.resolve(resolver, table("ComponentName,image\nherocomponent," + HERO + "\n"));
+        now.addAndGet(59_999L);
+        references.resolve(resolver, table("ComponentName,image\nherocomponent," + HERO + "\n"));
+        verify(resolver, times(1)).getResource(HERO);
+
+        // The asset was deleted meanwhile.
+        when(resolver.getResource(HERO)).thenReturn(null);
+        now.addAndGet(1L);
+        Set<String> broken = references.resolve(resolver, table("ComponentName,image\nherocomponent," + HERO + "\n"));
+
+        assertEquals(Collections.singleton(HERO), broken);
+        verify(resolver, times(2)).getResource(HERO);
+    }
+
+    private static SheetTable table(String csv) throws Exception {
+        return SheetTable.read(new CsvReader(), new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,105 @@
+package com.adobe.aem.tutorial.core.workflow;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DropFolderWatcherTest {
+
+    @TempDir
+    Path root;
+
+    @Test
+    void importsExistingAndNewFilesAndMovesThemByOutcome() throws Exception {
+        Path drop = root.resolve("drop");
+        Path processed = root.resolve("processed");
+        Path failed = root.resolve("failed");
+        Files.createDirectories(drop);
+        write(drop.resolve("waiting.csv"));
+
+        Set<String> imported = ConcurrentHashMap.newKeySet();
+        DropFolderWatcher watcher = new DropFolderWatcher(drop, processed, failed, file -> {
+            String name = file.getFileName().toString();
+            if (name.startsWith("broken")) {
+                throw new IllegalStateException("Unreadable sheet");
+            }
+            imported.add(name);
+        }, 2, 50);
+        watcher.start();
+        try {
+            write(drop.resolve("home.ndjson"));
+            write(drop.resolve("broken.csv"));
+            write(drop.resolve("notes.txt"));
+            write(drop.resolve("~$home.xlsx"));
+
+            awaitFile(processed.resolve("waiting.csv"));
+            awaitFile(processed.resolve("home.ndjson"));
+            awaitFile(failed.resolve("broken.csv"));
+        } finally {
+            watcher.stop();
+        }
+
+        assertAll(
+                () -> assertEquals(Set.of("waiting.csv", "home.ndjson"), imported),
+                () -> assertFalse(Files.exists(drop.resolve("home.ndjson"))),
+                () -> assertTrue(Files.exists(drop.resolve("notes.txt"))),
+                () -> assertTrue(Files.exists(drop.resolve("~$home.xlsx")))
+        );
+    }
+
+    @Test
+    void keepsEarlierFilesOfTheSameName() throws Exception {
+        Path drop = root.resolve("drop");
+        Path processed = root.resolve("processed");
+        Files.createDirectories(processed);
+        write(processed.resolve("home.csv"), "first");
+        write(processed.resolve("home-1.csv"), "second");
+
+        DropFolderWatcher watcher = new DropFolderWatcher(drop, processed, root.resolve("failed"), file -> { }, 1, 50);
+        watcher.start();
+        try {
+            write(drop.resolve("home.csv"), "third");
+            awaitFile(processed.resolve("home-2.csv"));
+        } finally {
+            watcher.stop();
+        }
+
+        assertAll(
+                () -> assertEquals("first", read(processed.resolve("home.csv"))),
+                () -> assertEquals("second", read(processed.resolve("home-1.csv"))),
+                () -> assertEquals("third", read(processed.resolve("home-2.csv")))
+        );
+    }
+
+    private static void write(Path file) throws Exception {
+        write(file, "Hello");
+    }
+
+    private static void write(Path file, String title) throws Exception {
+        Files.write(file, ("ComponentName,title\nherocomponent," + title + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String read(Path file) throws Exception {
+        String csv = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+        return csv.substring(csv.lastIndexOf(',') + 1).trim();
+    }
+
+    private static void awaitFile(Path file) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(20);
+        while (!Files.exists(file) && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertTrue(Files.exists(file), "Expected " + file);
+    }
+}
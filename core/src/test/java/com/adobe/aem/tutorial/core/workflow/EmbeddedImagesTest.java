@@ -0,0 +1,139 @@
+package com.adobe.aem.tutorial.core.workflow;
+
+import org.apache.poi.ss.usermodel.ClientAnchor;
+import org.apache.poi.ss.usermodel.Drawing;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.ResourceResolverFactory;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class EmbeddedImagesTest {
+
+    private static final byte[] PNG = { (byte) 0x89, 'P', 'N', 'G', 1, 2, 3 };
+    private static final byte[] JPEG = { (byte) 0xFF, (byte) 0xD8, (byte) 0xFF, 4, 5 };
+    private static final String FOLDER = "/content/dam/FutureConcepts/excelimport/home";
+
+    @Test
+    void uploadsEachPictureOnceAndSetsItOnItsAnchorRow() throws Exception {
+        byte[] workbook = workbook();
+        ResourceResolverFactory resolverFactory = mock(ResourceResolverFactory.class);
+        when(resolverFactory.getServiceResourceResolver(any())).thenAnswer(invocation -> mock(ResourceResolver.class));
+        Map<String, byte[]> uploads = new ConcurrentHashMap<>();
+        Map<String, String> mimeTypes = new ConcurrentHashMap<>();
+        EmbeddedImages images = new EmbeddedImages(resolverFactory, (resolver, damPath, binary, mimeType) -> {
+            uploads.put(damPath, binary.readAllBytes());
+            mimeTypes.put(damPath, mimeType);
+        }, 2, ImportMetrics.NOOP);
+
+        EmbeddedImages.Anchors anchors = images.upload(new ByteArrayInputStream(workbook), FOLDER);
+        SheetTable table = CreatePageFromExcelWorkflowProcess.parseExcel(new ByteArrayInputStream(workbook), anchors);
+        List<String> streamed = new ArrayList<>();
+        new StreamingExcelReader(anchors).read(new ByteArrayInputStream(workbook),
+                row -> streamed.add(row.get("image") + "|" + row.get("image2")));
+
+        String png = FOLDER + "/image1.png";
+        String jpeg = FOLDER + "/image2.jpeg";
+        assertAll(
+                () -> assertEquals(2, uploads.size()),
+                () -> assertArrayEquals(PNG, uploads.get(png)),
+                () -> assertArrayEquals(JPEG, uploads.get(jpeg)),
+                () -> assertEquals("image/png", mimeTypes.get(png)),
+                () -> assertEquals(3, anchors.size()),
+                () -> assertEquals(png, table.row(0).get("image")),
+                () -> assertEquals(jpeg, table.row(0).get("image2")),
+                () -> assertEquals("", table.row(1).get("title")),
+                () -> assertEquals(png, table.row(1).get("image")),
+                () -> assertEquals(png + "|" + jpeg, streamed.get(0)),
+                () -> assertEquals(png + "|", streamed.get(1))
+        );
+    }
+
+    @Test
+    void failedUploadsAreNotWired() throws Exception {
+        byte[] workbook = workbook();
+        ResourceResolverFactory resolverFactory = mock(ResourceResolverFactory.class);
+        when(resolverFactory.getServiceResourceResolver(any())).thenAnswer(invocation -> mock(ResourceResolver.class));
+        EmbeddedImages images = new EmbeddedImages(resolverFactory, (resolver, damPath, binary, mimeType) -> {
+            if (damPath.endsWith(".png")) {
+                throw new IllegalStateException("DAM unavailable");
+            }
+        }, 1, ImportMetrics.NOOP);
+
+        EmbeddedImages.Anchors anchors = images.upload(new ByteArrayInputStream(workbook), FOLDER);
+        SheetTable table = CreatePageFromExcelWorkflowProcess.parseExcel(new ByteArrayInputStream(workbook), anchors);
+
+        assertAll(
+                () -> assertEquals(1, anchors.size()),
+                () -> assertEquals("", table.row(0).get("image")),
+                () -> assertEquals(FOLDER + "/image2.jpeg", table.row(0).get("image2"))
+        );
+    }
+
+    @Test
+    void workbookWithoutPicturesUploadsNothing() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            workbook.createSheet().createRow(0).createCell(0).setCellValue("ComponentName");
+            workbook.write(out);
+        }
+        EmbeddedImages images = new EmbeddedImages(mock(ResourceResolverFactory.class),
+                (resolver, damPath, binary, mimeType) -> {
+                    throw new AssertionError("No upload expected");
+                }, 2, ImportMetrics.NOOP);
+
+        assertEquals(0, images.upload(new ByteArrayInputStream(out.toByteArray()), FOLDER).size());
+    }
+
+    /**
+     * A hero row with a PNG in its image cell and a JPEG in its image2 cell, an empty sheet row, then a
+     * tile row with the same PNG pasted over its title cell.
+     */
+    private static byte[] workbook() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet("components");
+            Row header = sheet.createRow(0);
+            String[] columns = { "ComponentName", "groupId", "title", "image", "image2" };
+            for (int column = 0; column < columns.length; column++) {
+                header.createCell(column).setCellValue(columns[column]);
+            }
+            sheet.createRow(1).createCell(0).setCellValue("herocomponent");
+            sheet.createRow(3).createCell(0).setCellValue("tilecomponent");
+
+            int png = workbook.addPicture(PNG, Workbook.PICTURE_TYPE_PNG);
+            int jpeg = workbook.addPicture(JPEG, Workbook.PICTURE_TYPE_JPEG);
+            Drawing<?> drawing = sheet.createDrawingPatriarch();
+            drawing.createPicture(anchor(workbook, 1, 3), png);
+            drawing.createPicture(anchor(workbook, 1, 4), jpeg);
+            drawing.createPicture(anchor(workbook, 3, 2), png);
+            workbook.write(out);
+        }
+        return out.toByteArray();
+    }
+
+    private static ClientAnchor anchor(Workbook workbook, int row, int column) {
+        ClientAnchor anchor = workbook.getCreationHelper().createClientAnchor();
+        anchor.setRow1(row);
+        anchor.setCol1(column);
+        anchor.setRow2(row + 1);
+        anchor.setCol2(column + 1);
+        return anchor;
+    }
+}
@@ -0,0 +1,107 @@
+package com.adobe.aem.tutorial.core.workflow;
+
+import com.adobe.aem.tutorial.core.testcontext.AppAemContext;
+import com.day.cq.wcm.api.Page;
+import io.wcm.testing.mock.aem.junit5.AemContext;
+import io.wcm.testing.mock.aem.junit5.AemContextExtension;
+import org.apache.sling.api.resource.ValueMap;
+import org.apache.sling.testing.mock.sling.ResourceResolverType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import javax.jcr.Node;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(AemContextExtension.class)
+class ImportCheckpointTest {
+
+    private static final String SOURCE = "/content/dam/FutureConcepts/imports/page.xlsx";
+
+    private final AemContext context = AppAemContext.newAemContextBuilder(ResourceResolverType.JCR_MOCK).build();
+
+    private Page page;
+
+    @BeforeEach
+    void setUp() {
+        page = context.create().page("/content/FutureConcepts/en/imported");
+    }
+
+    @Test
+    void resumesAfterTheLastCommittedGroup() throws Exception {
+        ImportCheckpoint interrupted = start(1000L);
+        interrupted.groupWritten(0, 0);
+        interrupted.groupWritten(1, 3);
+        // Group 2 is written but never committed, as if the workflow failed here.
+        interrupted.groupWritten(2, 4);
+
+        ImportCheckpoint resumed = start(1000L);
+
+        assertAll(
+                () -> assertEquals(2, interrupted.getCommits()),
+                () -> assertTrue(resumed.isResuming()),
+                () -> assertTrue(resumed.isGroupCommitted(1)),
+                () -> assertFalse(resumed.isGroupCommitted(2)),
+                () -> assertTrue(resumed.isRowCommitted(3)),
+                () -> assertFalse(resumed.isRowCommitted(4))
+        );
+
+        resumed.complete();
+        assertNull(page.getContentResource().getChild(ImportCheckpoint.NODE_NAME));
+    }
+
+    @Test
+    void startsOverWhenTheSourceChanged() throws Exception {
+        ImportCheckpoint interrupted = start(1000L);
+        interrupted.groupWritten(0, 0);
+        interrupted.groupWritten(1, 1);
+
+        ImportCheckpoint restarted = start(2000L);
+
+        ValueMap properties = page.getContentResource().getChild(ImportCheckpoint.NODE_NAME).getValueMap();
+        assertAll(
+                () -> assertFalse(ImportCheckpoint.isResumable(page, SOURCE, 1000L)),
+                () -> assertFalse(restarted.isResuming()),
+                () -> assertFalse(restarted.isGroupCommitted(0)),
+                () -> assertEquals(2000L, properties.get(ImportCheckpoint.PN_SOURCE_LAST_MODIFIED, Long.class)),
+                () -> assertEquals(-1L, properties.get(ImportCheckpoint.PN_LAST_COMMITTED_GROUP, Long.class))
+        );
+    }
+
+    @Test
+    void discardsTheHalfBuiltPageOfAnOlderVersion() throws Exception {
+        Node container = context.resourceResolver().getResource(page.getContentResource().getPath())
+                .adaptTo(Node.class).addNode("root").addNode("container");
+        container.addNode("herocomponent-h1", "nt:unstructured");
+        ImportCheckpoint interrupted = start(1000L);
+        interrupted.groupWritten(0, 0);
+        interrupted.groupWritten(1, 1);
+
+        boolean stale = ImportCheckpoint.isStale(page, SOURCE, 2000L);
+        ImportCheckpoint.discard(container.getParent().getParent(), container);
+        ImportCheckpoint restarted = start(2000L);
+
+        assertAll(
+                () -> assertTrue(stale),
+                () -> assertFalse(ImportCheckpoint.isStale(page, SOURCE, 2000L)),
+                () -> assertFalse(container.hasNodes()),
+                () -> assertFalse(restarted.isResuming()),
+                () -> assertFalse(restarted.isGroupCommitted(0))
+        );
+    }
+
+    @Test
+    void pageWithoutCheckpointIsNotStale() {
+        assertFalse(ImportCheckpoint.isStale(page, SOURCE, 2000L));
+    }
+
+    private ImportCheckpoint start(long sourceLastModified) throws Exception {
+        return ImportCheckpoint.start(context.resourceResolver(), page, SOURCE, sourceLastModified, 2,
+                new ImportProgress(SOURCE), ImportMetrics.NOOP);
+    }
+}
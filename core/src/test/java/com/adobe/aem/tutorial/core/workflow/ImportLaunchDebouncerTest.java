@@ -0,0 +1,50 @@
+package com.adobe.aem.tutorial.core.workflow;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImportLaunchDebouncerTest {
+
+    private static final String ASSET = "/content/dam/FutureConcepts/home.xlsx";
+
+    @Test
+    void skipsSameVersionWithinWindowOnly() {
+        AtomicLong now = new AtomicLong(1000);
+        ImportLaunchDebouncer debouncer = new ImportLaunchDebouncer(60000, now::get);
+
+        boolean first = debouncer.tryLaunch(ASSET, "abc");
+        now.addAndGet(5000);
+        boolean rendition = debouncer.tryLaunch(ASSET, "abc");
+        boolean newVersion = debouncer.tryLaunch(ASSET, "def");
+        now.addAndGet(60000);
+        boolean afterWindow = debouncer.tryLaunch(ASSET, "abc");
+
+        assertAll(
+                () -> assertTrue(first),
+                () -> assertFalse(rendition),
+                () -> assertTrue(newVersion),
+                () -> assertTrue(afterWindow)
+        );
+    }
+
+    @Test
+    void failedImportCanBeLaunchedAgainWithinWindow() {
+        AtomicLong now = new AtomicLong(1000);
+        ImportLaunchDebouncer debouncer = new ImportLaunchDebouncer(60000, now::get);
+        debouncer.tryLaunch(ASSET, "abc");
+        debouncer.tryLaunch("/content/dam/FutureConcepts/about.xlsx", "abc");
+
+        debouncer.forget(ASSET);
+        now.addAndGet(5000);
+
+        assertAll(
+                () -> assertTrue(debouncer.tryLaunch(ASSET, "abc")),
+                () -> assertFalse(debouncer.tryLaunch("/content/dam/FutureConcepts/about.xlsx", "abc"))
+        );
+    }
+}
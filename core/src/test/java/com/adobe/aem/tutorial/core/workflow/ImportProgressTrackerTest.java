@@ -0,0 +1,48 @@
+package com.adobe.aem.tutorial.core.workflow;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ImportProgressTrackerTest {
+
+    private static final String SOURCE = "/content/dam/FutureConcepts/landing.xlsx";
+
+    @Test
+    void startPicksUpQueuedImport() {
+        ImportProgressTracker tracker = new ImportProgressTracker();
+        ImportProgress queued = tracker.queued(SOURCE, "job-1");
+
+        ImportProgress running = tracker.start(SOURCE);
+        running.rowsParsed(10);
+        running.groupWritten();
+        running.committed();
+        running.succeeded("/content/FutureConcepts/us/landing");
+
+        assertSame(queued, running);
+        assertAll(
+                () -> assertEquals("job-1", running.getJobId()),
+                () -> assertEquals(ImportProgress.State.SUCCEEDED, running.getState()),
+                () -> assertEquals(10, running.getRowsParsed()),
+                () -> assertEquals(1, running.getGroupsWritten()),
+                () -> assertEquals(1, running.getCommits()),
+                () -> assertEquals(1, tracker.getAll().size())
+        );
+    }
+
+    @Test
+    void reImportReplacesFinishedEntry() {
+        ImportProgressTracker tracker = new ImportProgressTracker();
+        ImportProgress first = tracker.start(SOURCE);
+        first.failed("boom");
+
+        ImportProgress second = tracker.start(SOURCE);
+
+        assertNotSame(first, second);
+        assertSame(second, tracker.get(SOURCE));
+        assertEquals(ImportProgress.State.RUNNING, second.getState());
+    }
+}
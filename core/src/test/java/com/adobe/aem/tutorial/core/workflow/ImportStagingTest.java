@@ -0,0 +1,177 @@
+package com.adobe.aem.tutorial.core.workflow;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import javax.jcr.Node;
+import javax.jcr.NodeIterator;
+import javax.jcr.Property;
+import javax.jcr.PropertyIterator;
+import javax.jcr.Session;
+import javax.jcr.Value;
+import javax.jcr.Workspace;
+import javax.jcr.nodetype.NodeType;
+import javax.jcr.nodetype.PropertyDefinition;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ImportStagingTest {
+
+    private static final String CONTENT = "/content/FutureConcepts/en/page/jcr:content";
+    private static final String STAGING = CONTENT + "/" + ImportStaging.NODE_NAME;
+    private static final String LIVE = CONTENT + "/root/container";
+
+    private final Node contentNode = mock(Node.class);
+    private final Node liveContainer = mock(Node.class);
+    private final Session session = mock(Session.class);
+    private final Workspace workspace = mock(Workspace.class);
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(contentNode.getPath()).thenReturn(CONTENT);
+        when(contentNode.getSession()).thenReturn(session);
+        when(session.getWorkspace()).thenReturn(workspace);
+        when(liveContainer.getPath()).thenReturn(LIVE);
+        when(liveContainer.getName()).thenReturn("container");
+    }
+
+    @Test
+    void startsEmptyContainerFromItsUnprotectedProperties() throws Exception {
+        NodeType nodeType = mock(NodeType.class);
+        when(nodeType.getName()).thenReturn("nt:unstructured");
+        when(liveContainer.getPrimaryNodeType()).thenReturn(nodeType);
+        Value resourceType = mock(Value.class);
+        Value[] styleIds = { mock(Value.class) };
+        Property primaryType = property("jcr:primaryType", true);
+        Property slingResourceType = property("sling:resourceType", false);
+        when(slingResourceType.getValue()).thenReturn(resourceType);
+        Property styles = property("cq:styleIds", false);
+        when(styles.isMultiple()).thenReturn(true);
+        when(styles.getValues()).thenReturn(styleIds);
+        PropertyIterator properties = properties(primaryType, slingResourceType, styles);
+        when(liveContainer.getProperties()).thenReturn(properties);
+        Node staging = mock(Node.class);
+        when(contentNode.addNode(ImportStaging.NODE_NAME, "nt:unstructured")).thenReturn(staging);
+
+        assertSame(staging, ImportStaging.stage(contentNode, liveContainer, false));
+        verify(staging).setProperty("sling:resourceType", resourceType);
+        verify(staging).setProperty("cq:styleIds", styleIds);
+        verify(staging, never()).setProperty(eq("jcr:primaryType"), any(Value.class));
+        verify(workspace, never()).copy(anyString(), anyString());
+    }
+
+    @Test
+    void reimportOverExistingComponentsSavesNothingBeforePromotion() throws Exception {
+        String csv = "ComponentName,groupId,title\nherocomponent,h1,Hello again\n";
+        SheetTable table = SheetTable.read(new CsvReader(),
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+        WritePlan plan = WritePlan.compile(CreatePageFromExcelWorkflowProcess.groupExcelRows(table));
+        Node leftover = mock(Node.class);
+        Node staging = mock(Node.class);
+        Node component = mock(Node.class);
+        Node parent = mock(Node.class);
+        NodeType nodeType = mock(NodeType.class);
+        when(nodeType.getName()).thenReturn("nt:unstructured");
+        when(liveContainer.getPrimaryNodeType()).thenReturn(nodeType);
+        PropertyIterator properties = properties();
+        when(liveContainer.getProperties()).thenReturn(properties);
+        // The live page already has the component the sheet writes again.
+        when(liveContainer.hasNodes()).thenReturn(true);
+        when(liveContainer.hasNode("herocomponent-h1")).thenReturn(true);
+        when(liveContainer.getParent()).thenReturn(parent);
+        NodeIterator siblings = nodes(liveContainer);
+        when(parent.getNodes()).thenReturn(siblings);
+        when(contentNode.hasNode(ImportStaging.NODE_NAME)).thenReturn(true);
+        when(contentNode.getNode(ImportStaging.NODE_NAME)).thenReturn(leftover, staging);
+        when(contentNode.addNode(ImportStaging.NODE_NAME, "nt:unstructured")).thenReturn(staging);
+        when(staging.getPath()).thenReturn(STAGING);
+        when(staging.addNode("herocomponent-h1", "nt:unstructured")).thenReturn(component);
+
+        Node target = ImportStaging.stage(contentNode, liveContainer, false);
+        plan.getComponents().get(0).write(target, new ImportProgress("test"));
+        ImportStaging.promote(contentNode, liveContainer);
+
+        InOrder order = inOrder(leftover, contentNode, staging, liveContainer, session);
+        order.verify(leftover).remove();
+        order.verify(contentNode).addNode(ImportStaging.NODE_NAME, "nt:unstructured");
+        order.verify(staging).addNode("herocomponent-h1", "nt:unstructured");
+        order.verify(liveContainer).remove();
+        order.verify(session).move(STAGING, LIVE);
+        verify(component).setProperty("title", "Hello again");
+        verify(session, never()).save();
+        verify(workspace, never()).copy(anyString(), anyString());
+    }
+
+    @Test
+    void resumesIntoTheLeftoverOfAnInterruptedImport() throws Exception {
+        Node leftover = mock(Node.class);
+        when(contentNode.hasNode(ImportStaging.NODE_NAME)).thenReturn(true);
+        when(contentNode.getNode(ImportStaging.NODE_NAME)).thenReturn(leftover);
+
+        assertSame(leftover, ImportStaging.stage(contentNode, liveContainer, true));
+        verify(leftover, never()).remove();
+        verify(workspace, never()).copy(anyString(), anyString());
+    }
+
+    @Test
+    void promotesStagingIntoThePositionOfTheLiveContainer() throws Exception {
+        Node parent = mock(Node.class);
+        Node staging = mock(Node.class);
+        when(liveContainer.getParent()).thenReturn(parent);
+        when(staging.getPath()).thenReturn(STAGING);
+        when(contentNode.getNode(ImportStaging.NODE_NAME)).thenReturn(staging);
+        NodeIterator siblings = nodes(named("header"), liveContainer, named("footer"));
+        when(parent.getNodes()).thenReturn(siblings);
+
+        ImportStaging.promote(contentNode, liveContainer);
+
+        InOrder order = inOrder(liveContainer, session, parent);
+        order.verify(liveContainer).remove();
+        order.verify(session).move(STAGING, LIVE);
+        order.verify(parent).orderBefore("container", "footer");
+    }
+
+    private static Property property(String name, boolean isProtected) throws Exception {
+        Property property = mock(Property.class);
+        PropertyDefinition definition = mock(PropertyDefinition.class);
+        when(definition.isProtected()).thenReturn(isProtected);
+        when(property.getName()).thenReturn(name);
+        when(property.getDefinition()).thenReturn(definition);
+        return property;
+    }
+
+    private static Node named(String name) throws Exception {
+        Node node = mock(Node.class);
+        when(node.getName()).thenReturn(name);
+        return node;
+    }
+
+    private static PropertyIterator properties(Property... properties) {
+        Iterator<Property> delegate = Arrays.asList(properties).iterator();
+        PropertyIterator iterator = mock(PropertyIterator.class);
+        when(iterator.hasNext()).thenAnswer(invocation -> delegate.hasNext());
+        when(iterator.nextProperty()).thenAnswer(invocation -> delegate.next());
+        return iterator;
+    }
+
+    private static NodeIterator nodes(Node... nodes) {
+        Iterator<Node> delegate = Arrays.asList(nodes).iterator();
+        NodeIterator iterator = mock(NodeIterator.class);
+        when(iterator.hasNext()).thenAnswer(invocation -> delegate.hasNext());
+        when(iterator.nextNode()).thenAnswer(invocation -> delegate.next());
+        return iterator;
+    }
+}
@@ -0,0 +1,186 @@
+package com.adobe.aem.tutorial.core.workflow;
+
+import com.day.cq.wcm.api.Page;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.jcr.Node;
+import javax.jcr.NodeIterator;
+import javax.jcr.Property;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class IncrementalComponentSyncTest {
+
+    private static final String CONTAINER = "/content/FutureConcepts/en/page/jcr:content/root/container";
+
+    private final Map<String, Node> children = new LinkedHashMap<>();
+    private final Map<String, String> hashes = new HashMap<>();
+    private final Node container = mock(Node.class);
+    private final ImportProgress progress = new ImportProgress("test");
+    private ImportCheckpoint checkpoint;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(container.getPath()).thenReturn(CONTAINER);
+        when(container.getNodes()).thenAnswer(invocation -> iterator(new ArrayList<>(children.values())));
+        when(container.getNode(anyString())).thenAnswer(invocation -> children.get(invocation.<String>getArgument(0)));
+        when(container.addNode(anyString(), anyString()))
+                .thenAnswer(invocation -> child(invocation.getArgument(0), null));
+        doAnswer(invocation -> {
+            orderBefore(invocation.getArgument(0), invocation.getArgument(1));
+            return null;
+        }).when(container).orderBefore(anyString(), anyString());
+
+        Page page = mock(Page.class);
+        when(page.getPath()).thenReturn("/content/FutureConcepts/en/page");
+        Resource contentResource = mock(Resource.class);
+        when(contentResource.adaptTo(Node.class)).thenReturn(mock(Node.class));
+        ResourceResolver resolver = mock(ResourceResolver.class);
+        when(resolver.getResource("/content/FutureConcepts/en/page/jcr:content")).thenReturn(contentResource);
+        checkpoint = ImportCheckpoint.start(resolver, page, "/content/dam/page.csv", 1L, 0, progress,
+                ImportMetrics.NOOP);
+    }
+
+    @Test
+    void addsReplacesKeepsAndRemovesGroupsByHash() throws Exception {
+        sync("ComponentName,groupId,title\n"
+                + "herocomponent,h1,Hello\n"
+                + "tilecomponent,t1,First\n"
+                + "textcomponent,x1,Stale\n");
+        Node authored = child("authoredcomponent", null);
+        Node hero = children.get("herocomponent-h1");
+        Node tile = children.get("tilecomponent-t1");
+
+        sync("ComponentName,groupId,title\n"
+                + "tilecomponent,t1,Changed\n"
+                + "herocomponent,h1,Hello\n"
+                + "teasercomponent,n1,Added\n");
+
+        assertAll(
+                () -> assertSame(hero, children.get("herocomponent-h1")),
+                () -> assertNotSame(tile, children.get("tilecomponent-t1")),
+                () -> assertSame(authored, children.get("authoredcomponent")),
+                () -> assertEquals(Arrays.asList("tilecomponent-t1", "herocomponent-h1", "authoredcomponent",
+                        "teasercomponent-n1"), new ArrayList<>(children.keySet()))
+        );
+    }
+
+    @Test
+    void replacesNodesOfAFullImportThatHaveNoHash() throws Exception {
+        String csv = "ComponentName,title\n"
+                + "herocomponent,Hello\n"
+                + "tilecomponent,First\n";
+        for (WritePlan.PlannedNode component : WritePlan.compile(group(csv)).getComponents()) {
+            child(component.getName(), null);
+        }
+        Node legacyHero = children.get("herocomponent-row1");
+
+        sync(csv);
+
+        assertAll(
+                () -> assertEquals(Arrays.asList("herocomponent-row1", "tilecomponent-row2"),
+                        new ArrayList<>(children.keySet())),
+                () -> assertNotSame(legacyHero, children.get("herocomponent-row1")),
+                () -> assertEquals(2, hashes.size())
+        );
+    }
+
+    @Test
+    void keepsLanguageCopyColumnsOutOfThePage() throws Exception {
+        sync("ComponentName,groupId,title,title_es\n"
+                + "herocomponent,h1,Hello,Hola\n", Collections.singleton("es"));
+
+        Node hero = children.get("herocomponent-h1");
+        assertAll(
+                () -> verify(hero).setProperty("title", "Hello"),
+                () -> verify(hero, never()).setProperty(eq("title_es"), anyString()),
+                () -> verify(hero, never()).setProperty(anyString(), eq("Hola"))
+        );
+    }
+
+    private void sync(String csv) throws Exception {
+        sync(csv, Collections.emptySet());
+    }
+
+    private void sync(String csv, Set<String> locales) throws Exception {
+        new IncrementalComponentSync(container, locales, checkpoint, progress).sync(group(csv));
+    }
+
+    private static Map<String, ComponentGroup> group(String csv) throws Exception {
+        return CreatePageFromExcelWorkflowProcess.groupExcelRows(SheetTable.read(new CsvReader(),
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8))));
+    }
+
+    /**
+     * A child of the container that keeps its import hash and can be removed.
+     */
+    private Node child(String name, String hash) throws Exception {
+        Node node = mock(Node.class);
+        when(node.getName()).thenReturn(name);
+        when(node.hasProperty(IncrementalComponentSync.PN_IMPORT_HASH))
+                .thenAnswer(invocation -> hashes.containsKey(name));
+        Property property = mock(Property.class);
+        when(property.getString()).thenAnswer(invocation -> hashes.get(name));
+        when(node.getProperty(IncrementalComponentSync.PN_IMPORT_HASH)).thenReturn(property);
+        when(node.setProperty(eq(IncrementalComponentSync.PN_IMPORT_HASH), anyString())).thenAnswer(invocation -> {
+            hashes.put(name, invocation.getArgument(1));
+            return null;
+        });
+        when(node.addNode(anyString(), anyString())).thenAnswer(invocation -> mock(Node.class, RETURNS_DEEP_STUBS));
+        doAnswer(invocation -> {
+            children.remove(name);
+            hashes.remove(name);
+            return null;
+        }).when(node).remove();
+        children.put(name, node);
+        if (hash != null) {
+            hashes.put(name, hash);
+        }
+        return node;
+    }
+
+    private void orderBefore(String source, String destination) {
+        Node moved = children.remove(source);
+        List<Map.Entry<String, Node>> entries = new ArrayList<>(children.entrySet());
+        children.clear();
+        for (Map.Entry<String, Node> entry : entries) {
+            if (entry.getKey().equals(destination)) {
+                children.put(source, moved);
+            }
+            children.put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private static NodeIterator iterator(List<Node> nodes) {
+        Iterator<Node> delegate = nodes.iterator();
+        NodeIterator iterator = mock(NodeIterator.class);
+        when(iterator.hasNext()).thenAnswer(invocation -> delegate.hasNext());
+        when(iterator.nextNode()).thenAnswer(invocation -> delegate.next());
+        return iterator;
+    }
+}
@@ -0,0 +1,38 @@
+package com.adobe.aem.tutorial.core.workflow;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class NdjsonReaderTest {
+
+    @Test
+    void columnsAreTheUnionOfAllKeys() throws Exception {
+        String ndjson = "{\"ComponentName\":\"herocomponent\",\"groupId\":\"g1\",\"title\":\"Hello\",\"order\":3}\n"
+                + "\n"
+                + "{\"ComponentName\":\"tilecomponent\",\"featured\":true,\"order\":null,\"links\":[1,2]}\n";
+
+        SheetTable table = SheetTable.read(new NdjsonReader(),
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(2, table.getRowCount());
+        SheetRow hero = table.row(0);
+        SheetRow tile = table.row(1);
+        assertAll(
+                () -> assertEquals("[ComponentName, groupId, title, order, featured, links]",
+                        table.getHeader().toString()),
+                () -> assertEquals("Hello", hero.get("title")),
+                () -> assertEquals("", hero.get("featured")),
+                () -> assertEquals("3", hero.get("order")),
+                () -> assertEquals("tilecomponent", tile.get("ComponentName")),
+                () -> assertEquals("", tile.get("groupId")),
+                () -> assertEquals("", tile.get("order")),
+                () -> assertEquals("true", tile.get("featured")),
+                () -> assertEquals("", tile.get("links"))
+        );
+    }
+}
@@ -0,0 +1,151 @@
+package com.adobe.aem.tutorial.core.workflow;
+
+import com.adobe.aem.tutorial.core.testcontext.AppAemContext;
+import com.day.cq.wcm.api.Page;
+import io.wcm.testing.mock.aem.junit5.AemContext;
+import io.wcm.testing.mock.aem.junit5.AemContextExtension;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.testing.mock.sling.ResourceResolverType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import javax.jcr.Node;
+import javax.jcr.NodeIterator;
+import javax.jcr.Property;
+import javax.jcr.PropertyIterator;
+import javax.jcr.Session;
+import javax.jcr.Workspace;
+import java.util.Calendar;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+@ExtendWith(AemContextExtension.class)
+class PageBlueprintsTest {
+
+    private static final String TEMPLATE = "/conf/FutureConcepts/settings/wcm/templates/page-content";
+    private static final String BLUEPRINT_ROOT = "/var/FutureConcepts/excelimport/blueprints";
+    private static final String BLUEPRINT = BLUEPRINT_ROOT + "/conf_FutureConcepts_settings_wcm_templates_page-content";
+    private static final String PARENT = "/content/FutureConcepts/en";
+
+    private final AemContext context = AppAemContext.newAemContextBuilder(ResourceResolverType.JCR_MOCK).build();
+
+    private ResourceResolver resolver;
+    private Session session;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        context.create().resource(TEMPLATE + "/structure/jcr:content", "cq:lastModified", calendar(1000L));
+        context.create().resource(BLUEPRINT_ROOT);
+        context.create().page(PARENT);
+
+        // The JCR mock has no Workspace.copy, so the copy is done through the session instead.
+        session = context.resourceResolver().adaptTo(Session.class);
+        Workspace workspace = mock(Workspace.class);
+        doAnswer(invocation -> {
+            String destination = invocation.getArgument(1);
+            int slash = destination.lastIndexOf('/');
+            copy(session.getNode(invocation.getArgument(0)), session.getNode(destination.substring(0, slash)),
+                    destination.substring(slash + 1));
+            return null;
+        }).when(workspace).copy(anyString(), anyString());
+        Session copyingSession = mock(Session.class, delegatesTo(session));
+        doReturn(workspace).when(copyingSession).getWorkspace();
+        resolver = mock(ResourceResolver.class, delegatesTo(context.resourceResolver()));
+        doReturn(copyingSession).when(resolver).adaptTo(Session.class);
+    }
+
+    @Test
+    void buildsTheBlueprintOnceAndCopiesItForEveryPage() throws Exception {
+        PageBlueprints blueprints = new PageBlueprints(BLUEPRINT_ROOT, Collections.emptyMap());
+
+        Page home = blueprints.create(resolver, PARENT, "home", TEMPLATE);
+        mark(BLUEPRINT);
+        Page about = blueprints.create(resolver, PARENT, "about", TEMPLATE);
+
+        assertAll(
+                () -> assertEquals(PARENT + "/home", home.getPath()),
+                () -> assertEquals("home", home.getTitle()),
+                () -> assertTrue(session.nodeExists(PARENT + "/home/jcr:content/root/container")),
+                () -> assertFalse(isMarked(PARENT + "/home")),
+                () -> assertTrue(isMarked(PARENT + "/about")),
+                () -> assertEquals("about", about.getTitle())
+        );
+    }
+
+    @Test
+    void rebuildsTheBlueprintWhenTheTemplateChanges() throws Exception {
+        PageBlueprints blueprints = new PageBlueprints(BLUEPRINT_ROOT, Collections.emptyMap());
+        blueprints.create(resolver, PARENT, "home", TEMPLATE);
+        mark(BLUEPRINT);
+
+        session.getNode(TEMPLATE + "/structure/jcr:content").setProperty("cq:lastModified", calendar(2000L));
+        blueprints.create(resolver, PARENT, "about", TEMPLATE);
+
+        assertAll(
+                () -> assertFalse(isMarked(BLUEPRINT)),
+                () -> assertFalse(isMarked(PARENT + "/about")),
+                () -> assertTrue(session.nodeExists(PARENT + "/about/jcr:content/root/container"))
+        );
+    }
+
+    @Test
+    void usesAConfiguredBlueprintAsIs() throws Exception {
+        String configured = "/conf/FutureConcepts/blueprints/landing";
+        context.create().resource(configured + "/jcr:content/root/container", "marker", "configured");
+        PageBlueprints blueprints = new PageBlueprints(BLUEPRINT_ROOT, Collections.singletonMap(TEMPLATE, configured));
+
+        blueprints.create(resolver, PARENT, "landing", TEMPLATE);
+
+        assertAll(
+                () -> assertTrue(isMarked(PARENT + "/landing")),
+                () -> assertNull(context.resourceResolver().getResource(BLUEPRINT))
+        );
+    }
+
+    private void mark(String pagePath) throws Exception {
+        session.getNode(pagePath + "/jcr:content/root/container").setProperty("marker", "blueprint");
+        session.save();
+    }
+
+    private boolean isMarked(String pagePath) throws Exception {
+        return session.getNode(pagePath + "/jcr:content/root/container").hasProperty("marker");
+    }
+
+    private static void copy(Node source, Node parent, String name) throws Exception {
+        Node copy = parent.addNode(name, source.getPrimaryNodeType().getName());
+        PropertyIterator properties = source.getProperties();
+        while (properties.hasNext()) {
+            Property property = properties.nextProperty();
+            if (property.getName().equals("jcr:primaryType") || property.getName().equals("jcr:mixinTypes")) {
+                continue;
+            }
+            if (property.isMultiple()) {
+                copy.setProperty(property.getName(), property.getValues());
+            } else {
+                copy.setProperty(property.getName(), property.getValue());
+            }
+        }
+        NodeIterator children = source.getNodes();
+        while (children.hasNext()) {
+            Node child = children.nextNode();
+            copy(child, copy, child.getName());
+        }
+    }
+
+    private static Calendar calendar(long millis) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(millis);
+        return calendar;
+    }
+}
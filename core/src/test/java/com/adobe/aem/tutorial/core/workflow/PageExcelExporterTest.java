@@ -0,0 +1,175 @@
+package com.adobe.aem.tutorial.core.workflow;
+
+import com.day.cq.wcm.api.Page;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.wrappers.ValueMapDecorator;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PageExcelExporterTest {
+
+    @Test
+    void exportsComponentsInTheImportLayout() throws Exception {
+        Page page = page("/content/FutureConcepts/us/home", container(
+                resource("herocomponent-h1", props("sling:resourceType", "FutureConcepts/components/herocomponent",
+                        "title", "Hello", "excelImportHash", "abc")),
+                resource("text", props("sling:resourceType", "core/wcm/components/text/v2/text")),
+                list(resource("carouselcomponent-c1",
+                                props("sling:resourceType", "FutureConcepts/components/carouselcomponent")),
+                        resource("item0", props("jcr:primaryType", "nt:unstructured", "image", "/content/dam/a.png")),
+                        resource("item1", props("image", "/content/dam/b.png")))));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        boolean exported = new PageExcelExporter().export(page, out);
+
+        SheetTable table = CreatePageFromExcelWorkflowProcess.parseExcel(new ByteArrayInputStream(out.toByteArray()));
+        List<ComponentGroup> grouped =
+                new ArrayList<>(CreatePageFromExcelWorkflowProcess.groupExcelRows(table).values());
+        assertAll(
+                () -> assertTrue(exported),
+                () -> assertEquals(5, table.getHeader().size()),
+                () -> assertEquals(CreatePageFromExcelWorkflowProcess.LIST_ITEM, table.getHeader().name(2)),
+                () -> assertEquals("title", table.getHeader().name(3)),
+                () -> assertEquals("image", table.getHeader().name(4)),
+                () -> assertEquals(2, grouped.size()),
+                () -> assertEquals("herocomponent-h1", grouped.get(0).getNodeName()),
+                () -> assertEquals("Hello", grouped.get(0).first().get("title")),
+                () -> assertEquals("carouselcomponent-c1", grouped.get(1).getNodeName()),
+                () -> assertEquals(2, grouped.get(1).size()),
+                () -> assertEquals("item1", grouped.get(1).row(1).get(CreatePageFromExcelWorkflowProcess.LIST_ITEM)),
+                () -> assertEquals("/content/dam/b.png", grouped.get(1).row(1).get("image"))
+        );
+    }
+
+    @Test
+    void reimportingTheExportRebuildsTheSameComponents() throws Exception {
+        Page page = page("/content/FutureConcepts/us/home", container(
+                resource("herocomponent-h1", props("sling:resourceType", "FutureConcepts/components/herocomponent",
+                        "title", "Hello")),
+                list(resource("carouselcomponent-c1", props("sling:resourceType",
+                                "FutureConcepts/components/carouselcomponent", "autoplay", "true")),
+                        resource("slide-a", props("image", "/content/dam/a.png"))),
+                list(resource("tilecomponent-t1",
+                                props("sling:resourceType", "FutureConcepts/components/tilecomponent")),
+                        resource("item0", props("title", "First")),
+                        resource("item1", props("title", "Second")))));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new PageExcelExporter().export(page, out);
+        SheetTable table = CreatePageFromExcelWorkflowProcess.parseExcel(new ByteArrayInputStream(out.toByteArray()));
+        List<WritePlan.PlannedNode> components = WritePlan.compile(
+                CreatePageFromExcelWorkflowProcess.groupExcelRows(table)).getComponents();
+
+        WritePlan.PlannedNode hero = components.get(0);
+        WritePlan.PlannedNode carousel = components.get(1);
+        WritePlan.PlannedNode tiles = components.get(2);
+        assertAll(
+                () -> assertEquals(3, components.size()),
+                () -> assertEquals("herocomponent-h1", hero.getName()),
+                () -> assertEquals("Hello", hero.getValue("title")),
+                () -> assertTrue(hero.getChildren().isEmpty()),
+                () -> assertEquals("carouselcomponent-c1", carousel.getName()),
+                () -> assertEquals("true", carousel.getValue("autoplay")),
+                () -> assertNull(carousel.getValue("image")),
+                () -> assertEquals("listItems", carousel.getChildren().get(0).getName()),
+                () -> assertEquals(1, carousel.getChildren().get(0).getChildren().size()),
+                () -> assertEquals("slide-a", carousel.getChildren().get(0).getChildren().get(0).getName()),
+                () -> assertEquals("/content/dam/a.png",
+                        carousel.getChildren().get(0).getChildren().get(0).getValue("image")),
+                () -> assertNull(tiles.getValue("title")),
+                () -> assertEquals("FutureConcepts/components/tilecomponent", tiles.getValue("sling:resourceType")),
+                () -> assertEquals("Second", tiles.getChildren().get(0).getChildren().get(1).getValue("title"))
+        );
+    }
+
+    @Test
+    void deepExportWritesOneImportableWorkbookPerPage() throws Exception {
+        Page home = page("/content/FutureConcepts/us/home", container(
+                resource("herocomponent-h1", props("sling:resourceType", "FutureConcepts/components/herocomponent",
+                        "title", "Home"))));
+        Page about = page("/content/FutureConcepts/us/home/about", container(
+                resource("herocomponent-h1", props("sling:resourceType", "FutureConcepts/components/herocomponent",
+                        "title", "About"))));
+        Page folder = page("/content/FutureConcepts/us/home/folder", null);
+        when(home.listChildren(any(), eq(true))).thenReturn(Arrays.asList(about, folder).iterator());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int exported = new PageExcelExporter().exportArchive(home, true, out);
+
+        Map<String, String> titles = new HashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                ByteArrayOutputStream workbook = new ByteArrayOutputStream();
+                byte[] buffer = new byte[8192];
+                for (int read = zip.read(buffer); read > 0; read = zip.read(buffer)) {
+                    workbook.write(buffer, 0, read);
+                }
+                SheetTable table = CreatePageFromExcelWorkflowProcess.parseExcel(
+                        new ByteArrayInputStream(workbook.toByteArray()));
+                titles.put(entry.getName(), table.row(0).get("title"));
+            }
+        }
+        assertAll(
+                () -> assertEquals(2, exported),
+                () -> assertEquals(2, titles.size()),
+                () -> assertEquals("Home", titles.get("home.xlsx")),
+                () -> assertEquals("About", titles.get("home/about.xlsx"))
+        );
+    }
+
+    private static Page page(String path, Resource container) {
+        Page page = mock(Page.class);
+        when(page.getPath()).thenReturn(path);
+        when(page.getName()).thenReturn(path.substring(path.lastIndexOf('/') + 1));
+        Resource content = resource("jcr:content", props());
+        when(content.getChild("root/container")).thenReturn(container);
+        when(page.getContentResource()).thenReturn(content);
+        return page;
+    }
+
+    private static Resource container(Resource... components) {
+        Resource container = resource("container", props());
+        when(container.getChildren()).thenReturn(Arrays.asList(components));
+        return container;
+    }
+
+    private static Resource list(Resource component, Resource... items) {
+        Resource listItems = resource("listItems", props());
+        when(listItems.getChildren()).thenReturn(Arrays.asList(items));
+        when(component.getChild("listItems")).thenReturn(listItems);
+        return component;
+    }
+
+    private static Resource resource(String name, Map<String, Object> properties) {
+        Resource resource = mock(Resource.class);
+        when(resource.getName()).thenReturn(name);
+        when(resource.getValueMap()).thenReturn(new ValueMapDecorator(properties));
+        return resource;
+    }
+
+    private static Map<String, Object> props(String... keyValues) {
+        Map<String, Object> properties = new HashMap<>();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            properties.put(keyValues[i], keyValues[i + 1]);
+        }
+        return properties;
+    }
+}
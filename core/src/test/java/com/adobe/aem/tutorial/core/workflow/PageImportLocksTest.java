@@ -0,0 +1,47 @@
+package com.adobe.aem.tutorial.core.workflow;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PageImportLocksTest {
+
+    private static final String PAGE = "/content/FutureConcepts/us/home";
+
+    @Test
+    void roundsStripesToPowerOfTwo() {
+        assertEquals(64, new PageImportLocks(64, ImportMetrics.NOOP).getStripeCount());
+        assertEquals(8, new PageImportLocks(5, ImportMetrics.NOOP).getStripeCount());
+        assertEquals(1, new PageImportLocks(0, ImportMetrics.NOOP).getStripeCount());
+    }
+
+    @Test
+    void samePageWaitsUntilReleased() throws Exception {
+        PageImportLocks locks = new PageImportLocks(64, ImportMetrics.NOOP);
+        CountDownLatch acquired = new CountDownLatch(1);
+        AtomicBoolean secondHeldLock = new AtomicBoolean();
+
+        Thread second;
+        try (PageImportLocks.Held held = locks.acquire(PAGE)) {
+            second = new Thread(() -> {
+                try (PageImportLocks.Held other = locks.acquire(PAGE)) {
+                    secondHeldLock.set(true);
+                    acquired.countDown();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            second.start();
+            assertFalse(acquired.await(100, TimeUnit.MILLISECONDS));
+        }
+        assertTrue(acquired.await(5, TimeUnit.SECONDS));
+        second.join();
+        assertTrue(secondHeldLock.get());
+    }
+}
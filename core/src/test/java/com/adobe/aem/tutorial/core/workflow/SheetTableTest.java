@@ -0,0 +1,51 @@
+package com.adobe.aem.tutorial.core.workflow;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SheetTableTest {
+
+    private final SheetHeader header = new SheetHeader(Arrays.asList("ComponentName", "title", "title"));
+
+    @Test
+    void storesRowsByColumnAndDeduplicatesValues() {
+        SheetTable table = new SheetTable(header);
+        for (int i = 0; i < 100; i++) {
+            table.addRow(row(new String("herocomponent"), "first " + i, "second " + i));
+        }
+
+        assertEquals(100, table.getRowCount());
+        assertEquals("second 99", table.row(99).get("title"));
+        assertSame(table.value(0, 0), table.value(99, 0));
+    }
+
+    @Test
+    void headerMarksKeyColumnsAndLastDuplicateWins() {
+        assertTrue(header.isKeyColumn(0));
+        assertFalse(header.isKeyColumn(1));
+        assertEquals(2, header.indexOf("title"));
+        assertEquals(-1, header.indexOf("groupId"));
+        assertNull(row("herocomponent", "a", "b").get("groupId"));
+    }
+
+    private SheetRow row(String... values) {
+        return new SheetRow() {
+            @Override
+            public SheetHeader getHeader() {
+                return header;
+            }
+
+            @Override
+            public String get(int column) {
+                return values[column];
+            }
+        };
+    }
+}
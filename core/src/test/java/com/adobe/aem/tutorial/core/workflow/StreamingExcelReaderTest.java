@@ -0,0 +1,71 @@
+package com.adobe.aem.tutorial.core.workflow;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class StreamingExcelReaderTest {
+
+    @Test
+    void readsRowsKeyedByTrimmedHeaders() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet("components");
+            Row header = sheet.createRow(0);
+            header.createCell(0).setCellValue("ComponentName ");
+            header.createCell(1).setCellValue("groupId");
+            header.createCell(2).setCellValue("title");
+            header.createCell(3).setCellValue("count");
+
+            Row first = sheet.createRow(1);
+            first.createCell(0).setCellValue("herocomponent");
+            first.createCell(1).setCellValue("g1");
+            first.createCell(2).setCellValue("Hello");
+            first.createCell(3).setCellValue(42.0);
+
+            Row second = sheet.createRow(2);
+            second.createCell(0).setCellValue("tilecomponent");
+            second.createCell(3).setCellValue(true);
+            workbook.write(out);
+        }
+
+        List<Map<String, String>> rows = new ArrayList<>();
+        new StreamingExcelReader().read(new ByteArrayInputStream(out.toByteArray()), row -> {
+            Map<String, String> copy = new HashMap<>();
+            for (int column = 0; column < row.getHeader().size(); column++) {
+                copy.put(row.getHeader().name(column), row.get(column));
+            }
+            rows.add(copy);
+        });
+
+        assertEquals(2, rows.size());
+        assertAll(
+                () -> assertEquals("herocomponent", rows.get(0).get("ComponentName")),
+                () -> assertEquals("g1", rows.get(0).get("groupId")),
+                () -> assertEquals("Hello", rows.get(0).get("title")),
+                () -> assertEquals("42", rows.get(0).get("count")),
+                () -> assertEquals("tilecomponent", rows.get(1).get("ComponentName")),
+                () -> assertEquals("", rows.get(1).get("groupId")),
+                () -> assertEquals("", rows.get(1).get("title")),
+                () -> assertEquals("true", rows.get(1).get("count"))
+        );
+    }
+
+    @Test
+    void columnIndex() {
+        assertEquals(0, StreamingExcelReader.columnIndex("A1"));
+        assertEquals(25, StreamingExcelReader.columnIndex("Z7"));
+        assertEquals(27, StreamingExcelReader.columnIndex("AB12"));
+    }
+}
@@ -0,0 +1,52 @@
+package com.adobe.aem.tutorial.core.workflow;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class StreamingRowGrouperTest {
+
+    @Test
+    void emitsContiguousRunsAndMarksContinuations() throws Exception {
+        List<String> runs = group("ComponentName,groupId,title\n"
+                + "tilecomponent,t1,First\n"
+                + "tilecomponent,t1,Second\n"
+                + "herocomponent,h1,Hero\n"
+                + "tilecomponent,t1,Third\n");
+
+        assertEquals(List.of(
+                "tilecomponent-t1 [First, Second] last=1",
+                "herocomponent-h1 [Hero] last=2",
+                "tilecomponent-t1 [Third] last=3 continued"), runs);
+    }
+
+    @Test
+    void rowsWithoutGroupIdColumnGetRowBasedIds() throws Exception {
+        List<String> runs = group("ComponentName,title\n"
+                + "tilecomponent,First\n"
+                + "tilecomponent,Second\n");
+
+        assertEquals(List.of(
+                "tilecomponent-row1 [First] last=0",
+                "tilecomponent-row2 [Second] last=1"), runs);
+    }
+
+    private static List<String> group(String csv) throws Exception {
+        List<String> runs = new ArrayList<>();
+        StreamingRowGrouper grouper = new StreamingRowGrouper((group, lastRow, continuation) -> {
+            List<String> titles = new ArrayList<>();
+            for (int i = 0; i < group.size(); i++) {
+                titles.add(group.row(i).get("title"));
+            }
+            runs.add(group.getNodeName() + " " + titles + " last=" + lastRow + (continuation ? " continued" : ""));
+        });
+        new CsvReader().read(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), grouper);
+        grouper.finish();
+        return runs;
+    }
+}
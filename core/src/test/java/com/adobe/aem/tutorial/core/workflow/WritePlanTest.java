@@ -0,0 +1,98 @@
+package com.adobe.aem.tutorial.core.workflow;
+
+import org.junit.jupiter.api.Test;
+
+import javax.jcr.Node;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class WritePlanTest {
+
+    @Test
+    void plansOneNodePerGroupAndMultifieldItemsForRepeatedRows() throws Exception {
+        String csv = "ComponentName,groupId,title,text\n"
+                + "herocomponent,h1,Hello,\n"
+                + "tilecomponent,t1,First,one\n"
+                + "tilecomponent,t1,Second,two\n";
+        SheetTable table = SheetTable.read(new CsvReader(),
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+        WritePlan plan = WritePlan.compile(CreatePageFromExcelWorkflowProcess.groupExcelRows(table));
+
+        assertAll(
+                () -> assertEquals(2, plan.getComponents().size()),
+                () -> assertEquals("herocomponent-h1", plan.getComponents().get(0).getName()),
+                () -> assertEquals("tilecomponent-t1", plan.getComponents().get(1).getName()),
+                // hero, tile, listItems, item0, item1
+                () -> assertEquals(5, plan.getNodeCount()),
+                // two resource types, hero title, two properties per item
+                () -> assertEquals(7, plan.getPropertyCount()),
+                () -> assertEquals(1, plan.getCommitCount(0)),
+                () -> assertEquals(3, plan.getCommitCount(2)),
+                () -> assertEquals("2 component(s), 5 node(s), 7 propert(ies), ~2 KB, 1 commit(s)", plan.describe(0))
+        );
+    }
+
+    @Test
+    void listItemColumnNamesTheItemsAndKeepsTheComponentsOwnProperties() throws Exception {
+        String csv = "ComponentName,groupId,listItem,autoplay,image\n"
+                + "carouselcomponent,c1,,true,\n"
+                + "carouselcomponent,c1,slide-a,,/content/dam/a.png\n"
+                + "herocomponent,h1,,,/content/dam/hero.png\n";
+        SheetTable table = SheetTable.read(new CsvReader(),
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+        WritePlan plan = WritePlan.compile(CreatePageFromExcelWorkflowProcess.groupExcelRows(table));
+
+        WritePlan.PlannedNode carousel = plan.getComponents().get(0);
+        WritePlan.PlannedNode slide = carousel.getChildren().get(0).getChildren().get(0);
+        assertAll(
+                () -> assertEquals("true", carousel.getValue("autoplay")),
+                () -> assertEquals("slide-a", slide.getName()),
+                () -> assertEquals("/content/dam/a.png", slide.getValue("image")),
+                () -> assertNull(slide.getValue(CreatePageFromExcelWorkflowProcess.LIST_ITEM)),
+                () -> assertEquals("/content/dam/hero.png", plan.getComponents().get(1).getValue("image")),
+                () -> assertTrue(plan.getComponents().get(1).getChildren().isEmpty())
+        );
+    }
+
+    @Test
+    void localeColumnsOverrideBaseValuesOnlyForTheirLocale() throws Exception {
+        String csv = "ComponentName,groupId,title,title_es,text_es\n"
+                + "herocomponent,h1,Hello,Hola,Texto\n";
+        SheetTable table = SheetTable.read(new CsvReader(),
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+        WritePlan plan = WritePlan.compile(CreatePageFromExcelWorkflowProcess.groupExcelRows(table),
+                Collections.singleton("es"));
+
+        Node base = write(plan, null);
+        Node spanish = write(plan, "es");
+
+        assertEquals(2, plan.getPropertyCount());
+        verify(base).setProperty("title", "Hello");
+        verify(base, never()).setProperty("title", "Hola");
+        verify(base, never()).setProperty("text", "Texto");
+        verify(base, never()).setProperty("title_es", "Hola");
+        verify(spanish).setProperty("title", "Hola");
+        verify(spanish).setProperty("text", "Texto");
+    }
+
+    private static Node write(WritePlan plan, String locale) throws Exception {
+        Node parent = mock(Node.class);
+        Node component = mock(Node.class);
+        when(parent.addNode(anyString(), anyString())).thenReturn(component);
+        plan.getComponents().get(0).write(parent, new ImportProgress("test"), locale);
+        return component;
+    }
+}
@@ -0,0 +1,62 @@
+document.addEventListener('DOMContentLoaded', function () {
+  document.querySelectorAll('.article-wrapper[data-articles-path]').forEach(wrapper => {
+    const list = wrapper.querySelector('.article-list');
+    const moreButton = wrapper.querySelector('.article-more');
+    if (!list || !moreButton) {
+      return;
+    }
+    const path = wrapper.dataset.articlesPath;
+    const pageSize = wrapper.dataset.articlesPageSize;
+
+    function createCard(article) {
+      const card = document.createElement('div');
+      card.className = 'article-card';
+
+      const title = document.createElement('h3');
+      title.className = 'article-title';
+      title.textContent = article.artTitle || '';
+
+      const meta = document.createElement('div');
+      meta.className = 'article-meta';
+      const author = document.createElement('span');
+      author.className = 'article-author';
+      author.textContent = article.author || '';
+      const date = document.createElement('span');
+      date.className = 'article-date';
+      date.textContent = article.date || '';
+      meta.append(author, date);
+
+      const description = document.createElement('p');
+      description.className = 'article-description';
+      description.textContent = article.artDescription || '';
+
+      card.append(title, meta, description);
+      return card;
+    }
+
+    moreButton.addEventListener('click', () => {
+      const page = moreButton.dataset.articlesNextPage;
+      moreButton.disabled = true;
+      fetch(`${path}.model.page-${page}.size-${pageSize}.json`)
+        .then(response => {
+          if (!response.ok) {
+            throw new Error(`Loading articles failed with ${response.status}`);
+          }
+          return response.json();
+        })
+        .then(fragment => {
+          (fragment.article || []).forEach(article => list.appendChild(createCard(article)));
+          if (fragment.nextPage) {
+            moreButton.dataset.articlesNextPage = fragment.nextPage;
+            moreButton.disabled = false;
+          } else {
+            moreButton.remove();
+          }
+        })
+        .catch(error => {
+          console.error(error);
+          moreButton.disabled = false;
+        });
+    });
+  });
+});